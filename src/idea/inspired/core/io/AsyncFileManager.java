@@ -0,0 +1,612 @@
+package idea.inspired.core.io;
+
+import idea.inspired.core.util.DirectBuffers;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+
+/**
+ * The class is the non-blocking counterpart of {@link FileManager}.
+ * All the operations are based on {@link AsynchronousFileChannel} and
+ * return a {@link CompletableFuture} immediately, so they can be
+ * called from an event loop.
+ * 
+ * <P>A large file is split into ranges of {@link #getRangeSize()}
+ * bytes, and up to {@link #getMaxOutstanding()} ranges are read or
+ * written at the same time.</P>
+ * 
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ * @see {@link FileManager}
+ */
+public class AsyncFileManager {
+	
+	/** The default size of a range, i.e. 1 MB */
+	public static final int DEFAULT_RANGE_SIZE = 1 << 20;
+	
+	/** The default number of the outstanding requests per file */
+	public static final int DEFAULT_MAX_OUTSTANDING = 8;
+	
+	/** The shared instance with the default settings */
+	private static final AsyncFileManager DEFAULT =
+			new AsyncFileManager(DEFAULT_RANGE_SIZE, DEFAULT_MAX_OUTSTANDING);
+	
+	/** The size of each range in bytes */
+	private final int mRangeSize;
+	
+	/** The maximum number of the outstanding requests per file */
+	private final int mMaxOutstanding;
+	
+	/**
+	 * Creates a manager with the specified settings.
+	 * 
+	 * @param rangeSize - the size of each range in bytes
+	 * @param maxOutstanding - the maximum number of the outstanding
+	 *    requests per file
+	 */
+	public AsyncFileManager(int rangeSize, int maxOutstanding) {
+		if (rangeSize <= 0 || maxOutstanding <= 0) {
+			throw new IllegalArgumentException(
+					"The rangeSize and maxOutstanding should be " +
+					"positive numbers");
+		}
+		this.mRangeSize = rangeSize;
+		this.mMaxOutstanding = maxOutstanding;
+	}
+	
+	/**
+	 * Returns the shared instance with the default settings.
+	 * @return
+	 */
+	public static AsyncFileManager getDefault() {
+		return DEFAULT;
+	}
+	
+	/**
+	 * Returns the size of each range in bytes.
+	 * @return
+	 */
+	public int getRangeSize() {
+		return this.mRangeSize;
+	}
+	
+	/**
+	 * Returns the maximum number of the outstanding requests per file.
+	 * @return
+	 */
+	public int getMaxOutstanding() {
+		return this.mMaxOutstanding;
+	}
+	
+	/**
+	 * Reads the content from the specified file. Like
+	 * {@link FileManager#read(File)}, the header bytes (BOM) are
+	 * detected by {@link FileHeader} and skipped, and the content is
+	 * decoded with the charset of the header.
+	 * 
+	 * @param path - the file to read
+	 * @return
+	 *    the future of the content
+	 */
+	public CompletableFuture<StringBuilder> read(Path path) {
+		return readBytes(path).thenApply(bytes -> {
+			FileHeader header = FileHeader.getHeader(
+					bytes, Math.min(bytes.length, 4));
+			int offset = header.getHeaderLength();
+			
+			StringBuilder content = new StringBuilder();
+			content.append(new String(bytes, offset,
+					bytes.length - offset, header.getCharset()));
+			return content;
+		});
+	}
+	
+	/**
+	 * Reads the content from the specified file with the specified
+	 * charset. The header bytes are not skipped.
+	 * 
+	 * @param path - the file to read
+	 * @param charset - the charset to decode the content
+	 * @return
+	 *    the future of the content
+	 * @see {@link FileManager#read(File, String)}
+	 */
+	public CompletableFuture<StringBuilder> read(Path path,
+			final Charset charset) {
+		return readBytes(path).thenApply(bytes ->
+				new StringBuilder(new String(bytes, charset)));
+	}
+	
+	/**
+	 * Reads all the bytes of the specified file. The file is split
+	 * into ranges which are read in parallel.
+	 * 
+	 * @param path - the file to read
+	 * @return
+	 *    the future of the bytes
+	 */
+	public CompletableFuture<byte []> readBytes(Path path) {
+		final AsynchronousFileChannel channel;
+		final long size;
+		
+		try {
+			channel = AsynchronousFileChannel.open(
+					path, StandardOpenOption.READ);
+			size = channel.size();
+		} catch (IOException e) {
+			return failed(e);
+		}
+		
+		if (size > Integer.MAX_VALUE - 8) {
+			closeQuietly(channel);
+			return failed(new IOException(
+					"The file is too large to read into an array: " + path));
+		}
+		
+		final byte [] bytes = new byte [(int) size];
+		CompletableFuture<Void> done = forEachRange(size,
+				new RangeAction() {
+			@Override
+			public CompletableFuture<?> apply(int lane, long position,
+					int length) {
+				return readFully(channel,
+						ByteBuffer.wrap(bytes, (int) position, length),
+						position);
+			}
+		});
+		return closeWhenDone(channel, done).thenApply(v -> bytes);
+	}
+	
+	/**
+	 * Reads the specified range of the file.
+	 * 
+	 * @param path - the file to read
+	 * @param position - the position of the first byte to read
+	 * @param length - the maximum number of the bytes to read
+	 * @return
+	 *    the future of the bytes, which may be shorter than the
+	 *  specified length if the end of the file is reached
+	 */
+	public CompletableFuture<byte []> readBytes(Path path,
+			long position, int length) {
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		return read(path, new ByteBuffer [] {buffer}, position)
+				.thenApply(total -> {
+					byte [] bytes = new byte [total.intValue()];
+					System.arraycopy(buffer.array(), 0,
+							bytes, 0, bytes.length);
+					return bytes;
+				});
+	}
+	
+	/**
+	 * A scatter read: fills the buffers with the consecutive bytes of
+	 * the file starting at the specified position. All the buffers are
+	 * read in parallel, so a large file can be split into several
+	 * buffers to have multiple outstanding requests.
+	 * 
+	 * @param path - the file to read
+	 * @param buffers - the buffers to fill, in order
+	 * @param position - the position of the file where the first
+	 *    buffer starts
+	 * @return
+	 *    the future of the total number of the bytes read
+	 */
+	public CompletableFuture<Long> read(Path path,
+			final ByteBuffer [] buffers, long position) {
+		final AsynchronousFileChannel channel;
+		
+		try {
+			channel = AsynchronousFileChannel.open(
+					path, StandardOpenOption.READ);
+		} catch (IOException e) {
+			return failed(e);
+		}
+		
+		CompletableFuture<?> [] futures =
+				new CompletableFuture<?> [buffers.length];
+		final CompletableFuture<Integer> [] counts =
+				newIntegerFutures(buffers.length);
+		for (int i = 0; i < buffers.length; i++) {
+			int length = buffers[i].remaining();
+			counts[i] = readFully(channel, buffers[i], position);
+			futures[i] = counts[i];
+			position += length;
+		}
+		
+		CompletableFuture<Void> done = CompletableFuture.allOf(futures);
+		return closeWhenDone(channel, done).thenApply(v -> {
+			long total = 0;
+			for (CompletableFuture<Integer> count : counts) {
+				total += count.join();
+			}
+			return total;
+		});
+	}
+	
+	/**
+	 * Writes the content to the specified file with the default
+	 * charset, like {@link FileManager#write(File, String)}.
+	 * 
+	 * @param path - the file to write
+	 * @param content - the content to write
+	 * @return
+	 *    the future of the number of the bytes written
+	 */
+	public CompletableFuture<Long> write(Path path, String content) {
+		if (content == null) {
+			content = "";
+		}
+		return write(path, content.getBytes(Charset.defaultCharset()));
+	}
+	
+	/**
+	 * Writes the bytes to the specified file. The file is truncated
+	 * first, and the bytes are split into ranges which are written in
+	 * parallel.
+	 * 
+	 * @param path - the file to write
+	 * @param content - the bytes to write
+	 * @return
+	 *    the future of the number of the bytes written
+	 */
+	public CompletableFuture<Long> write(Path path, final byte [] content) {
+		final byte [] bytes = content != null ? content : new byte [0];
+		final AsynchronousFileChannel channel;
+		
+		try {
+			channel = openForWrite(path);
+		} catch (IOException e) {
+			return failed(e);
+		}
+		
+		CompletableFuture<Void> done = forEachRange(bytes.length,
+				new RangeAction() {
+			@Override
+			public CompletableFuture<?> apply(int lane, long position,
+					int length) {
+				return writeFully(channel,
+						ByteBuffer.wrap(bytes, (int) position, length),
+						position);
+			}
+		});
+		return closeWhenDone(channel, done).thenApply(
+				v -> Long.valueOf(bytes.length));
+	}
+	
+	/**
+	 * A gather write: writes the buffers as consecutive bytes of the
+	 * file starting at the specified position. All the buffers are
+	 * written in parallel. The file is not truncated.
+	 * 
+	 * @param path - the file to write
+	 * @param buffers - the buffers to write, in order
+	 * @param position - the position of the file where the first
+	 *    buffer is written
+	 * @return
+	 *    the future of the total number of the bytes written
+	 */
+	public CompletableFuture<Long> write(Path path,
+			ByteBuffer [] buffers, long position) {
+		final AsynchronousFileChannel channel;
+		
+		try {
+			File file = path.toFile();
+			if (!FileManager.ensureParentDirectory(file)) {
+				throw new IOException("Failed to create the file directory \"" +
+						file.getParent() + "\"!");
+			}
+			channel = AsynchronousFileChannel.open(path,
+					StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+		} catch (IOException e) {
+			return failed(e);
+		}
+		
+		CompletableFuture<?> [] futures =
+				new CompletableFuture<?> [buffers.length];
+		long total = 0;
+		for (int i = 0; i < buffers.length; i++) {
+			int length = buffers[i].remaining();
+			futures[i] = writeFully(channel, buffers[i], position);
+			position += length;
+			total += length;
+		}
+		
+		final Long written = Long.valueOf(total);
+		return closeWhenDone(channel, CompletableFuture.allOf(futures))
+				.thenApply(v -> written);
+	}
+	
+	/**
+	 * Copies the source file to the target file. Each range is read
+	 * from the source and then written to the target, with several
+	 * ranges in flight at the same time. Each lane reuses one direct
+	 * buffer for its ranges, which is freed when the copy is done.
+	 * 
+	 * @param src - the source file
+	 * @param dest - the target file
+	 * @return
+	 *    the future of the number of the bytes copied
+	 * @see {@link FileManager#copy(File, File)}
+	 */
+	public CompletableFuture<Long> copy(Path src, Path dest) {
+		final AsynchronousFileChannel input;
+		final AsynchronousFileChannel output;
+		final long size;
+		
+		try {
+			input = AsynchronousFileChannel.open(
+					src, StandardOpenOption.READ);
+		} catch (IOException e) {
+			return failed(e);
+		}
+		try {
+			size = input.size();
+			output = openForWrite(dest);
+		} catch (IOException e) {
+			closeQuietly(input);
+			return failed(e);
+		}
+		
+		final ByteBuffer [] buffers = new ByteBuffer [mMaxOutstanding];
+		CompletableFuture<Void> done = forEachRange(size,
+				new RangeAction() {
+			@Override
+			public CompletableFuture<?> apply(int lane, final long position,
+					int length) {
+				if (buffers[lane] == null) {
+					buffers[lane] = ByteBuffer.allocateDirect(mRangeSize);
+				}
+				final ByteBuffer buffer = buffers[lane];
+				buffer.clear();
+				buffer.limit(length);
+				return readFully(input, buffer, position)
+						.thenCompose(count -> {
+							buffer.flip();
+							return writeFully(output, buffer, position);
+						});
+			}
+		}).whenComplete((v, e) -> {
+			// no range is in flight any more
+			for (ByteBuffer buffer : buffers) {
+				DirectBuffers.free(buffer);
+			}
+		});
+		
+		final Long copied = Long.valueOf(size);
+		return closeWhenDone(input, closeWhenDone(output, done))
+				.thenApply(v -> copied);
+	}
+	
+	//-------------------------------------------------------------
+	// Range scheduling
+	//-------------------------------------------------------------
+	
+	/** The action applied to each range of a file. */
+	private interface RangeAction {
+		
+		/**
+		 * @param lane - the lane of the range, in [0, 
+		 *    {@link #mMaxOutstanding}); a lane applies one range at a time
+		 * @param position
+		 * @param length
+		 */
+		CompletableFuture<?> apply(int lane, long position, int length);
+	}
+	
+	/**
+	 * Applies the action to each range of [0, size). The ranges are
+	 * assigned to {@link #mMaxOutstanding} lanes in the round-robin
+	 * way; the ranges of a lane are processed one after another, and
+	 * the lanes run in parallel. Once a range fails, the lanes start no
+	 * more ranges, and the returned future fails after the ranges in 
+	 * flight are done, so the channels are not closed under them.
+	 */
+	private CompletableFuture<Void> forEachRange(final long size,
+			final RangeAction action) {
+		final long ranges = (size + mRangeSize - 1) / mRangeSize;
+		final int lanes = (int) Math.min(mMaxOutstanding, ranges);
+		final CompletableFuture<Void> done = new CompletableFuture<Void>();
+		
+		if (lanes == 0) {
+			done.complete(null);
+			return done;
+		}
+		
+		final AtomicInteger remainingLanes = new AtomicInteger(lanes);
+		final AtomicReference<Throwable> failure =
+				new AtomicReference<Throwable>();
+		for (int lane = 0; lane < lanes; lane++) {
+			final int index = lane;
+			new Runnable() {
+				private long mRange = index;
+				
+				@Override
+				public void run() {
+					if (mRange >= ranges || failure.get() != null) {
+						if (remainingLanes.decrementAndGet() == 0) {
+							Throwable e = failure.get();
+							if (e != null) {
+								done.completeExceptionally(e);
+							} else {
+								done.complete(null);
+							}
+						}
+						return;
+					}
+					
+					long position = mRange * mRangeSize;
+					int length = (int) Math.min(mRangeSize, size - position);
+					mRange += lanes;
+					
+					CompletableFuture<?> future;
+					try {
+						future = action.apply(index, position, length);
+					} catch (RuntimeException e) {
+						future = failed(e);
+					}
+					future.whenComplete((r, e) -> {
+						if (e != null) {
+							failure.compareAndSet(null, e);
+						}
+						run();
+					});
+				}
+			}.run();
+		}
+		return done;
+	}
+	
+	//-------------------------------------------------------------
+	// Channel helpers
+	//-------------------------------------------------------------
+	
+	private static AsynchronousFileChannel openForWrite(Path path)
+			throws IOException {
+		File file = path.toFile();
+		if (!FileManager.ensureParentDirectory(file)) {
+			throw new IOException("Failed to create the file directory \"" +
+					file.getParent() + "\"!");
+		}
+		if (file.exists() && !file.canWrite() && !file.setWritable(true)) {
+			throw new IOException("Failed to set the write permission." +
+					"\n - file: " + file);
+		}
+		return AsynchronousFileChannel.open(path,
+				StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+	}
+	
+	/**
+	 * Reads until the buffer is full or the end of the file is
+	 * reached.
+	 * 
+	 * @return
+	 *    the future of the number of the bytes read
+	 */
+	static CompletableFuture<Integer> readFully(
+			final AsynchronousFileChannel channel, final ByteBuffer buffer,
+			final long position) {
+		final CompletableFuture<Integer> future =
+				new CompletableFuture<Integer>();
+		final int start = buffer.position();
+		
+		channel.read(buffer, position, null,
+				new CompletionHandler<Integer, Void>() {
+			@Override
+			public void completed(Integer result, Void attachment) {
+				int read = buffer.position() - start;
+				if (result.intValue() < 0 || !buffer.hasRemaining()) {
+					future.complete(read);
+				} else {
+					channel.read(buffer, position + read, null, this);
+				}
+			}
+			
+			@Override
+			public void failed(Throwable e, Void attachment) {
+				future.completeExceptionally(e);
+			}
+		});
+		return future;
+	}
+	
+	/**
+	 * Writes all the remaining bytes of the buffer.
+	 * 
+	 * @return
+	 *    the future of the number of the bytes written
+	 */
+	static CompletableFuture<Integer> writeFully(
+			final AsynchronousFileChannel channel, final ByteBuffer buffer,
+			final long position) {
+		final CompletableFuture<Integer> future =
+				new CompletableFuture<Integer>();
+		final int start = buffer.position();
+		
+		if (!buffer.hasRemaining()) {
+			future.complete(0);
+			return future;
+		}
+		
+		channel.write(buffer, position, null,
+				new CompletionHandler<Integer, Void>() {
+			@Override
+			public void completed(Integer result, Void attachment) {
+				int written = buffer.position() - start;
+				if (!buffer.hasRemaining()) {
+					future.complete(written);
+				} else {
+					channel.write(buffer, position + written, null, this);
+				}
+			}
+			
+			@Override
+			public void failed(Throwable e, Void attachment) {
+				future.completeExceptionally(e);
+			}
+		});
+		return future;
+	}
+	
+	/**
+	 * Closes the channel when the future is completed, either normally
+	 * or exceptionally. A failure on closing fails the returned future.
+	 */
+	private static <T> CompletableFuture<T> closeWhenDone(
+			final AsynchronousFileChannel channel,
+			CompletableFuture<T> future) {
+		return future.handle((result, error) -> {
+			try {
+				channel.close();
+			} catch (IOException e) {
+				if (error == null) {
+					error = e;
+				}
+			}
+			if (error != null) {
+				throw wrap(error);
+			}
+			return result;
+		});
+	}
+	
+	private static void closeQuietly(AsynchronousFileChannel channel) {
+		try {
+			channel.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	private static CompletionException wrap(
+			Throwable e) {
+		if (e instanceof CompletionException) {
+			return (CompletionException) e;
+		}
+		return new CompletionException(e);
+	}
+	
+	private static <T> CompletableFuture<T> failed(Throwable e) {
+		CompletableFuture<T> future = new CompletableFuture<T>();
+		future.completeExceptionally(e);
+		return future;
+	}
+	
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static CompletableFuture<Integer> [] newIntegerFutures(
+			int length) {
+		return new CompletableFuture [length];
+	}
+}
@@ -0,0 +1,71 @@
+package idea.inspired.core.io;
+
+import java.nio.file.Path;
+
+/**
+ * The result of one file in a bulk operation, such as 
+ * {@link FileManager#readAll(java.util.Collection)}. It holds either 
+ * the value or the error of the operation.
+ * 
+ * @param <T> - the type of the value
+ * 
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+public class BulkResult<T> {
+	
+	/** The file which the operation is applied to */
+	private final Path mPath;
+	
+	/** The value of the operation, if it succeeded */
+	private final T mValue;
+	
+	/** The error of the operation, if it failed */
+	private final Exception mError;
+	
+	BulkResult(Path path, T value, Exception error) {
+		this.mPath = path;
+		this.mValue = value;
+		this.mError = error;
+	}
+	
+	/**
+	 * Returns the file which the operation is applied to.
+	 * @return
+	 */
+	public Path getPath() {
+		return this.mPath;
+	}
+	
+	/**
+	 * Returns the value of the operation.
+	 * @return
+	 *    the value, or <CODE>null</CODE> if the operation failed
+	 */
+	public T getValue() {
+		return this.mValue;
+	}
+	
+	/**
+	 * Returns the error of the operation.
+	 * @return
+	 *    the error, or <CODE>null</CODE> if the operation succeeded
+	 */
+	public Exception getError() {
+		return this.mError;
+	}
+	
+	/**
+	 * Returns true if the operation succeeded.
+	 * @return
+	 */
+	public boolean isSuccessful() {
+		return this.mError == null;
+	}
+	
+	@Override
+	public String toString() {
+		return this.mPath + ": " + 
+				(this.mError == null ? "OK" : this.mError.toString());
+	}
+}
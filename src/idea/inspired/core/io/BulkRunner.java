@@ -0,0 +1,108 @@
+package idea.inspired.core.io;
+
+import idea.inspired.core.io.schedule.IoPriority;
+import idea.inspired.core.io.schedule.IoScheduler;
+import idea.inspired.core.util.ThreadPools;
+
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs one task per file, each on its own (virtual) thread, and limits 
+ * the number of the files opened at the same time with a semaphore.
+ * The tasks run with the I/O priority of the calling thread.
+ * 
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+class BulkRunner {
+	
+	/** The default maximum number of the files opened at the same time */
+	static final int DEFAULT_MAX_OPEN_FILES = 256;
+	
+	/**
+	 * Runs the tasks and returns the results in the same order as the 
+	 * given paths.
+	 * 
+	 * @param paths - the file of each task
+	 * @param tasks - the tasks, one per path
+	 * @param maxOpenFiles - the maximum number of the tasks running at 
+	 *    the same time
+	 * @return
+	 */
+	static <T> List<BulkResult<T>> run(List<Path> paths, 
+			List<Callable<T>> tasks, int maxOpenFiles) {
+		if (maxOpenFiles <= 0) {
+			throw new IllegalArgumentException(
+					"The maxOpenFiles should be a positive number");
+		}
+		
+		final Semaphore permits = new Semaphore(maxOpenFiles);
+		final IoPriority priority = IoScheduler.getCurrentPriority(null);
+		ExecutorService executor = ThreadPools.newPerTaskExecutor(
+				"bulk-io", Math.min(maxOpenFiles, tasks.size() + 1));
+		List<Future<T>> futures = new ArrayList<Future<T>>(tasks.size());
+		List<BulkResult<T>> results = new ArrayList<BulkResult<T>>(tasks.size());
+		
+		try {
+			for (final Callable<T> task : tasks) {
+				futures.add(executor.submit(new Callable<T>() {
+					@Override
+					public T call() throws Exception {
+						permits.acquire();
+						IoPriority previous =
+								IoScheduler.setCurrentPriority(priority);
+						try {
+							return task.call();
+						} finally {
+							IoScheduler.setCurrentPriority(previous);
+							permits.release();
+						}
+					}
+				}));
+			}
+			
+			// collects the results in order
+			boolean interrupted = false;
+			for (int i = 0; i < futures.size(); i++) {
+				Path path = paths.get(i);
+				
+				if (interrupted) {
+					futures.get(i).cancel(true);
+					results.add(new BulkResult<T>(path, null, 
+							new InterruptedIOException("Cancelled")));
+					continue;
+				}
+				
+				try {
+					results.add(new BulkResult<T>(
+							path, futures.get(i).get(), null));
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					results.add(new BulkResult<T>(path, null, 
+							cause instanceof Exception 
+							? (Exception) cause : e));
+				} catch (InterruptedException e) {
+					interrupted = true;
+					futures.get(i).cancel(true);
+					results.add(new BulkResult<T>(path, null, 
+							new InterruptedIOException("Cancelled")));
+				}
+			}
+			
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		return results;
+	}
+}
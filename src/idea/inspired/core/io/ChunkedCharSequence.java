@@ -0,0 +1,175 @@
+package idea.inspired.core.io;
+
+import java.util.Arrays;
+
+/**
+ * A read-only {@link CharSequence} which is made of several chunks of 
+ * characters, like a rope. The chunks are used as they are, so 
+ * joining the decoded chunks of a large file does not copy them again.
+ * 
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ * @see {@link FileManager#readParallel(java.io.File)}
+ */
+public class ChunkedCharSequence implements CharSequence {
+	
+	/** The characters of each chunk */
+	private final char [][] mChunks;
+	
+	/** The number of the valid characters of each chunk */
+	private final int [] mLengths;
+	
+	/** 
+	 * The offset of the first character of each chunk, and the total 
+	 * length at the end, i.e. mOffsets[mChunks.length] 
+	 */
+	private final int [] mOffsets;
+	
+	/** 
+	 * The index of the chunk accessed last time, to avoid the binary 
+	 * search for sequential access. A stale value is harmless.
+	 */
+	private int mLastChunk;
+	
+	/**
+	 * Creates a sequence from the chunks.
+	 * 
+	 * @param chunks - the characters of each chunk
+	 * @param lengths - the number of the valid characters of each 
+	 *    chunk, starting from index 0
+	 * @throws IllegalArgumentException if the total length exceeds 
+	 *    {@link Integer#MAX_VALUE}
+	 */
+	public ChunkedCharSequence(char [][] chunks, int [] lengths) {
+		if (chunks.length != lengths.length) {
+			throw new IllegalArgumentException(
+					"The chunks and lengths should have the same size");
+		}
+		
+		this.mChunks = chunks;
+		this.mLengths = lengths;
+		this.mOffsets = new int [chunks.length + 1];
+		
+		long offset = 0;
+		for (int i = 0; i < chunks.length; i++) {
+			if (lengths[i] < 0 || lengths[i] > chunks[i].length) {
+				throw new IllegalArgumentException(
+						"Invalid length of the chunk " + i);
+			}
+			mOffsets[i] = (int) offset;
+			offset += lengths[i];
+			if (offset > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException(
+						"The sequence is longer than Integer.MAX_VALUE");
+			}
+		}
+		mOffsets[chunks.length] = (int) offset;
+	}
+	
+	/**
+	 * Returns the number of the chunks.
+	 * @return
+	 */
+	public int getChunkCount() {
+		return this.mChunks.length;
+	}
+	
+	/**
+	 * Returns the characters of the chunk, to be processed in place. The
+	 * array is shared and should not be modified; only the first
+	 * {@link #getChunkLength(int)} characters are valid.
+	 *
+	 * @param chunk - the index of the chunk
+	 * @return
+	 */
+	public char [] getChunk(int chunk) {
+		return this.mChunks[chunk];
+	}
+	
+	/**
+	 * Returns the number of the valid characters of the chunk.
+	 *
+	 * @param chunk - the index of the chunk
+	 * @return
+	 */
+	public int getChunkLength(int chunk) {
+		return this.mLengths[chunk];
+	}
+	
+	@Override
+	public int length() {
+		return mOffsets[mChunks.length];
+	}
+	
+	@Override
+	public char charAt(int index) {
+		if (index < 0 || index >= length()) {
+			throw new IndexOutOfBoundsException("index: " + index);
+		}
+		int chunk = findChunk(index);
+		return mChunks[chunk][index - mOffsets[chunk]];
+	}
+	
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		if (start < 0 || end > length() || start > end) {
+			throw new IndexOutOfBoundsException(
+					"start: " + start + ", end: " + end);
+		}
+		StringBuilder builder = new StringBuilder(end - start);
+		appendTo(builder, start, end);
+		return builder;
+	}
+	
+	/**
+	 * Appends the characters in [start, end) to the builder, chunk by 
+	 * chunk.
+	 * 
+	 * @param builder
+	 * @param start
+	 * @param end
+	 */
+	public void appendTo(StringBuilder builder, int start, int end) {
+		if (start >= end) {
+			return;
+		}
+		
+		int chunk = findChunk(start);
+		while (start < end) {
+			int from = start - mOffsets[chunk];
+			int count = Math.min(mLengths[chunk] - from, end - start);
+			builder.append(mChunks[chunk], from, count);
+			start += count;
+			chunk++;
+		}
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder(length());
+		appendTo(builder, 0, length());
+		return builder.toString();
+	}
+	
+	/** Finds the chunk which contains the character at the index. */
+	private int findChunk(int index) {
+		int chunk = mLastChunk;
+		
+		if (chunk < mChunks.length && mOffsets[chunk] <= index 
+				&& index < mOffsets[chunk + 1]) {
+			return chunk;
+		}
+		
+		// finds the last chunk whose offset is not after the index, 
+		// and skips the empty chunks
+		chunk = Arrays.binarySearch(mOffsets, 0, mChunks.length, index);
+		if (chunk < 0) {
+			chunk = -chunk - 2;
+		}
+		while (mLengths[chunk] == 0 || index >= mOffsets[chunk + 1]) {
+			chunk++;
+		}
+		mLastChunk = chunk;
+		return chunk;
+	}
+}
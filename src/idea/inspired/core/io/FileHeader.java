@@ -16,27 +16,27 @@ import java.nio.charset.Charset;
  */
 public enum FileHeader {
 	UTF8(
-			Charset.forName("UTF-8"), 
+			"UTF-8", 
 			new byte[] {(byte)0xEF, (byte)0xBB, (byte)0xBF}),
 			
 	UTF16_BIG_ENDIAN(
-			Charset.forName("UTF-16BE"), // 254 255
+			"UTF-16BE", // 254 255
 			new byte[] {(byte)0xFE, (byte)0xFF}),
 			
 	UTF16_LITTLE_ENDIAN(// default unicode
-			Charset.forName("UTF-16LE"), // 255 254
+			"UTF-16LE", // 255 254
 			new byte[] {(byte)0xFF, (byte)0xFE}), 
 			
 	UTF32_BIG_ENDIAN(
-			Charset.forName("UTF-32BE"), // 0 0 254 255
+			"UTF-32BE", // 0 0 254 255
 			new byte[] {(byte)0x00, (byte)0x00, (byte)0xFE, (byte)0xFF}),
 			
 	UTF32_LITTLE_ENDIAN(
-			Charset.forName("UTF-32LE"), // 255 254 0 0
+			"UTF-32LE", // 255 254 0 0
 			new byte[] {(byte)0xFF, (byte)0xFE, (byte)0x00, (byte)0x00}), 
 			
 	NO_HEADER(
-			Charset.forName(System.getProperty("file.encoding")),
+			null, // the default charset, resolved on each call
 			null);
 	
 	
@@ -45,31 +45,50 @@ public enum FileHeader {
 	 * The name of the character set that is used to defines 
 	 * methods for creating decoders and encoders.
 	 */
-	private Charset mCharset;
+	private final String mCharsetName;
+	
+	/** 
+	 * The character set, looked up on the first use rather than when 
+	 * the class is initialized, so a short-lived process which never 
+	 * needs it does not pay for the lookups. A racing lookup is 
+	 * harmless.
+	 */
+	private volatile Charset mCharset;
 	
 	/** Defines the byte sequence  */
 	private byte [] mBytes;
 	
 	/** The private default constructor. */
-	private FileHeader(Charset charset, byte [] bytes) {
-		this.mCharset = charset;
+	private FileHeader(String charsetName, byte [] bytes) {
+		this.mCharsetName = charsetName;
 		this.mBytes = bytes;
 	}
 	
 	/**
-	 * Returns the charset of the header.
+	 * Returns the charset of the header. The charset of 
+	 * {@link #NO_HEADER} is the default charset of the JVM.
 	 * @return
 	 */
 	public Charset getCharset() {
-		return this.mCharset;
+		if (this.mCharsetName == null) {
+			return Charset.defaultCharset();
+		}
+		
+		Charset charset = this.mCharset;
+		if (charset == null) {
+			charset = Charset.forName(this.mCharsetName);
+			this.mCharset = charset;
+		}
+		return charset;
 	}
 	
 	/**
 	 * Returns the length of the header.
 	 * @return
+	 *    the length of the header, or 0 for {@link #NO_HEADER}
 	 */
 	public int getHeaderLength() {
-		return this.mBytes.length;
+		return this.mBytes != null ? this.mBytes.length : 0;
 	}
 	
 	/**
@@ -81,7 +100,6 @@ public enum FileHeader {
 	 */
 	public static FileHeader getHeader(File file) throws IOException {
 		final boolean DEBUG = false;
-		FileHeader header;
 		byte [] bytes = new byte [4];
 		int length;
 		
@@ -93,17 +111,32 @@ public enum FileHeader {
 		if (DEBUG) {
 			FileManager.dumpHead(bytes, length, System.err);
 		}
+		return getHeader(bytes, length);
+	}
+	
+	/**
+	 * Gets the header info from the leading bytes of a file, which 
+	 * have already been read by the caller.
+	 * 
+	 * @param bytes - the leading bytes of the file
+	 * @param length - the number of the valid bytes
+	 * @return
+	 */
+	public static FileHeader getHeader(byte [] bytes, int length) {
+		FileHeader header;
 		
+		// the UTF-32LE header starts with the UTF-16LE one, so the longer 
+		// one is checked first
 		if (compareBytes(bytes, length, UTF8)) {
 			header = UTF8;
+		} else if (compareBytes(bytes, length, UTF32_LITTLE_ENDIAN)) {
+			header = UTF32_LITTLE_ENDIAN;
 		} else if (compareBytes(bytes, length, UTF16_BIG_ENDIAN)) {
 			header = UTF16_BIG_ENDIAN;
 		} else if (compareBytes(bytes, length, UTF16_LITTLE_ENDIAN)) {
 			header = UTF16_LITTLE_ENDIAN;
 		} else if (compareBytes(bytes, length, UTF32_BIG_ENDIAN)) {
 			header = UTF32_BIG_ENDIAN;
-		} else if (compareBytes(bytes, length, UTF32_LITTLE_ENDIAN)) {
-			header = UTF32_LITTLE_ENDIAN;
 		} else {
 			header = NO_HEADER;
 		}
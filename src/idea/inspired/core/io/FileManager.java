@@ -1,5 +1,9 @@
 package idea.inspired.core.io;
 
+import idea.inspired.core.io.compress.CompressionCodec;
+import idea.inspired.core.io.compress.CompressionCodecs;
+import idea.inspired.core.io.schedule.IoPriority;
+import idea.inspired.core.io.schedule.IoScheduler;
 import idea.inspired.core.os.SystemUtils;
 
 import java.io.BufferedInputStream;
@@ -7,16 +11,32 @@ import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintStream;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.ZipException;
 
 
 /**
@@ -34,6 +54,97 @@ public class FileManager {
 	private static final char [] HEXI_DECIMAL
 			= "0123456789ABCDEF".toCharArray();
 	
+	/** The length of the longest file header and codec magic */
+	private static final int HEAD_LENGTH = 
+			Math.max(4, CompressionCodec.MAGIC_LENGTH);
+	
+	/** The scheduler of the IO operations, or null if not scheduled */
+	private static volatile IoScheduler sScheduler;
+	
+	/**
+	 * Routes the reads, the writes and the copies through the scheduler.
+	 * By default, a read is {@link IoPriority#INTERACTIVE}, a write is 
+	 * {@link IoPriority#NORMAL} and a copy is {@link IoPriority#BULK}, 
+	 * unless the thread has set its priority by 
+	 * {@link IoScheduler#setCurrentPriority(IoPriority)}.
+	 * 
+	 * @param scheduler - the scheduler, or null not to schedule
+	 */
+	public static void setScheduler(IoScheduler scheduler) {
+		sScheduler = scheduler;
+	}
+	
+	/**
+	 * Returns the scheduler of the IO operations.
+	 * @return
+	 *    the scheduler, or null if the operations are not scheduled
+	 */
+	public static IoScheduler getScheduler() {
+		return sScheduler;
+	}
+	
+	/** The locks of the paths, or null if not locked */
+	private static volatile PathLocks sLocks;
+	
+	/**
+	 * Serializes the reads, the writes and the copies of the same file 
+	 * by the locks, while the ones of the different files run in 
+	 * parallel. A read holds the file shared, a write holds it 
+	 * exclusive, and a copy holds the source shared and the target 
+	 * exclusive, one file at a time.
+	 * 
+	 * @param locks - the locks, or null not to lock the paths
+	 */
+	public static void setLocks(PathLocks locks) {
+		sLocks = locks;
+	}
+	
+	/**
+	 * Returns the locks of the paths.
+	 * @return
+	 *    the locks, or null if the paths are not locked
+	 */
+	public static PathLocks getLocks() {
+		return sLocks;
+	}
+	
+	private static PathLocks.Handle lockShared(File file) 
+			throws IOException {
+		PathLocks locks = sLocks;
+		return locks == null ? PathLocks.UNLOCKED : locks.lockShared(file);
+	}
+	
+	static PathLocks.Handle lockExclusive(File file) 
+			throws IOException {
+		PathLocks locks = sLocks;
+		return locks == null ? PathLocks.UNLOCKED 
+				: locks.lockExclusive(file);
+	}
+	
+	/**
+	 * Opens the file for writing, holding the file lock if the locks 
+	 * are cross-process.
+	 */
+	private static OutputStream openOutputStream(File file) 
+			throws IOException {
+		PathLocks locks = sLocks;
+		return locks == null ? new FileOutputStream(file) 
+				: locks.openOutputStream(file);
+	}
+	
+	/**
+	 * Acquires a ticket of the scheduler, if any.
+	 */
+	private static IoScheduler.Ticket schedule(IoPriority defaultPriority) 
+			throws IOException {
+		IoScheduler scheduler = sScheduler;
+		if (scheduler == null) {
+			return IoScheduler.UNSCHEDULED;
+		}
+		return scheduler.acquire(
+				IoScheduler.getCurrentPriority(defaultPriority));
+	}
+	
 	/**
 	 * Dumps the header part with the specified length.
 	 * 
@@ -132,6 +243,23 @@ public class FileManager {
 	 * @return
 	 */
 	public static boolean copy(File src, File dest) {
+		return copy(src, dest, null);
+	}
+	
+	/**
+	 * Copies the file or directory like {@link #copy(File, File)}, and 
+	 * compresses each target file with the specified codec. The names 
+	 * of the target files are not changed.
+	 * 
+	 * @param src
+	 * @param dest
+	 * @param codec - the codec to compress the target files, or 
+	 *    <CODE>null</CODE> to copy them as they are
+	 * @return
+	 * @see {@link CompressionCodecs}
+	 */
+	public static boolean copy(File src, File dest, 
+			CompressionCodec codec) {
 		
 		// Checks the parameters:
 		// Case 1: null pointer
@@ -145,10 +273,10 @@ public class FileManager {
 		}
 		
 		try {
-			return _copy(src, dest);
+			return _copy(src, dest, codec);
 		} catch (IOException e) {
 			e.printStackTrace();
-
+			
 			StringBuffer error = new StringBuffer();
 			
 			error.append("\n[src]:\n   ");
@@ -172,15 +300,153 @@ public class FileManager {
 				error.append(dest.getCanonicalPath());
 			} catch (IOException srcErr) {
 			};
-
+			
 			error.append("\n");
 			System.err.println(error);
 			return false;
 		}
 	}
 	
-	private static boolean _copy(File src, File dest) 
-			throws IOException {
+	/**
+	 * Moves the file or directory to the target path, like 
+	 * {@link #move(File, File, TreeListener)} without a listener.
+	 * 
+	 * @param src
+	 * @param dest
+	 * @return
+	 */
+	public static TreeReport move(File src, File dest) {
+		return move(src, dest, null);
+	}
+	
+	/**
+	 * <P>Moves the file or directory to the target path. If the target 
+	 * does not exist, or it is a file, the source is renamed 
+	 * atomically. Otherwise, e.g. across volumes or into an existing 
+	 * directory, the entries are moved in parallel: each file is 
+	 * renamed, or copied and deleted, and each source directory is 
+	 * deleted after its entries.</P>
+	 * 
+	 * <P>A file, or a symbolic link, moved to an existing directory is 
+	 * moved into it, i.e. to <CODE>dest/&lt;name&gt;</CODE>, like 
+	 * <CODE>mv</CODE> does; it fails if that is a directory.</P>
+	 * 
+	 * <P>The entries which could not be moved are kept in the source, 
+	 * with their parent directories, and reported.</P>
+	 * 
+	 * @param src
+	 * @param dest
+	 * @param listener - receives the progress and the errors, or 
+	 *    <CODE>null</CODE>
+	 * @return
+	 *    the report, which has the error of each entry not moved
+	 * @see {@link #copy(File, File)}
+	 */
+	public static TreeReport move(File src, File dest, 
+			TreeListener listener) {
+		if (src == null || dest == null) {
+			throw new IllegalArgumentException(
+					"The src and dest can not be null");
+		}
+		TreeReport report = new TreeReport(listener);
+		
+		if (!Files.exists(src.toPath(), LinkOption.NOFOLLOW_LINKS)) {
+			report.addError(src, new FileNotFoundException(src.toString()));
+			return report;
+		}
+		if (dest.isDirectory() && !Files.isDirectory(src.toPath(), 
+				LinkOption.NOFOLLOW_LINKS)) {
+			dest = new File(dest, src.getName());
+			if (dest.isDirectory()) {
+				report.addError(src, new IOException("Failed to move the " +
+						"file \"" + src + "\" onto the directory \"" + 
+						dest + "\""));
+				return report;
+			}
+		}
+		if (isAncestor(src, dest)) {
+			report.addError(src, new IOException("Failed to move \"" + 
+					src + "\" into itself: \"" + dest + "\""));
+			return report;
+		}
+		if (!ensureParentDirectory(dest)) {
+			report.addError(dest, new IOException(
+					"Failed to create the file directory \"" + 
+					dest.getParent() + "\"!"));
+			return report;
+		}
+		
+		// a directory is not renamed onto an existing one, which would 
+		// be replaced if empty
+		if (!dest.isDirectory()) {
+			try {
+				Files.move(src.toPath(), dest.toPath(), 
+						StandardCopyOption.ATOMIC_MOVE);
+				report.setRenamed();
+				report.addEntries(1);
+				report.addProcessed();
+				return report;
+			} catch (IOException e) {
+				// e.g. across volumes, moves the entries one by one
+			}
+		}
+		TreeOperation.move(src, dest, report);
+		return report;
+	}
+	
+	/**
+	 * Deletes the file or directory, like 
+	 * {@link #deleteTree(File, TreeListener)} without a listener.
+	 * 
+	 * @param root
+	 * @return
+	 */
+	public static TreeReport deleteTree(File root) {
+		return deleteTree(root, null);
+	}
+	
+	/**
+	 * Deletes the file or directory, including all of its entries. The 
+	 * files are deleted in parallel, and each directory is deleted 
+	 * after its entries. The symbolic links are deleted, not followed. 
+	 * The entries which could not be deleted are kept, with their 
+	 * parent directories, and reported.
+	 * 
+	 * @param root
+	 * @param listener - receives the progress and the errors, or 
+	 *    <CODE>null</CODE>
+	 * @return
+	 *    the report, which has the error of each entry not deleted; 
+	 *  it is successful and empty if the root does not exist
+	 */
+	public static TreeReport deleteTree(File root, TreeListener listener) {
+		if (root == null) {
+			throw new IllegalArgumentException("The root can not be null");
+		}
+		TreeReport report = new TreeReport(listener);
+		if (Files.exists(root.toPath(), LinkOption.NOFOLLOW_LINKS)) {
+			TreeOperation.delete(root, report);
+		}
+		return report;
+	}
+	
+	/**
+	 * Returns true if the file is the directory or one of its entries.
+	 */
+	private static boolean isAncestor(File directory, File file) {
+		try {
+			String parent = directory.getCanonicalPath();
+			String child = file.getCanonicalPath();
+			return child.equals(parent) 
+					|| child.startsWith(parent.endsWith(File.separator) 
+							? parent : parent + File.separator);
+		} catch (IOException e) {
+			return false;
+		}
+	}
+	
+	static boolean _copy(File src, File dest, 
+			CompressionCodec codec) throws IOException {
 		
 		if (src.isDirectory()) {
 			String [] files = src.list();
@@ -200,15 +466,17 @@ public class FileManager {
 			// Recursively does it
 			for (int i = 0; i < files.length; i++) {
 				_copy(new File(src, files[i]),
-						new File(dest, files[i]));
+						new File(dest, files[i]), codec);
 			}
 		} else {
 			//---------------------------------------------
 			// copies the specific file to the target file
 			//---------------------------------------------
+			// a large buffer, so the scheduler is called once per 64 KB
+			final int BUFFER_LENGTH = 64 * 1024;
 			BufferedInputStream bis;
-			BufferedOutputStream bos;
-			byte [] buffer = new byte [1024];
+			OutputStream bos;
+			byte [] buffer = new byte [BUFFER_LENGTH];
 			int length;
 			
 			// if the target file exists and it can be written, then
@@ -227,17 +495,37 @@ public class FileManager {
 				}
 			}
 			
-			bis = new BufferedInputStream(new FileInputStream(src));
-			bos = new BufferedOutputStream(new FileOutputStream(dest));
-			
-			//starts to copy bits from the source to the target
-			while ((length = bis.read(buffer)) != -1) {
-				bos.write(buffer, 0, length);
+			IoScheduler.Ticket ticket = schedule(IoPriority.BULK);
+			PathLocks.Handle handle = null;
+			try {
+				PathLocks locks = sLocks;
+				handle = locks == null ? PathLocks.UNLOCKED 
+						: locks.lock(src, dest);
+				bis = new BufferedInputStream(new FileInputStream(src));
+				try {
+					bos = new BufferedOutputStream(openOutputStream(dest));
+					try {
+						if (codec != null) {
+							bos = codec.newOutputStream(bos);
+						}
+						
+						//starts to copy bits from the source to the target
+						while ((length = bis.read(buffer)) != -1) {
+							ticket.throttle(length);
+							bos.write(buffer, 0, length);
+						}
+					} finally {
+						bos.close();
+					}
+				} finally {
+					bis.close();
+				}
+			} finally {
+				if (handle != null) {
+					handle.close();
+				}
+				ticket.close();
 			}
-			
-			//closes the input & output stream
-			bis.close();
-			bos.close();
 		}
 		return true;
 	}
@@ -308,7 +596,9 @@ public class FileManager {
 	}
 	
 	/**
-	 * Reads the content from the specified file.
+	 * Reads the content from the specified file. If the file is 
+	 * compressed by one of the {@link CompressionCodecs}, it is 
+	 * decompressed transparently.
 	 * 
 	 * @param file - a File to be opened for reading characters from.
 	 * @return
@@ -332,21 +622,294 @@ public class FileManager {
 		
 		// reads the file content
 		try {
-			// checks the header info to see if there are any header 
-			// bytes 
-			FileHeader header = FileHeader.getHeader(file);
+			content = _read(file);
+		} catch (IOException e) {
+			e.printStackTrace();
+			return null;
+		}
+		return content;
+	}
+	
+	private static StringBuilder _read(File file) throws IOException {
+		IoScheduler.Ticket ticket = schedule(IoPriority.INTERACTIVE);
+		try {
+			ticket.throttle(file.length());
+			PathLocks.Handle handle = lockShared(file);
+			try {
+				return _readScheduled(file);
+			} finally {
+				handle.close();
+			}
+		} finally {
+			ticket.close();
+		}
+	}
+	
+	private static StringBuilder _readScheduled(File file) 
+			throws IOException {
+		byte [] head = new byte [HEAD_LENGTH];
+		int length = readHead(file, head);
+		
+		// is the file compressed?
+		CompressionCodec codec = detectCodec(head, length);
+		if (codec != null) {
+			StringBuilder content = readCompressedOrNull(file, codec);
+			if (content != null) {
+				return content;
+			}
+		}
+		
+		// checks the header info to see if there are any header 
+		// bytes 
+		FileHeader header = FileHeader.getHeader(head, length);
+		
+		// this purpose is mainly for Windows OS series
+		if (header == FileHeader.NO_HEADER) {
+			return readViaFileReader(file);
+		} else {
+			return readViaFileInputStream(file, header);
+		}
+	}
+	
+	/**
+	 * Reads the leading bytes of the file once, for both the codec and 
+	 * the header detection.
+	 * 
+	 * @param file
+	 * @param head - receives the bytes
+	 * @return
+	 *    the number of the bytes read
+	 * @throws IOException
+	 */
+	private static int readHead(File file, byte [] head) 
+			throws IOException {
+		int total = 0, length;
+		FileInputStream fis = new FileInputStream(file);
+		try {
+			while (total < head.length && (length = fis.read(
+					head, total, head.length - total)) != -1) {
+				total += length;
+			}
+		} finally {
+			fis.close();
+		}
+		return total;
+	}
+	
+	private static CompressionCodec detectCodec(byte [] head, int length) {
+		return CompressionCodecs.detect(head, 
+				Math.min(length, CompressionCodec.MAGIC_LENGTH));
+	}
+	
+	/**
+	 * Decompresses the file like {@link #readCompressed}. Since the 
+	 * zlib header is weak, a file detected as {@link 
+	 * CompressionCodecs#DEFLATE} which cannot be inflated is taken as a 
+	 * text which only begins like the header, so it should be read as 
+	 * it is; a broken file of the other codecs is an error.
+	 * 
+	 * @param file
+	 * @param codec
+	 * @return
+	 *    the content, or null if the zlib data cannot be inflated
+	 * @throws IOException
+	 */
+	private static StringBuilder readCompressedOrNull(File file, 
+			CompressionCodec codec) throws IOException {
+		try {
+			return readCompressed(file, codec);
+		} catch (ZipException e) {
+			if (codec != CompressionCodecs.DEFLATE) {
+				throw e;
+			}
+			return null;
+		} catch (EOFException e) {
+			if (codec != CompressionCodecs.DEFLATE) {
+				throw e;
+			}
+			return null;
+		}
+	}
+	
+	/**
+	 * Decompresses the file content, and then decodes it with the 
+	 * charset of its header.
+	 * 
+	 * @param file
+	 * @param codec
+	 * @return
+	 * @throws IOException
+	 */
+	private static StringBuilder readCompressed(File file, 
+			CompressionCodec codec) throws IOException {
+		final int BUFFER_LENGTH = 64 * 1024;
+		InputStream is = new BufferedInputStream(new FileInputStream(file));
+		ByteArrayOutputStream baos = 
+				new ByteArrayOutputStream(BUFFER_LENGTH);
+		byte [] buffer = new byte [BUFFER_LENGTH];
+		int length;
+		
+		try {
+			is = codec.newInputStream(is);
+			while ((length = is.read(buffer)) != -1) {
+				baos.write(buffer, 0, length);
+			}
+		} finally {
+			is.close();
+		}
+		
+		byte [] bytes = baos.toByteArray();
+		FileHeader header = FileHeader.getHeader(
+				bytes, Math.min(bytes.length, 4));
+		int offset = header.getHeaderLength();
+		return new StringBuilder(new String(bytes, offset, 
+				bytes.length - offset, header.getCharset()));
+	}
+	
+	/**
+	 * Reads the content from the specified file, decoding the chunks 
+	 * of the file in parallel.
+	 * 
+	 * @param file - a File to be opened for reading characters from.
+	 * @return
+	 *    the same as {@link #readParallel(File, boolean)} without 
+	 *  aligning the
+	 *  chunks to the lines
+	 * @see {@link #read(File)}
+	 */
+	public static CharSequence readParallel(File file) {
+		return readParallel(file, false);
+	}
+	
+	/**
+	 * <P>Reads the content from the specified file, decoding the chunks 
+	 * of the file in parallel on the {@link ForkJoinPool#commonPool()}.
+	 * The decoded chunks are joined without copying them again, so 
+	 * the result is a {@link ChunkedCharSequence} instead of a 
+	 * {@link StringBuilder}.</P>
+	 * 
+	 * <P>Only UTF-8 is decoded in parallel, i.e. the file has the UTF-8
+	 * header, or it has no header and the default charset is UTF-8. 
+	 * Otherwise, it is the same as {@link #read(File)}.</P>
+	 * 
+	 * @param file - a File to be opened for reading characters from.
+	 * @param alignToLines - true if each chunk should end at a line 
+	 *    separator, false if it only needs to end at a character
+	 * @return
+	 * <UL>
+	 *    <LI>the content in {@link CharSequence}</LI>
+	 *    <LI><CODE>null</CODE> if the argument <CODE><B>file</B></CODE>
+	 *        is <CODE>null</CODE></LI>
+	 *    <LI><CODE>null</CODE> if the file does not exist</LI>
+	 *    <LI><CODE>null</CODE> if there is an {@link IOException}</LI>
+	 * </UL>
+	 * @see {@link #read(File)}
+	 */
+	public static CharSequence readParallel(File file, 
+			boolean alignToLines) {
+		
+		// Does the file not exist?
+		if (file == null || file.exists() == false) {
+			return null;
+		}
+		
+		try {
+			byte [] head = new byte [HEAD_LENGTH];
+			int length = readHead(file, head);
+			FileHeader header = FileHeader.getHeader(head, length);
+			boolean utf8 = header == FileHeader.UTF8 
+					|| (header == FileHeader.NO_HEADER 
+					&& StandardCharsets.UTF_8.equals(
+							Charset.defaultCharset()));
 			
-			// this purpose is mainly for Windows OS series
-			if (header == FileHeader.NO_HEADER) {
-				content = readViaFileReader(file);
-			} else {
-				content = readViaFileInputStream(file, header);
+			if (!utf8 || detectCodec(head, length) != null) {
+				return _read(file);
+			}
+			
+			ParallelUtf8Reader reader = new ParallelUtf8Reader(
+					ParallelUtf8Reader.DEFAULT_CHUNK_SIZE, alignToLines, 
+					ForkJoinPool.commonPool());
+			IoScheduler.Ticket ticket = schedule(IoPriority.INTERACTIVE);
+			try {
+				ticket.throttle(file.length());
+				PathLocks.Handle handle = lockShared(file);
+				try {
+					return reader.read(file);
+				} finally {
+					handle.close();
+				}
+			} finally {
+				ticket.close();
 			}
 		} catch (IOException e) {
 			e.printStackTrace();
 			return null;
 		}
-		return content;
+	}
+	
+	/**
+	 * <P>Maps the file as an {@link OffHeapText}, which keeps the 
+	 * content off the heap in its encoded form, and decodes the 
+	 * characters on access. The text should be closed when it is no 
+	 * longer used.</P>
+	 * 
+	 * <P>The compressed files are decompressed and copied off the heap, 
+	 * since they cannot be mapped. The files are also copied instead of 
+	 * mapped while the {@link #setLocks(PathLocks) locks} are installed, 
+	 * since a mapping is read after the shared lock is released.</P>
+	 * 
+	 * @param file - a File to be mapped
+	 * @return
+	 * <UL>
+	 *    <LI>the content in {@link OffHeapText}</LI>
+	 *    <LI><CODE>null</CODE> if the argument <CODE><B>file</B></CODE>
+	 *        is <CODE>null</CODE></LI>
+	 *    <LI><CODE>null</CODE> if the file does not exist</LI>
+	 *    <LI><CODE>null</CODE> if there is an {@link IOException}</LI>
+	 * </UL>
+	 * @see {@link #read(File)}
+	 */
+	public static OffHeapText readOffHeap(File file) {
+		
+		// Does the file not exist?
+		if (file == null || file.exists() == false) {
+			return null;
+		}
+		
+		IoScheduler.Ticket ticket = null;
+		try {
+			ticket = schedule(IoPriority.INTERACTIVE);
+			PathLocks.Handle handle = lockShared(file);
+			try {
+				CompressionCodec codec = CompressionCodecs.detect(file);
+				if (codec != null) {
+					ticket.throttle(file.length());
+					StringBuilder content = readCompressedOrNull(file, codec);
+					if (content != null) {
+						return OffHeapText.copyOf(content);
+					}
+				}
+				
+				// the pages of a mapping are read after the lock is
+				// released, so the file is copied while it is locked
+				if (sLocks != null) {
+					ticket.throttle(file.length());
+					return OffHeapText.load(file);
+				}
+				
+				// the pages are read on access, so they are not throttled
+				return OffHeapText.map(file);
+			} finally {
+				handle.close();
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+			return null;
+		} finally {
+			if (ticket != null) {
+				ticket.close();
+			}
+		}
 	}
 	
 	/**
@@ -369,10 +932,13 @@ public class FileManager {
 		int length;
 		
 		// reads characters into the array
-		while ( (length = br.read(buffer)) != -1 ) {
-			content.append(buffer, 0, length);
+		try {
+			while ( (length = br.read(buffer)) != -1 ) {
+				content.append(buffer, 0, length);
+			}
+		} finally {
+			br.close();
 		}
-		br.close();
 		return content;
 	}
 	
@@ -391,12 +957,16 @@ public class FileManager {
 		byte [] buffer = new byte [BUFFER_LENGTH];
 		int length;
 		
-		// skips the head info
-		bis.skip(header.getHeaderLength());
-		
-		// reads characters into the array
-		while ((length = bis.read(buffer)) != -1) {
-			baos.write(buffer, 0, length);
+		try {
+			// skips the head info
+			bis.skip(header.getHeaderLength());
+			
+			// reads characters into the array
+			while ((length = bis.read(buffer)) != -1) {
+				baos.write(buffer, 0, length);
+			}
+		} finally {
+			bis.close();
 		}
 		content.append(new String(
 				baos.toByteArray(), header.getCharset()));
@@ -444,20 +1014,36 @@ public class FileManager {
 		}
 		
 		// reads the file content
+		IoScheduler.Ticket ticket = null;
 		try {
-			br = new BufferedReader(new InputStreamReader(
-					new FileInputStream(file), charsetName));
-			while ( (length = br.read(buffer)) != -1 ) {
-				sb.append(buffer, 0, length);
+			ticket = schedule(IoPriority.INTERACTIVE);
+			ticket.throttle(file.length());
+			PathLocks.Handle handle = lockShared(file);
+			try {
+				InputStream is = new FileInputStream(file);
+				try {
+					br = new BufferedReader(
+							new InputStreamReader(is, charsetName));
+					while ( (length = br.read(buffer)) != -1 ) {
+						sb.append(buffer, 0, length);
+					}
+				} finally {
+					is.close();
+				}
+			} finally {
+				handle.close();
 			}
-			br.close();
 		} catch (IOException e) {
 			e.printStackTrace();
 			return null;
+		} finally {
+			if (ticket != null) {
+				ticket.close();
+			}
 		}
 		return sb;
 	} 
-
+	
 	/**
 	 * Writes the content to the specific file.
 	 * @param file
@@ -477,19 +1063,12 @@ public class FileManager {
 	 *  otherwise 
 	 */
 	public static boolean write(File file, String content) {
-		BufferedWriter bw;
-		
 		if (checkWrite(file) == false) {
 			return false;
 		}
 		
 		try {
-			bw = new BufferedWriter(new FileWriter(file));
-			if (content == null) {
-				content = "";
-			}
-			bw.write(content);
-			bw.close();
+			_write(file, content);
 			return true;
 		} catch (FileNotFoundException e) {
 			e.printStackTrace();
@@ -522,18 +1101,12 @@ public class FileManager {
 	 *  otherwise 
 	 */
 	public static boolean write(File file, byte [] content) {
-		BufferedOutputStream bos;
-		
 		if (checkWrite(file) == false) {
 			return false;
 		}
 		
 		try {
-			bos = new BufferedOutputStream(new FileOutputStream(file));
-			if (content != null) {
-				bos.write(content);
-			}
-			bos.close();
+			_write(file, content);
 			return true;
 		} catch (FileNotFoundException e) {
 			e.printStackTrace();
@@ -543,6 +1116,334 @@ public class FileManager {
 		return false;
 	}
 	
+	/**
+	 * Writes the content to the specific file, compressed with the 
+	 * codec. The content is encoded with the default charset, like 
+	 * {@link #write(File, String)}, and {@link #read(File)} 
+	 * decompresses it transparently.
+	 * 
+	 * @param file
+	 * @param content
+	 * @param codec - the codec, or <CODE>null</CODE> not to compress
+	 * @return 
+	 *    true if writing to the specified file successfully; false 
+	 *  otherwise 
+	 * @see {@link CompressionCodecs}
+	 */
+	public static boolean write(File file, String content, 
+			CompressionCodec codec) {
+		if (content == null) {
+			content = "";
+		}
+		return write(file, 
+				content.getBytes(Charset.defaultCharset()), codec);
+	}
+	
+	/**
+	 * Writes the bytes to the specific file, compressed with the codec.
+	 * 
+	 * @param file
+	 * @param content
+	 * @param codec - the codec, or <CODE>null</CODE> not to compress
+	 * @return 
+	 *    true if writing to the specified file successfully; false 
+	 *  otherwise 
+	 * @see {@link CompressionCodecs}
+	 */
+	public static boolean write(File file, byte [] content, 
+			CompressionCodec codec) {
+		if (checkWrite(file) == false) {
+			return false;
+		}
+		
+		try {
+			_write(file, content, codec);
+			return true;
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		return false;
+	}
+	
+	private static void _write(File file, String content) 
+			throws IOException {
+		if (content == null) {
+			content = "";
+		}
+		IoScheduler.Ticket ticket = schedule(IoPriority.NORMAL);
+		try {
+			ticket.throttle(content.length());
+			PathLocks.Handle handle = lockExclusive(file);
+			try {
+				// the default charset, like FileWriter
+				BufferedWriter bw = new BufferedWriter(
+						new OutputStreamWriter(openOutputStream(file)));
+				try {
+					bw.write(content);
+				} finally {
+					bw.close();
+				}
+			} finally {
+				handle.close();
+			}
+		} finally {
+			ticket.close();
+		}
+	}
+	
+	private static void _write(File file, byte [] content) 
+			throws IOException {
+		_write(file, content, null);
+	}
+	
+	private static void _write(File file, byte [] content, 
+			CompressionCodec codec) throws IOException {
+		IoScheduler.Ticket ticket = schedule(IoPriority.NORMAL);
+		try {
+			if (content != null) {
+				ticket.throttle(content.length);
+			}
+			PathLocks.Handle handle = lockExclusive(file);
+			try {
+				OutputStream bos = new BufferedOutputStream(
+						openOutputStream(file));
+				try {
+					if (codec != null) {
+						bos = codec.newOutputStream(bos);
+					}
+					if (content != null) {
+						bos.write(content);
+					}
+				} finally {
+					bos.close();
+				}
+			} finally {
+				handle.close();
+			}
+		} finally {
+			ticket.close();
+		}
+	}
+	
+	/**
+	 * Reads the contents of the specified files. Each file is read on 
+	 * its own virtual thread (or on a pooled platform thread if the 
+	 * JDK does not support the virtual threads), and at most 
+	 * {@value BulkRunner#DEFAULT_MAX_OPEN_FILES} files are opened at 
+	 * the same time.
+	 * 
+	 * @param paths - the files to read
+	 * @return
+	 *    the results in the same order as the given paths. The value 
+	 *  of each result is the content as {@link #read(File)} returns, 
+	 *  the error is the reason why the file could not be read.
+	 * @see {@link #read(File)}
+	 */
+	public static List<BulkResult<StringBuilder>> readAll(
+			Collection<Path> paths) {
+		return readAll(paths, BulkRunner.DEFAULT_MAX_OPEN_FILES);
+	}
+	
+	/**
+	 * Reads the contents of the specified files in parallel.
+	 * 
+	 * @param paths - the files to read
+	 * @param maxOpenFiles - the maximum number of the files opened at
+	 *    the same time
+	 * @return
+	 *    the results in the same order as the given paths
+	 * @see {@link #readAll(Collection)}
+	 */
+	public static List<BulkResult<StringBuilder>> readAll(
+			Collection<Path> paths, int maxOpenFiles) {
+		List<Path> list = new ArrayList<Path>(paths);
+		List<Callable<StringBuilder>> tasks = 
+				new ArrayList<Callable<StringBuilder>>(list.size());
+		
+		for (final Path path : list) {
+			tasks.add(new Callable<StringBuilder>() {
+				@Override
+				public StringBuilder call() throws IOException {
+					return _read(path.toFile());
+				}
+			});
+		}
+		return BulkRunner.run(list, tasks, maxOpenFiles);
+	}
+	
+	/**
+	 * Writes the contents to the specified files in parallel, with at 
+	 * most {@value BulkRunner#DEFAULT_MAX_OPEN_FILES} files opened at 
+	 * the same time.
+	 * 
+	 * @param contents - the content of each file
+	 * @return
+	 *    the results in the iteration order of the given map
+	 * @see {@link #write(File, String)}
+	 */
+	public static List<BulkResult<Boolean>> writeAll(
+			Map<Path, String> contents) {
+		return writeAll(contents, BulkRunner.DEFAULT_MAX_OPEN_FILES);
+	}
+	
+	/**
+	 * Writes the contents to the specified files in parallel.
+	 * 
+	 * @param contents - the content of each file
+	 * @param maxOpenFiles - the maximum number of the files opened at
+	 *    the same time
+	 * @return
+	 *    the results in the iteration order of the given map
+	 * @see {@link #write(File, String)}
+	 */
+	public static List<BulkResult<Boolean>> writeAll(
+			Map<Path, String> contents, int maxOpenFiles) {
+		List<Path> list = new ArrayList<Path>(contents.size());
+		List<Callable<Boolean>> tasks = 
+				new ArrayList<Callable<Boolean>>(contents.size());
+		
+		for (final Entry<Path, String> entry : contents.entrySet()) {
+			list.add(entry.getKey());
+			tasks.add(new Callable<Boolean>() {
+				@Override
+				public Boolean call() throws IOException {
+					File file = entry.getKey().toFile();
+					checkBulkWrite(file);
+					_write(file, entry.getValue());
+					return Boolean.TRUE;
+				}
+			});
+		}
+		return BulkRunner.run(list, tasks, maxOpenFiles);
+	}
+	
+	/**
+	 * Writes the bytes to the specified files in parallel, with at 
+	 * most {@value BulkRunner#DEFAULT_MAX_OPEN_FILES} files opened at 
+	 * the same time.
+	 * 
+	 * @param contents - the content of each file
+	 * @return
+	 *    the results in the iteration order of the given map
+	 * @see {@link #write(File, byte[])}
+	 */
+	public static List<BulkResult<Boolean>> writeAllBytes(
+			Map<Path, byte []> contents) {
+		return writeAllBytes(contents, BulkRunner.DEFAULT_MAX_OPEN_FILES);
+	}
+	
+	/**
+	 * Writes the bytes to the specified files in parallel.
+	 * 
+	 * @param contents - the content of each file
+	 * @param maxOpenFiles - the maximum number of the files opened at
+	 *    the same time
+	 * @return
+	 *    the results in the iteration order of the given map
+	 * @see {@link #write(File, byte[])}
+	 */
+	public static List<BulkResult<Boolean>> writeAllBytes(
+			Map<Path, byte []> contents, int maxOpenFiles) {
+		List<Path> list = new ArrayList<Path>(contents.size());
+		List<Callable<Boolean>> tasks = 
+				new ArrayList<Callable<Boolean>>(contents.size());
+		
+		for (final Entry<Path, byte []> entry : contents.entrySet()) {
+			list.add(entry.getKey());
+			tasks.add(new Callable<Boolean>() {
+				@Override
+				public Boolean call() throws IOException {
+					File file = entry.getKey().toFile();
+					checkBulkWrite(file);
+					_write(file, entry.getValue());
+					return Boolean.TRUE;
+				}
+			});
+		}
+		return BulkRunner.run(list, tasks, maxOpenFiles);
+	}
+	
+	/**
+	 * Copies the files or directories in parallel, with at most 
+	 * {@value BulkRunner#DEFAULT_MAX_OPEN_FILES} copies running at 
+	 * the same time. The parent directories of the targets are created 
+	 * if needed.
+	 * 
+	 * @param pairs - maps each source to its target
+	 * @return
+	 *    the results in the iteration order of the given map, the path 
+	 *  of each result is the source
+	 * @see {@link #copy(File, File)}
+	 */
+	public static List<BulkResult<Boolean>> copyAll(Map<Path, Path> pairs) {
+		return copyAll(pairs, BulkRunner.DEFAULT_MAX_OPEN_FILES);
+	}
+	
+	/**
+	 * Copies the files or directories in parallel.
+	 * 
+	 * @param pairs - maps each source to its target
+	 * @param maxOpenFiles - the maximum number of the copies running at 
+	 *    the same time
+	 * @return
+	 *    the results in the iteration order of the given map, the path 
+	 *  of each result is the source
+	 * @see {@link #copy(File, File)}
+	 */
+	public static List<BulkResult<Boolean>> copyAll(Map<Path, Path> pairs, 
+			int maxOpenFiles) {
+		List<Path> list = new ArrayList<Path>(pairs.size());
+		List<Callable<Boolean>> tasks = 
+				new ArrayList<Callable<Boolean>>(pairs.size());
+		
+		for (final Entry<Path, Path> entry : pairs.entrySet()) {
+			list.add(entry.getKey());
+			tasks.add(new Callable<Boolean>() {
+				@Override
+				public Boolean call() throws IOException {
+					File src = entry.getKey().toFile();
+					File dest = entry.getValue().toFile();
+					
+					if (!src.exists()) {
+						throw new FileNotFoundException(src.toString());
+					}
+					if (!ensureParentDirectory(dest)) {
+						throw new IOException(
+								"Failed to create the file directory \"" + 
+								dest.getParent() + "\"!");
+					}
+					if (!_copy(src, dest, null)) {
+						throw new IOException("Failed to copy \"" + 
+								src + "\" to \"" + dest + "\"");
+					}
+					return Boolean.TRUE;
+				}
+			});
+		}
+		return BulkRunner.run(list, tasks, maxOpenFiles);
+	}
+	
+	/**
+	 * Like {@link #checkWrite(File)}, but throws an exception instead 
+	 * of returning false, so the reason is reported to the caller.
+	 * 
+	 * @param file
+	 * @throws IOException
+	 */
+	private static void checkBulkWrite(File file) throws IOException {
+		if (file.exists()) {
+			if (!file.canWrite() && !file.setWritable(true)) {
+				throw new IOException(
+						"Failed to set the write permission." +
+						"\n - file: " + file);
+			}
+		} else if (!ensureParentDirectory(file)) {
+			throw new IOException(
+					"Failed to create the file directory \"" + 
+					file.getParent() + "\"!");
+		}
+	}
+	
 	private static boolean checkWrite(File file) {
 		if (file == null) {
 			String e = "The file can not be null.";
@@ -0,0 +1,501 @@
+package idea.inspired.core.io;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <P>Reads any line of a huge text file without reading the lines
+ * before it.</P>
+ *
+ * <P>The start offsets of the lines are collected once, by scanning the
+ * chunks of the mapped file in parallel, and kept as a compact index:
+ * an absolute offset for every {@value #BLOCK_LINES} lines, plus a
+ * 32-bit delta for every line (about 4 bytes per line). The index is
+ * saved in a sidecar file, and is loaded instead of rebuilt next time
+ * if the size and the last modified time of the file are unchanged.
+ * Each read checks them again, so a changed file is indexed again.</P>
+ *
+ * <P>Lines are numbered from 1, like {@link
+ * idea.inspired.core.io.search.SearchMatch#getLineNumber()}. The
+ * charset is detected by {@link FileHeader}.</P>
+ *
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+public class LineIndexReader implements Closeable {
+	
+	/** The suffix of the default sidecar file */
+	public static final String INDEX_SUFFIX = ".lidx";
+	
+	/** The number of the lines sharing an absolute offset */
+	private static final int BLOCK_LINES = 64;
+	
+	private static final int MAGIC = 0x4C494458; // "LIDX"
+	private static final int VERSION = 1;
+	
+	/** The size of the fixed part of the sidecar file */
+	private static final int INDEX_HEADER_SIZE = 44;
+	
+	private final File mFile;
+	private final File mIndexFile;
+	
+	private RandomAccessFile mRaf;
+	private FileChannel mChannel;
+	
+	/** The size and the last modified time of the indexed file */
+	private long mSize;
+	private long mLastModified;
+	
+	private FileHeader mHeader;
+	private int mUnit;
+	
+	/** The number of the lines, and the end of the last line */
+	private int mLineCount;
+	private long mLastEnd;
+	
+	/** The start offset of every {@value #BLOCK_LINES}-th line */
+	private long [] mBases;
+	
+	/** The start offset of each line minus the base of its block */
+	private int [] mDeltas;
+	
+	/**
+	 * Creates a reader whose index is saved next to the file, with the
+	 * suffix {@value #INDEX_SUFFIX}.
+	 *
+	 * @param file
+	 */
+	public LineIndexReader(File file) {
+		this(file, file == null ? null :
+				new File(file.getPath() + INDEX_SUFFIX));
+	}
+	
+	/**
+	 * Creates a reader.
+	 *
+	 * @param file - the text file
+	 * @param indexFile - the sidecar file of the index, or null not to
+	 *    save the index
+	 */
+	public LineIndexReader(File file, File indexFile) {
+		if (file == null) {
+			throw new IllegalArgumentException("The file can not be null");
+		}
+		this.mFile = file;
+		this.mIndexFile = indexFile;
+	}
+	
+	/**
+	 * Returns the number of the lines. A line separator at the end of
+	 * the file does not start another line.
+	 *
+	 * @return
+	 * @throws IOException
+	 */
+	public synchronized int getLineCount() throws IOException {
+		ensureIndex();
+		return mLineCount;
+	}
+	
+	/**
+	 * Returns the line.
+	 *
+	 * @param lineNumber - starting from 1
+	 * @return
+	 *    the line without the line separator
+	 * @throws IOException
+	 */
+	public synchronized String getLine(int lineNumber) throws IOException {
+		return getLines(lineNumber, lineNumber).get(0);
+	}
+	
+	/**
+	 * Returns the lines in the range, read by a single positioned read.
+	 *
+	 * @param from - the first line number, starting from 1
+	 * @param to - the last line number, inclusive
+	 * @return
+	 *    the lines without the line separators
+	 * @throws IOException
+	 */
+	public synchronized List<String> getLines(int from, int to)
+			throws IOException {
+		ensureIndex();
+		if (from < 1 || to > mLineCount || from > to) {
+			throw new IndexOutOfBoundsException("The range [" + from +
+					", " + to + "] is out of [1, " + mLineCount + "]");
+		}
+		
+		long start = getOffset(from - 1);
+		long end = getEnd(to - 1);
+		if (end - start > Integer.MAX_VALUE) {
+			throw new IOException("The lines are too long to read at once");
+		}
+		
+		ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+		while (buffer.hasRemaining()) {
+			if (mChannel.read(buffer, start + buffer.position()) < 0) {
+				throw new IOException("The file is truncated: " + mFile);
+			}
+		}
+		
+		Charset charset = mHeader.getCharset();
+		byte [] bytes = buffer.array();
+		List<String> lines = new ArrayList<String>(to - from + 1);
+		for (int i = from - 1; i < to; i++) {
+			int lineStart = (int) (getOffset(i) - start);
+			int lineEnd = (int) (getEnd(i) - start);
+			lines.add(toLine(bytes, lineStart, lineEnd, charset));
+		}
+		return lines;
+	}
+	
+	/**
+	 * Returns true if the file has been changed since it was indexed.
+	 *
+	 * @return
+	 */
+	public synchronized boolean isStale() {
+		return mBases == null || mFile.length() != mSize
+				|| mFile.lastModified() != mLastModified;
+	}
+	
+	/**
+	 * Closes the file. The reader opens it again if it is used later.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (mRaf != null) {
+			mRaf.close();
+		}
+		mRaf = null;
+		mChannel = null;
+	}
+	
+	//-------------------------------------------------------------
+	// Index
+	//-------------------------------------------------------------
+	
+	/**
+	 * Opens the file, and loads or builds the index if it is missing or
+	 * stale.
+	 */
+	private void ensureIndex() throws IOException {
+		if (mChannel != null && !isStale()) {
+			return;
+		}
+		close();
+		if (!mFile.isFile()) {
+			throw new IOException("Not a file: " + mFile);
+		}
+		
+		mRaf = new RandomAccessFile(mFile, "r");
+		mChannel = mRaf.getChannel();
+		mSize = mChannel.size();
+		mLastModified = mFile.lastModified();
+		
+		ByteBuffer head = ByteBuffer.allocate(4);
+		int length = mChannel.read(head, 0);
+		mHeader = FileHeader.getHeader(head.array(), Math.max(length, 0));
+		mUnit = "\n".getBytes(mHeader.getCharset()).length;
+		
+		if (mIndexFile != null && mIndexFile.isFile()) {
+			try {
+				if (load()) {
+					return;
+				}
+			} catch (IOException e) {
+				// rebuilds a broken index
+			}
+		}
+		build();
+		if (mIndexFile != null) {
+			try {
+				save();
+			} catch (IOException e) {
+				// the index is kept in memory, e.g. in a read-only 
+				// directory
+			}
+		}
+	}
+	
+	/**
+	 * Finds the line separators of the chunks in parallel, and encodes
+	 * the start offsets of the lines.
+	 */
+	private void build() throws IOException {
+		final byte [] newline = "\n".getBytes(mHeader.getCharset());
+		final int unit = mUnit;
+		long start = mHeader.getHeaderLength();
+		
+		// the chunks are cut at the code units
+		int chunkSize = ParallelUtf8Reader.DEFAULT_CHUNK_SIZE;
+		List<Long> bounds = new ArrayList<Long>();
+		for (long position = start; position < mSize;
+				position += chunkSize) {
+			bounds.add(position);
+		}
+		bounds.add(mSize);
+		
+		int count = bounds.size() - 1;
+		final long [][] found = new long [count][];
+		final int [] foundCounts = new int [count];
+		List<RecursiveAction> tasks = new ArrayList<RecursiveAction>(count);
+		
+		for (int i = 0; i < count; i++) {
+			final int index = i;
+			final long from = bounds.get(i);
+			final long to = Math.min(bounds.get(i + 1),
+					start + (mSize - start) / unit * unit);
+			
+			tasks.add(new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
+				
+				@Override
+				protected void compute() {
+					try {
+						MappedByteBuffer bytes = mChannel.map(
+								FileChannel.MapMode.READ_ONLY,
+								from, Math.max(0, to - from));
+						long [] ends = new long [64];
+						int n = 0;
+						int length = bytes.limit();
+						for (int j = 0; j + unit <= length; j += unit) {
+							if (bytes.get(j) == newline[0]
+									&& matches(bytes, j, newline)) {
+								if (n == ends.length) {
+									ends = Arrays.copyOf(ends, n * 2);
+								}
+								ends[n++] = from + j + unit;
+							}
+						}
+						found[index] = ends;
+						foundCounts[index] = n;
+					} catch (IOException e) {
+						completeExceptionally(e);
+					}
+				}
+			});
+		}
+		
+		try {
+			ForkJoinPool.commonPool().submit(new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
+				
+				@Override
+				protected void compute() {
+					invokeAll(tasks);
+				}
+			}).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException(e.toString());
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			throw new IOException(cause);
+		}
+		
+		// a line starts at the beginning and after every separator,
+		// except the one at the end of the file
+		long total = mSize > start ? 1 : 0;
+		for (int n : foundCounts) {
+			total += n;
+		}
+		long lastEnd = mSize;
+		if (lastEnd(found, foundCounts) == mSize) {
+			total--;
+			lastEnd -= unit;
+		}
+		if (total > Integer.MAX_VALUE - 8) {
+			throw new IOException("Too many lines to index: " + mFile);
+		}
+		
+		int lineCount = (int) total;
+		long [] bases = new long [(lineCount + BLOCK_LINES - 1) / BLOCK_LINES];
+		int [] deltas = new int [lineCount];
+		int line = 0;
+		if (lineCount > 0) {
+			line = encode(bases, deltas, line, start);
+		}
+		for (int i = 0; i < count; i++) {
+			for (int j = 0; j < foundCounts[i] && line < lineCount; j++) {
+				line = encode(bases, deltas, line, found[i][j]);
+			}
+			found[i] = null;
+		}
+		
+		this.mLineCount = lineCount;
+		this.mLastEnd = lastEnd;
+		this.mBases = bases;
+		this.mDeltas = deltas;
+	}
+	
+	private static boolean matches(ByteBuffer bytes, int index,
+			byte [] pattern) {
+		for (int i = 1; i < pattern.length; i++) {
+			if (bytes.get(index + i) != pattern[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	private static long lastEnd(long [][] found, int [] counts) {
+		for (int i = counts.length - 1; i >= 0; i--) {
+			if (counts[i] > 0) {
+				return found[i][counts[i] - 1];
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Stores the offset of the line, and returns the next line.
+	 */
+	private int encode(long [] bases, int [] deltas, int line,
+			long offset) throws IOException {
+		int block = line / BLOCK_LINES;
+		if (line % BLOCK_LINES == 0) {
+			bases[block] = offset;
+		}
+		long delta = offset - bases[block];
+		if (delta > 0xFFFFFFFFL) {
+			throw new IOException("The lines are too long to index: " +
+					mFile);
+		}
+		deltas[line] = (int) delta; // unsigned
+		return line + 1;
+	}
+	
+	/**
+	 * Returns the start offset of the line, starting from 0.
+	 */
+	private long getOffset(int line) {
+		return mBases[line / BLOCK_LINES] + (mDeltas[line] & 0xFFFFFFFFL);
+	}
+	
+	/**
+	 * Returns the end offset of the line, excluding its line separator.
+	 */
+	private long getEnd(int line) {
+		return line + 1 < mLineCount ? getOffset(line + 1) - mUnit
+				: mLastEnd;
+	}
+	
+	private static String toLine(byte [] bytes, int start, int end,
+			Charset charset) {
+		String line = new String(bytes, start, end - start, charset);
+		if (line.endsWith("\r")) {
+			line = line.substring(0, line.length() - 1);
+		}
+		return line;
+	}
+	
+	//-------------------------------------------------------------
+	// Sidecar file
+	//-------------------------------------------------------------
+	
+	private void save() throws IOException {
+		File temp = new File(mIndexFile.getPath() + ".tmp-index");
+		boolean moved = false;
+		try {
+			DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(new FileOutputStream(temp)));
+			try {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeLong(mSize);
+				out.writeLong(mLastModified);
+				out.writeInt(mHeader.ordinal());
+				out.writeInt(mLineCount);
+				out.writeLong(mLastEnd);
+				out.writeInt(mBases.length);
+				for (long base : mBases) {
+					out.writeLong(base);
+				}
+				for (int delta : mDeltas) {
+					out.writeInt(delta);
+				}
+			} finally {
+				out.close();
+			}
+			Files.move(temp.toPath(), mIndexFile.toPath(),
+					StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+			moved = true;
+		} finally {
+			if (!moved) {
+				temp.delete();
+			}
+		}
+	}
+	
+	/**
+	 * Loads the index if it matches the file.
+	 *
+	 * @return
+	 *    false if the index is stale
+	 */
+	private boolean load() throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(mIndexFile, "r");
+		MappedByteBuffer map;
+		try {
+			map = raf.getChannel().map(FileChannel.MapMode.READ_ONLY,
+					0, raf.length());
+		} finally {
+			raf.close();
+		}
+		
+		if (map.capacity() < INDEX_HEADER_SIZE || map.getInt(0) != MAGIC
+				|| map.getInt(4) != VERSION) {
+			throw new IOException("Not a line index file: " + mIndexFile);
+		}
+		if (map.getLong(8) != mSize || map.getLong(16) != mLastModified
+				|| map.getInt(24) != mHeader.ordinal()) {
+			return false;
+		}
+		
+		int lineCount = map.getInt(28);
+		long lastEnd = map.getLong(32);
+		int blockCount = map.getInt(40);
+		if (blockCount != (lineCount + BLOCK_LINES - 1) / BLOCK_LINES
+				|| map.capacity() != INDEX_HEADER_SIZE
+						+ 8L * blockCount + 4L * lineCount) {
+			throw new IOException("The line index is broken: " + mIndexFile);
+		}
+		
+		long [] bases = new long [blockCount];
+		int [] deltas = new int [lineCount];
+		map.position(INDEX_HEADER_SIZE);
+		map.asLongBuffer().get(bases);
+		map.position(INDEX_HEADER_SIZE + 8 * blockCount);
+		map.asIntBuffer().get(deltas);
+		
+		this.mLineCount = lineCount;
+		this.mLastEnd = lastEnd;
+		this.mBases = bases;
+		this.mDeltas = deltas;
+		return true;
+	}
+}
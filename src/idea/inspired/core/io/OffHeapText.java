@@ -0,0 +1,531 @@
+package idea.inspired.core.io;
+
+import idea.inspired.core.util.DirectBuffers;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <P>A read-only {@link CharSequence} whose content is kept off the heap,
+ * in a mapped or direct {@link ByteBuffer}, in its encoded form. The
+ * characters are decoded on access, so a large file costs neither the
+ * doubled size of UTF-16 nor the GC of a {@link StringBuilder}.</P>
+ *
+ * <UL>
+ *    <LI>Latin-1 and ASCII take one byte per character, and UTF-16 two
+ *        bytes; the index of a character is computed directly.</LI>
+ *    <LI>UTF-8 is indexed sparsely, by the byte offset of every
+ *        {@value #INDEX_INTERVAL}th character, and the characters in
+ *        between are decoded from the nearest entry. The position of the
+ *        last access is remembered, so sequential access is O(1).</LI>
+ *    <LI>The other charsets, e.g. UTF-32, are transcoded to UTF-8 once
+ *        when loaded.</LI>
+ * </UL>
+ *
+ * <P>The malformed UTF-8 bytes are decoded as U+FFFD, one per byte.</P>
+ *
+ * <P>The buffer is released by {@link #close()}, instead of waiting for
+ * the GC; the text and its {@link #subSequence(int, int) views} throw
+ * {@link IllegalStateException} after that. The text should not be
+ * closed while another thread is still reading it.</P>
+ *
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ * @see {@link FileManager#readOffHeap(File)}
+ */
+public class OffHeapText implements CharSequence, Closeable {
+	
+	/** The number of the characters between the UTF-8 index entries */
+	public static final int INDEX_INTERVAL = 1024;
+	
+	private static final char REPLACEMENT = '\uFFFD';
+	
+	private enum Encoding {
+		LATIN1, UTF16, UTF8
+	}
+	
+	/** The buffer allocated or mapped, which is released on close */
+	private final ByteBuffer mRoot;
+	
+	/** The encoded characters, without the header */
+	private final ByteBuffer mBuffer;
+	
+	private final Encoding mEncoding;
+	private final int mLength;
+	
+	/**
+	 * The UTF-8 index: entry i is (offset << 1 | skew), where offset is
+	 * the byte offset of the sequence containing the character
+	 * i * INDEX_INTERVAL, and skew is 1 if that character is the low
+	 * surrogate of the sequence; null if the text is not UTF-8
+	 */
+	private final long [] mIndex;
+	
+	/**
+	 * The last UTF-8 position accessed, as (character index << 32 | byte
+	 * offset), packed so a racing reader never sees a torn pair
+	 */
+	private volatile long mCursor;
+	
+	private volatile boolean mReleased;
+	
+	private OffHeapText(ByteBuffer root, ByteBuffer buffer,
+			Encoding encoding) {
+		this.mRoot = root;
+		this.mBuffer = buffer;
+		this.mEncoding = encoding;
+		
+		int size = buffer.limit();
+		if (encoding == Encoding.LATIN1) {
+			mLength = size;
+			mIndex = null;
+		} else if (encoding == Encoding.UTF16) {
+			mLength = size / 2;
+			mIndex = null;
+		} else {
+			mIndex = new long [size / INDEX_INTERVAL + 2];
+			mLength = buildIndex();
+		}
+	}
+	
+	/**
+	 * Maps the file as an off-heap text. The file should not be modified
+	 * or truncated until the text is closed.
+	 *
+	 * @param file
+	 * @return
+	 * @throws IOException if the file cannot be read, or it is larger
+	 *    than {@link Integer#MAX_VALUE} bytes
+	 */
+	public static OffHeapText map(File file) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+					0, checkSize(channel.size()));
+			return wrap(buffer);
+		} finally {
+			raf.close();
+		}
+	}
+	
+	/**
+	 * Loads the file into a direct buffer as an off-heap text, so the
+	 * file may be changed afterward.
+	 *
+	 * @param file
+	 * @return
+	 * @throws IOException if the file cannot be read, or it is larger
+	 *    than {@link Integer#MAX_VALUE} bytes
+	 */
+	public static OffHeapText load(File file) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		ByteBuffer buffer = null;
+		try {
+			FileChannel channel = raf.getChannel();
+			buffer = ByteBuffer.allocateDirect(checkSize(channel.size()));
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer) < 0) {
+					throw new IOException("The file is truncated: " + file);
+				}
+			}
+			buffer.flip();
+			return wrap(buffer);
+		} catch (IOException e) {
+			if (buffer != null) {
+				DirectBuffers.free(buffer);
+			}
+			throw e;
+		} finally {
+			raf.close();
+		}
+	}
+	
+	/**
+	 * Copies the characters into a direct buffer, as Latin-1 if they all
+	 * fit, or as UTF-8 otherwise. An unpaired surrogate is replaced by
+	 * '?', like {@link String#getBytes(Charset)}.
+	 *
+	 * @param content
+	 * @return
+	 * @throws IllegalArgumentException if the UTF-8 bytes are more than
+	 *    2 GB
+	 */
+	public static OffHeapText copyOf(CharSequence content) {
+		int length = content.length();
+		boolean latin1 = true;
+		for (int i = 0; i < length && latin1; i++) {
+			latin1 = content.charAt(i) <= 0xFF;
+		}
+		
+		if (latin1) {
+			ByteBuffer buffer = ByteBuffer.allocateDirect(length);
+			for (int i = 0; i < length; i++) {
+				buffer.put(i, (byte) content.charAt(i));
+			}
+			return new OffHeapText(buffer, buffer, Encoding.LATIN1);
+		}
+		
+		// allocates the exact size, since the bytes stay off the heap
+		long size = 0;
+		for (int i = 0; i < length; i++) {
+			char c = content.charAt(i);
+			if (c < 0x80) {
+				size += 1;
+			} else if (c < 0x800) {
+				size += 2;
+			} else if (isSurrogatePair(content, i)) {
+				size += 4;
+				i++;
+			} else if (Character.isSurrogate(c)) {
+				size += 1; // '?'
+			} else {
+				size += 3;
+			}
+		}
+		if (size > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException(
+					"The content is larger than 2 GB in UTF-8: " + size);
+		}
+		
+		ByteBuffer buffer = ByteBuffer.allocateDirect((int) size);
+		for (int i = 0; i < length; i++) {
+			char c = content.charAt(i);
+			if (c < 0x80) {
+				buffer.put((byte) c);
+			} else if (c < 0x800) {
+				buffer.put((byte) (0xC0 | c >> 6));
+				buffer.put((byte) (0x80 | c & 0x3F));
+			} else if (isSurrogatePair(content, i)) {
+				int codePoint = Character.toCodePoint(c, content.charAt(++i));
+				buffer.put((byte) (0xF0 | codePoint >> 18));
+				buffer.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+				buffer.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+				buffer.put((byte) (0x80 | codePoint & 0x3F));
+			} else if (Character.isSurrogate(c)) {
+				buffer.put((byte) '?');
+			} else {
+				buffer.put((byte) (0xE0 | c >> 12));
+				buffer.put((byte) (0x80 | c >> 6 & 0x3F));
+				buffer.put((byte) (0x80 | c & 0x3F));
+			}
+		}
+		buffer.flip();
+		return new OffHeapText(buffer, buffer, Encoding.UTF8);
+	}
+	
+	private static boolean isSurrogatePair(CharSequence content, int index) {
+		return Character.isHighSurrogate(content.charAt(index))
+				&& index + 1 < content.length()
+				&& Character.isLowSurrogate(content.charAt(index + 1));
+	}
+	
+	/**
+	 * Detects the charset by the header, and wraps the buffer, or
+	 * transcodes it to UTF-8 if the charset is not supported directly.
+	 */
+	private static OffHeapText wrap(ByteBuffer root) throws IOException {
+		byte [] head = new byte [Math.min(4, root.limit())];
+		for (int i = 0; i < head.length; i++) {
+			head[i] = root.get(i);
+		}
+		FileHeader header = FileHeader.getHeader(head, head.length);
+		Charset charset = header.getCharset();
+		
+		root.position(header.getHeaderLength());
+		ByteBuffer buffer = root.slice();
+		root.position(0);
+		
+		if (header == FileHeader.UTF16_BIG_ENDIAN) {
+			buffer.order(ByteOrder.BIG_ENDIAN);
+			return new OffHeapText(root, buffer, Encoding.UTF16);
+		} else if (header == FileHeader.UTF16_LITTLE_ENDIAN) {
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			return new OffHeapText(root, buffer, Encoding.UTF16);
+		} else if (StandardCharsets.UTF_8.equals(charset)) {
+			return new OffHeapText(root, buffer, Encoding.UTF8);
+		} else if (StandardCharsets.ISO_8859_1.equals(charset)
+				|| StandardCharsets.US_ASCII.equals(charset)) {
+			return new OffHeapText(root, buffer, Encoding.LATIN1);
+		}
+		
+		// e.g. UTF-32 or a legacy default charset
+		try {
+			return copyOf(charset.newDecoder()
+					.onMalformedInput(CodingErrorAction.REPLACE)
+					.onUnmappableCharacter(CodingErrorAction.REPLACE)
+					.decode(buffer));
+		} catch (CharacterCodingException e) {
+			throw new IOException(e);
+		} finally {
+			DirectBuffers.free(root);
+		}
+	}
+	
+	private static int checkSize(long size) throws IOException {
+		if (size > Integer.MAX_VALUE) {
+			throw new IOException("The file is larger than 2 GB: " + size);
+		}
+		return (int) size;
+	}
+	
+	/**
+	 * Returns true if the content is kept one byte per character.
+	 * @return
+	 */
+	public boolean isCompact() {
+		return mEncoding == Encoding.LATIN1;
+	}
+	
+	/**
+	 * Returns the number of the bytes kept off the heap.
+	 * @return
+	 */
+	public int getByteSize() {
+		return mBuffer.limit();
+	}
+	
+	@Override
+	public int length() {
+		return mLength;
+	}
+	
+	@Override
+	public char charAt(int index) {
+		if (mReleased) {
+			throw new IllegalStateException("The text has been closed");
+		}
+		if (index < 0 || index >= mLength) {
+			throw new IndexOutOfBoundsException("index: " + index);
+		}
+		
+		switch (mEncoding) {
+		case LATIN1:
+			return (char) (mBuffer.get(index) & 0xFF);
+		case UTF16:
+			return mBuffer.getChar(index << 1);
+		default:
+			return charAtUtf8(index);
+		}
+	}
+	
+	/**
+	 * Returns a view of the characters in [start, end), which shares the
+	 * buffer of this text.
+	 */
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		if (start < 0 || end > mLength || start > end) {
+			throw new IndexOutOfBoundsException(
+					"start: " + start + ", end: " + end);
+		}
+		return new View(start, end);
+	}
+	
+	/**
+	 * Appends the characters in [start, end) to the builder.
+	 *
+	 * @param builder
+	 * @param start
+	 * @param end
+	 */
+	public void appendTo(StringBuilder builder, int start, int end) {
+		builder.ensureCapacity(builder.length() + end - start);
+		for (int i = start; i < end; i++) {
+			builder.append(charAt(i));
+		}
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder(mLength);
+		appendTo(builder, 0, mLength);
+		return builder.toString();
+	}
+	
+	/**
+	 * Returns true if the text has been closed.
+	 * @return
+	 */
+	public boolean isReleased() {
+		return mReleased;
+	}
+	
+	/**
+	 * Releases the buffer. The mapped or allocated memory is freed
+	 * immediately where the JVM allows it, or else by the GC.
+	 */
+	@Override
+	public synchronized void close() {
+		if (!mReleased) {
+			mReleased = true;
+			DirectBuffers.free(mRoot);
+		}
+	}
+	
+	/**
+	 * Scans the UTF-8 bytes once, fills the index and counts the
+	 * characters.
+	 */
+	private int buildIndex() {
+		int size = mBuffer.limit();
+		long chars = 0;
+		int entry = 0;
+		int offset = 0;
+		
+		while (offset < size) {
+			int length = sequenceLength(offset);
+			int count = length == 4 ? 2 : 1;
+			
+			// an entry is due at each multiple of the interval
+			while ((long) entry * INDEX_INTERVAL < chars + count) {
+				long skew = (long) entry * INDEX_INTERVAL - chars;
+				mIndex[entry++] = (long) offset << 1 | skew;
+			}
+			chars += count;
+			offset += length;
+		}
+		if (chars > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException(
+					"The text is longer than Integer.MAX_VALUE");
+		}
+		return (int) chars;
+	}
+	
+	private char charAtUtf8(int index) {
+		long cursor = mCursor;
+		int chars = (int) (cursor >>> 32);
+		int offset = (int) cursor;
+		
+		// walks from the last position if it is near, or else from the
+		// index entry before the character
+		if (index < chars || index - chars >= INDEX_INTERVAL) {
+			int entry = index / INDEX_INTERVAL;
+			long value = mIndex[entry];
+			offset = (int) (value >>> 1);
+			chars = entry * INDEX_INTERVAL - (int) (value & 1);
+		}
+		
+		while (true) {
+			int length = sequenceLength(offset);
+			int count = length == 4 ? 2 : 1;
+			if (index < chars + count) {
+				mCursor = (long) chars << 32 | offset;
+				return decode(offset, length, index - chars);
+			}
+			chars += count;
+			offset += length;
+		}
+	}
+	
+	/**
+	 * Returns the length of the UTF-8 sequence at the offset, or 1 if it
+	 * is malformed.
+	 */
+	private int sequenceLength(int offset) {
+		int b = mBuffer.get(offset) & 0xFF;
+		int length;
+		if (b < 0x80) {
+			return 1;
+		} else if (b >= 0xC2 && b < 0xE0) {
+			length = 2;
+		} else if (b >= 0xE0 && b < 0xF0) {
+			length = 3;
+		} else if (b >= 0xF0 && b < 0xF5) {
+			length = 4;
+		} else {
+			return 1;
+		}
+		
+		if (offset + length > mBuffer.limit()) {
+			return 1;
+		}
+		for (int i = 1; i < length; i++) {
+			if ((mBuffer.get(offset + i) & 0xC0) != 0x80) {
+				return 1;
+			}
+		}
+		return length;
+	}
+	
+	/**
+	 * Decodes the character of the sequence.
+	 *
+	 * @param part - 0 for the high surrogate of a 4-byte sequence, or
+	 *    1 for the low one
+	 */
+	private char decode(int offset, int length, int part) {
+		int b = mBuffer.get(offset) & 0xFF;
+		switch (length) {
+		case 1:
+			return b < 0x80 ? (char) b : REPLACEMENT;
+		case 2:
+			return (char) ((b & 0x1F) << 6
+					| (mBuffer.get(offset + 1) & 0x3F));
+		case 3:
+			return (char) ((b & 0x0F) << 12
+					| (mBuffer.get(offset + 1) & 0x3F) << 6
+					| (mBuffer.get(offset + 2) & 0x3F));
+		default:
+			int codePoint = (b & 0x07) << 18
+					| (mBuffer.get(offset + 1) & 0x3F) << 12
+					| (mBuffer.get(offset + 2) & 0x3F) << 6
+					| (mBuffer.get(offset + 3) & 0x3F);
+			if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT
+					|| codePoint > Character.MAX_CODE_POINT) {
+				return REPLACEMENT;
+			}
+			return part == 0 ? Character.highSurrogate(codePoint)
+					: Character.lowSurrogate(codePoint);
+		}
+	}
+	
+	/** A range of the text, sharing its buffer. */
+	private class View implements CharSequence {
+		private final int mStart;
+		private final int mEnd;
+		
+		View(int start, int end) {
+			this.mStart = start;
+			this.mEnd = end;
+		}
+		
+		@Override
+		public int length() {
+			return mEnd - mStart;
+		}
+		
+		@Override
+		public char charAt(int index) {
+			if (index < 0 || index >= length()) {
+				throw new IndexOutOfBoundsException("index: " + index);
+			}
+			return OffHeapText.this.charAt(mStart + index);
+		}
+		
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			if (start < 0 || end > length() || start > end) {
+				throw new IndexOutOfBoundsException(
+						"start: " + start + ", end: " + end);
+			}
+			return new View(mStart + start, mStart + end);
+		}
+		
+		@Override
+		public String toString() {
+			StringBuilder builder = new StringBuilder(length());
+			appendTo(builder, mStart, mEnd);
+			return builder.toString();
+		}
+	}
+}
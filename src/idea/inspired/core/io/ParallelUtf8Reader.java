@@ -0,0 +1,231 @@
+package idea.inspired.core.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Decodes a large UTF-8 file in parallel. The mapped file is split into 
+ * chunks whose boundaries never cut a character (and optionally never 
+ * cut a line), each chunk is decoded on a {@link ForkJoinPool}, and the 
+ * decoded chunks are joined into a {@link ChunkedCharSequence}. A line 
+ * longer than a chunk is cut at a character, so a chunk is at most 
+ * twice the chunk size.
+ * 
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ * @see {@link FileManager#readParallel(File, boolean)}
+ */
+class ParallelUtf8Reader {
+	
+	/** The default size of a chunk in bytes, i.e. 8 MB */
+	static final int DEFAULT_CHUNK_SIZE = 8 << 20;
+	
+	/** The number of the bytes to look ahead for a line separator */
+	private static final int SCAN_WINDOW = 64 * 1024;
+	
+	/** The largest chunk size, so that two chunks fit in an array */
+	private static final int MAX_CHUNK_SIZE = Integer.MAX_VALUE / 2 - 8;
+	
+	private final int mChunkSize;
+	private final boolean mAlignToLines;
+	private final ForkJoinPool mPool;
+	
+	ParallelUtf8Reader(int chunkSize, boolean alignToLines, 
+			ForkJoinPool pool) {
+		if (chunkSize <= 0 || chunkSize > MAX_CHUNK_SIZE) {
+			throw new IllegalArgumentException(
+					"The chunkSize should be a positive number, at most " + 
+					MAX_CHUNK_SIZE);
+		}
+		this.mChunkSize = chunkSize;
+		this.mAlignToLines = alignToLines;
+		this.mPool = pool;
+	}
+	
+	/**
+	 * Reads the file, skipping the UTF-8 header if any.
+	 * 
+	 * @param file
+	 * @return
+	 * @throws IOException
+	 */
+	ChunkedCharSequence read(File file) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			final FileChannel channel = raf.getChannel();
+			long size = channel.size();
+			long start = 0;
+			
+			if (FileHeader.getHeader(file) == FileHeader.UTF8) {
+				start = FileHeader.UTF8.getHeaderLength();
+			}
+			
+			// finds the boundaries of the chunks
+			List<Long> bounds = new ArrayList<Long>();
+			bounds.add(start);
+			long position = start;
+			while (size - position > mChunkSize) {
+				position = align(channel, position + mChunkSize, size);
+				bounds.add(position);
+			}
+			if (position < size) {
+				bounds.add(size);
+			}
+			
+			// decodes the chunks in parallel
+			int count = bounds.size() - 1;
+			final char [][] chunks = new char [count][];
+			final int [] lengths = new int [count];
+			List<RecursiveAction> tasks = new ArrayList<RecursiveAction>(count);
+			
+			for (int i = 0; i < count; i++) {
+				final int index = i;
+				final long from = bounds.get(i);
+				final long to = bounds.get(i + 1);
+				
+				tasks.add(new RecursiveAction() {
+					private static final long serialVersionUID = 1L;
+					
+					@Override
+					protected void compute() {
+						try {
+							MappedByteBuffer bytes = channel.map(
+									FileChannel.MapMode.READ_ONLY, 
+									from, to - from);
+							char [] chars = new char [(int) (to - from)];
+							int length = decode(bytes, chars);
+							
+							// drops the unused chars of the multi-byte ones
+							chunks[index] = length < chars.length 
+									? Arrays.copyOf(chars, length) : chars;
+							lengths[index] = length;
+						} catch (IOException e) {
+							completeExceptionally(e);
+						}
+					}
+				});
+			}
+			
+			try {
+				mPool.submit(new RecursiveAction() {
+					private static final long serialVersionUID = 1L;
+					
+					@Override
+					protected void compute() {
+						invokeAll(tasks);
+					}
+				}).get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException(e.toString());
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof IOException) {
+					throw (IOException) cause;
+				}
+				throw new IOException(cause);
+			}
+			
+			try {
+				return new ChunkedCharSequence(chunks, lengths);
+			} catch (IllegalArgumentException e) {
+				throw new IOException(e.getMessage() + ": " + file);
+			}
+		} finally {
+			raf.close();
+		}
+	}
+	
+	/**
+	 * Moves the position forward to the start of the next character 
+	 * (or the next line if required, within a chunk size).
+	 */
+	private long align(FileChannel channel, long position, long size) 
+			throws IOException {
+		if (mAlignToLines) {
+			long lineStart = scan(channel, position, 
+					Math.min(size, position + mChunkSize), true);
+			if (lineStart >= 0) {
+				return lineStart;
+			}
+			// the line is too long, so it is cut at a character
+		}
+		long charStart = scan(channel, position, size, false);
+		return charStart >= 0 ? charStart : size;
+	}
+	
+	/**
+	 * Finds the start of the next line or character in [position, end).
+	 * 
+	 * @return
+	 *    the position found, or -1 if not found
+	 */
+	private static long scan(FileChannel channel, long position, long end, 
+			boolean line) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(line ? SCAN_WINDOW : 4);
+		
+		while (position < end) {
+			buffer.clear();
+			buffer.limit((int) Math.min(buffer.capacity(), end - position));
+			int length = channel.read(buffer, position);
+			if (length <= 0) {
+				return -1;
+			}
+			
+			for (int i = 0; i < length; i++) {
+				byte b = buffer.get(i);
+				if (line) {
+					if (b == '\n') {
+						return position + i + 1;
+					}
+				} else if ((b & 0xC0) != 0x80) {
+					// not a continuation byte (10xxxxxx)
+					return position + i;
+				}
+			}
+			position += length;
+		}
+		return -1;
+	}
+	
+	/**
+	 * Decodes the bytes into the array, replacing the malformed input 
+	 * like {@link String#String(byte[], java.nio.charset.Charset)}.
+	 * 
+	 * @return
+	 *    the number of the decoded characters
+	 */
+	private static int decode(ByteBuffer bytes, char [] chars) 
+			throws IOException {
+		CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		CharBuffer out = CharBuffer.wrap(chars);
+		
+		CoderResult result = decoder.decode(bytes, out, true);
+		if (result.isError()) {
+			result.throwException();
+		}
+		result = decoder.flush(out);
+		if (result.isError()) {
+			result.throwException();
+		}
+		return out.position();
+	}
+}
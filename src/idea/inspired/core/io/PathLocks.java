@@ -0,0 +1,219 @@
+package idea.inspired.core.io;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * <P>Serializes the operations on the same file, while the operations
+ * on the different files run in parallel. The files are mapped by their
+ * canonical paths onto a fixed number of read-write locks (stripes), so
+ * the memory does not grow with the number of the files; two files may
+ * share a stripe, which only costs some parallelism.</P>
+ *
+ * <UL>
+ *    <LI>A reader holds the stripe of the file in the shared mode, and
+ *        a writer in the exclusive mode.</LI>
+ *    <LI>A copy holds the source shared and the target exclusive. The
+ *        two stripes are acquired in a fixed order, so the copies in
+ *        the opposite directions do not deadlock.</LI>
+ *    <LI>If the locks are cross-process, a writer also holds an
+ *        exclusive {@link FileChannel#lock()} on the file, through the
+ *        stream returned by {@link #openOutputStream(File)}, and the
+ *        file is truncated only after the lock is acquired. The readers
+ *        of the other processes are not blocked.</LI>
+ * </UL>
+ *
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ * @see {@link FileManager#setLocks(PathLocks)}
+ */
+public class PathLocks {
+	
+	/** The default number of the stripes */
+	public static final int DEFAULT_STRIPES = 64;
+	
+	/** The handle of the unlocked operations, which does nothing */
+	public static final Handle UNLOCKED = new Handle(null, null);
+	
+	private final ReentrantReadWriteLock [] mStripes;
+	private final boolean mCrossProcess;
+	
+	/**
+	 * Creates the in-process locks with {@value #DEFAULT_STRIPES}
+	 * stripes.
+	 */
+	public PathLocks() {
+		this(DEFAULT_STRIPES, false);
+	}
+	
+	/**
+	 * Creates the locks.
+	 *
+	 * @param stripes - the number of the stripes, rounded up to a power
+	 *    of 2
+	 * @param crossProcess - true if the writers also lock the files
+	 *    against the other processes
+	 */
+	public PathLocks(int stripes, boolean crossProcess) {
+		if (stripes <= 0) {
+			throw new IllegalArgumentException(
+					"The stripes should be a positive number");
+		}
+		int size = Integer.highestOneBit(stripes);
+		if (size < stripes) {
+			size <<= 1;
+		}
+		
+		this.mStripes = new ReentrantReadWriteLock [size];
+		for (int i = 0; i < size; i++) {
+			mStripes[i] = new ReentrantReadWriteLock();
+		}
+		this.mCrossProcess = crossProcess;
+	}
+	
+	public int getStripeCount() {
+		return mStripes.length;
+	}
+	
+	public boolean isCrossProcess() {
+		return mCrossProcess;
+	}
+	
+	/**
+	 * Locks the file for reading.
+	 *
+	 * @param file
+	 * @return
+	 *    the handle, which should be closed after the file is closed
+	 * @throws IOException if the canonical path cannot be resolved
+	 */
+	public Handle lockShared(File file) throws IOException {
+		Lock lock = getStripe(file).readLock();
+		lock.lock();
+		return new Handle(lock, null);
+	}
+	
+	/**
+	 * Locks the file for writing.
+	 *
+	 * @param file
+	 * @return
+	 *    the handle, which should be closed after the file is closed
+	 * @throws IOException if the canonical path cannot be resolved
+	 */
+	public Handle lockExclusive(File file) throws IOException {
+		Lock lock = getStripe(file).writeLock();
+		lock.lock();
+		return new Handle(lock, null);
+	}
+	
+	/**
+	 * Locks the source for reading and the target for writing, e.g. for
+	 * a copy.
+	 *
+	 * @param src
+	 * @param dest
+	 * @return
+	 *    the handle, which should be closed after the files are closed
+	 * @throws IOException if the canonical paths cannot be resolved
+	 */
+	public Handle lock(File src, File dest) throws IOException {
+		int srcIndex = getIndex(src);
+		int destIndex = getIndex(dest);
+		
+		// the read lock cannot be upgraded, so a shared stripe is only
+		// locked for writing
+		if (srcIndex == destIndex) {
+			Lock lock = mStripes[destIndex].writeLock();
+			lock.lock();
+			return new Handle(lock, null);
+		}
+		
+		Lock srcLock = mStripes[srcIndex].readLock();
+		Lock destLock = mStripes[destIndex].writeLock();
+		Lock first = srcIndex < destIndex ? srcLock : destLock;
+		Lock second = srcIndex < destIndex ? destLock : srcLock;
+		first.lock();
+		try {
+			second.lock();
+		} catch (RuntimeException e) {
+			first.unlock();
+			throw e;
+		}
+		return new Handle(second, first);
+	}
+	
+	/**
+	 * Opens the file for writing, like {@link FileOutputStream}.
+	 * If the locks are cross-process, the stream holds an exclusive
+	 * {@link FileChannel#lock()} on the file until it is closed, and the
+	 * file is truncated only after the lock is acquired.
+	 *
+	 * @param file
+	 * @return
+	 * @throws IOException
+	 */
+	public OutputStream openOutputStream(File file) throws IOException {
+		if (!mCrossProcess) {
+			return new FileOutputStream(file);
+		}
+		
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			FileChannel channel = raf.getChannel();
+			channel.lock(); // released when the channel is closed
+			channel.truncate(0);
+			
+			// closing the stream closes the channel and the file
+			return Channels.newOutputStream(channel);
+		} catch (IOException e) {
+			raf.close();
+			throw e;
+		}
+	}
+	
+	private ReentrantReadWriteLock getStripe(File file) throws IOException {
+		return mStripes[getIndex(file)];
+	}
+	
+	private int getIndex(File file) throws IOException {
+		int hash = file.getCanonicalPath().hashCode();
+		hash ^= hash >>> 16; // spreads the high bits, like HashMap
+		return hash & (mStripes.length - 1);
+	}
+	
+	/** The locks held by an operation. */
+	public static class Handle implements Closeable {
+		private Lock mFirst;
+		private Lock mSecond;
+		
+		private Handle(Lock first, Lock second) {
+			this.mFirst = first;
+			this.mSecond = second;
+		}
+		
+		/**
+		 * Releases the locks. A handle should be closed by the thread
+		 * which locked it, and only once.
+		 */
+		@Override
+		public void close() {
+			if (mFirst != null) {
+				mFirst.unlock();
+				mFirst = null;
+			}
+			if (mSecond != null) {
+				mSecond.unlock();
+				mSecond = null;
+			}
+		}
+	}
+}
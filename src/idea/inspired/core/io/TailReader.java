@@ -0,0 +1,341 @@
+package idea.inspired.core.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <P>Reads the last lines of a growing file, and then follows the lines
+ * appended to it, like <CODE>tail -F</CODE>.</P>
+ * 
+ * <P>The last lines are found by scanning the file backwards block by
+ * block, so the file is never read as a whole. Then each
+ * {@link #poll()} reads from the last position to the end of the file
+ * and returns the new complete lines; an incomplete last line is kept
+ * until its line separator is written. If the file is rotated (i.e.
+ * the path is another file now, detected by the file key) or
+ * truncated, it is read again from the beginning.</P>
+ * 
+ * <P>The charset is detected by {@link FileHeader}.</P>
+ * 
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+public class TailReader implements Closeable {
+	
+	/** Receives the new lines of {@link TailReader#follow}. */
+	public interface TailListener {
+		
+		/**
+		 * Called with the new lines.
+		 * 
+		 * @param lines - the non-empty lines, without the line separators
+		 * @return
+		 *    true to keep following; false to stop
+		 */
+		boolean onLines(List<String> lines);
+	}
+	
+	/** The size of the block to scan backwards */
+	private static final int BLOCK_SIZE = 64 * 1024;
+	
+	private final File mFile;
+	
+	private RandomAccessFile mRaf;
+	private FileChannel mChannel;
+	
+	/** The file key of the opened file, or null if not supported */
+	private Object mFileKey;
+	
+	/** The charset and the line separator of the opened file */
+	private FileHeader mHeader;
+	private byte [] mNewline;
+	
+	/** The position of the next byte to read */
+	private long mPosition;
+	
+	/** The bytes of the incomplete last line */
+	private final ByteArrayOutputStream mPartial = new ByteArrayOutputStream();
+	
+	private volatile boolean mClosed;
+	
+	/**
+	 * Creates a reader of the file. The file does not need to exist yet.
+	 * 
+	 * @param file
+	 */
+	public TailReader(File file) {
+		if (file == null) {
+			throw new IllegalArgumentException("The file can not be null");
+		}
+		this.mFile = file;
+	}
+	
+	/**
+	 * Returns the last lines of the file, and moves the position to the
+	 * end of the last complete line.
+	 * 
+	 * @param count - the maximum number of the lines
+	 * @return
+	 *    the last complete lines, or an empty list if the file does not
+	 *  exist
+	 * @throws IOException
+	 */
+	public synchronized List<String> tail(int count) throws IOException {
+		if (count < 0) {
+			throw new IllegalArgumentException(
+					"The count should be a natural number");
+		}
+		if (!open()) {
+			return new ArrayList<String>();
+		}
+		
+		int unit = mNewline.length;
+		long start = mHeader.getHeaderLength();
+		long size = mChannel.size();
+		long end = -1; // the end of the last complete line
+		long from = start; // the start of the first line to return
+		int found = 0;
+		
+		// scans backwards for the line separators
+		ByteBuffer buffer = ByteBuffer.allocate(BLOCK_SIZE);
+		long blockEnd = start + (size - start) / unit * unit;
+		scan:
+		while (blockEnd > start) {
+			long blockStart = Math.max(start, 
+					blockEnd - BLOCK_SIZE / unit * unit);
+			buffer.clear();
+			buffer.limit((int) (blockEnd - blockStart));
+			readFully(buffer, blockStart);
+			
+			for (int i = buffer.limit() - unit; i >= 0; i -= unit) {
+				if (isNewline(buffer, i)) {
+					if (end < 0) {
+						end = blockStart + i + unit;
+						if (count == 0) {
+							break scan; // only skips to the end
+						}
+					} else if (++found == count) {
+						from = blockStart + i + unit;
+						break scan;
+					}
+				}
+			}
+			blockEnd = blockStart;
+		}
+		
+		mPartial.reset();
+		if (end < 0) {
+			// no complete line at all
+			mPosition = start;
+			return new ArrayList<String>();
+		}
+		
+		if (count == 0) {
+			mPosition = end;
+			return new ArrayList<String>();
+		}
+		
+		mPosition = from;
+		return readLines(end);
+	}
+	
+	/**
+	 * Reads the lines appended since the last call. A rotated or
+	 * truncated file is read from the beginning.
+	 * 
+	 * @return
+	 *    the new complete lines, or an empty list if there is none
+	 * @throws IOException
+	 */
+	public synchronized List<String> poll() throws IOException {
+		List<String> lines = new ArrayList<String>();
+		
+		if (mChannel == null) {
+			if (!open()) {
+				return lines;
+			}
+			mPosition = mHeader.getHeaderLength();
+		}
+		
+		// drains the opened file first, even if it has been rotated
+		lines.addAll(readLines(mChannel.size()));
+		
+		BasicFileAttributes attributes;
+		try {
+			attributes = Files.readAttributes(
+					mFile.toPath(), BasicFileAttributes.class);
+		} catch (IOException e) {
+			return lines; // rotated, and the new file is not created yet
+		}
+		
+		Object fileKey = attributes.fileKey();
+		boolean rotated = fileKey != null && !fileKey.equals(mFileKey);
+		boolean truncated = attributes.size() < mPosition;
+		
+		if (rotated || truncated) {
+			closeChannel();
+			mPartial.reset();
+			if (open()) {
+				mPosition = mHeader.getHeaderLength();
+				lines.addAll(readLines(mChannel.size()));
+			}
+		}
+		return lines;
+	}
+	
+	/**
+	 * Polls the file repeatedly on the calling thread, until the
+	 * listener returns false, or the reader is closed, or the thread
+	 * is interrupted.
+	 * 
+	 * @param listener - receives the new lines
+	 * @param intervalMillis - the period between two polls when there
+	 *    is no new line
+	 * @throws IOException
+	 */
+	public void follow(TailListener listener, long intervalMillis)
+			throws IOException {
+		while (!mClosed) {
+			List<String> lines = poll();
+			if (!lines.isEmpty()) {
+				if (!listener.onLines(lines)) {
+					return;
+				}
+				continue;
+			}
+			try {
+				Thread.sleep(intervalMillis);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * Stops {@link #follow} and closes the file.
+	 */
+	@Override
+	public void close() throws IOException {
+		mClosed = true;
+		synchronized (this) {
+			closeChannel();
+		}
+	}
+	
+	//-------------------------------------------------------------
+	// Helpers
+	//-------------------------------------------------------------
+	
+	/**
+	 * Opens the file and detects its header.
+	 * @return
+	 *    false if the file does not exist
+	 */
+	private boolean open() throws IOException {
+		if (mChannel != null) {
+			return true;
+		}
+		if (!mFile.isFile()) {
+			return false;
+		}
+		
+		mRaf = new RandomAccessFile(mFile, "r");
+		mChannel = mRaf.getChannel();
+		mFileKey = Files.readAttributes(mFile.toPath(),
+				BasicFileAttributes.class).fileKey();
+		
+		ByteBuffer head = ByteBuffer.allocate(4);
+		int length = mChannel.read(head, 0);
+		mHeader = FileHeader.getHeader(head.array(), Math.max(length, 0));
+		mNewline = "\n".getBytes(mHeader.getCharset());
+		return true;
+	}
+	
+	private void closeChannel() throws IOException {
+		if (mRaf != null) {
+			mRaf.close();
+		}
+		mRaf = null;
+		mChannel = null;
+	}
+	
+	private boolean isNewline(ByteBuffer buffer, int index) {
+		for (int i = 0; i < mNewline.length; i++) {
+			if (buffer.get(index + i) != mNewline[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	private void readFully(ByteBuffer buffer, long position)
+			throws IOException {
+		while (buffer.hasRemaining()) {
+			int length = mChannel.read(buffer, position);
+			if (length < 0) {
+				break;
+			}
+			position += length;
+		}
+		buffer.flip();
+	}
+	
+	/**
+	 * Reads the complete lines from the current position to the end,
+	 * and keeps the incomplete last line.
+	 */
+	private List<String> readLines(long end) throws IOException {
+		List<String> lines = new ArrayList<String>();
+		Charset charset = mHeader.getCharset();
+		int unit = mNewline.length;
+		ByteBuffer buffer = ByteBuffer.allocate(BLOCK_SIZE);
+		
+		while (mPosition < end) {
+			buffer.clear();
+			buffer.limit((int) Math.min(BLOCK_SIZE, end - mPosition));
+			readFully(buffer, mPosition);
+			int length = buffer.limit();
+			if (length == 0) {
+				break;
+			}
+			
+			// only the whole code units are consumed
+			length -= length % unit;
+			if (length == 0) {
+				break;
+			}
+			
+			int lineStart = 0;
+			for (int i = 0; i + unit <= length; i += unit) {
+				if (isNewline(buffer, i)) {
+					mPartial.write(buffer.array(), lineStart, i - lineStart);
+					lines.add(toLine(mPartial.toByteArray(), charset));
+					mPartial.reset();
+					lineStart = i + unit;
+				}
+			}
+			mPartial.write(buffer.array(), lineStart, length - lineStart);
+			mPosition += length;
+		}
+		return lines;
+	}
+	
+	private static String toLine(byte [] bytes, Charset charset) {
+		String line = new String(bytes, charset);
+		if (line.endsWith("\r")) {
+			line = line.substring(0, line.length() - 1);
+		}
+		return line;
+	}
+}
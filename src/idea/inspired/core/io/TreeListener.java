@@ -0,0 +1,34 @@
+package idea.inspired.core.io;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Receives the progress of {@link FileManager#move(File, File,
+ * TreeListener)} and {@link FileManager#deleteTree(File, TreeListener)}.
+ * The methods are never called concurrently, so the implementation does
+ * not need to be thread-safe, but they are called on the worker threads
+ * and should return quickly.
+ *
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+public interface TreeListener {
+	
+	/**
+	 * Called after an entry is processed, successfully or not.
+	 *
+	 * @param processed - the number of the entries processed
+	 * @param total - the number of the entries found
+	 */
+	void onProgress(long processed, long total);
+	
+	/**
+	 * Called when an entry could not be processed. Its parent
+	 * directories are kept.
+	 *
+	 * @param file
+	 * @param e
+	 */
+	void onError(File file, IOException e);
+}
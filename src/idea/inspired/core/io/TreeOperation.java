@@ -0,0 +1,387 @@
+package idea.inspired.core.io;
+
+import idea.inspired.core.util.ThreadPools;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.FileVisitOption;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <P>Deletes or moves a tree in parallel, bottom-up. The tree is listed
+ * first; then the files are processed in batches on a pool of threads,
+ * and a directory is processed by the thread which finishes its last
+ * child, so no thread waits for another.</P>
+ *
+ * <P>A move renames each file into the target, or, once a rename has
+ * failed, e.g. across volumes, copies it by
+ * {@link FileManager#copy(File, File)} and then deletes the source. The
+ * symbolic links are recreated rather than followed. A directory is
+ * removed only if all of its entries were; otherwise it is kept without
+ * another error.</P>
+ *
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+class TreeOperation {
+	
+	/** The most files processed by a task */
+	static final int BATCH_SIZE = 256;
+	
+	private final File mSrcRoot;
+	
+	/** The target of a move, or null for a delete */
+	private final File mDestRoot;
+	
+	private final TreeReport mReport;
+	
+	/** True after a file could not be renamed, e.g. across volumes */
+	private volatile boolean mRenameFailed;
+	
+	/** A directory of the tree, and the number of its pending entries */
+	private static class Dir {
+		final File mFile;
+		final Dir mParent;
+		final List<File> mFiles = new ArrayList<File>();
+		int mChildren;
+		final AtomicInteger mPending = new AtomicInteger();
+		volatile boolean mFailed;
+		
+		Dir(File file, Dir parent) {
+			this.mFile = file;
+			this.mParent = parent;
+		}
+	}
+	
+	private TreeOperation(File src, File dest, TreeReport report) {
+		this.mSrcRoot = src;
+		this.mDestRoot = dest;
+		this.mReport = report;
+	}
+	
+	/**
+	 * Deletes the file or the directory tree.
+	 */
+	static void delete(File root, TreeReport report) {
+		new TreeOperation(root, null, report).run();
+	}
+	
+	/**
+	 * Copies the file or the directory tree to the target, and deletes
+	 * the source.
+	 */
+	static void move(File src, File dest, TreeReport report) {
+		new TreeOperation(src, dest, report).run();
+	}
+	
+	private void run() {
+		if (!Files.isDirectory(mSrcRoot.toPath(), LinkOption.NOFOLLOW_LINKS)) {
+			mReport.addEntries(1);
+			try {
+				processFile(mSrcRoot);
+			} catch (IOException e) {
+				mReport.addError(mSrcRoot, e);
+			}
+			mReport.addProcessed();
+			return;
+		}
+		
+		List<Dir> dirs;
+		try {
+			dirs = list();
+		} catch (IOException e) {
+			mReport.addError(mSrcRoot, e);
+			return;
+		}
+		
+		// the counters are set before any task may decrement them
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+		for (Dir dir : dirs) {
+			dir.mPending.set(dir.mChildren);
+		}
+		for (final Dir dir : dirs) {
+			if (dir.mChildren == 0) {
+				tasks.add(new Callable<Void>() {
+					@Override
+					public Void call() {
+						complete(dir);
+						return null;
+					}
+				});
+			}
+			for (int i = 0; i < dir.mFiles.size(); i += BATCH_SIZE) {
+				final List<File> batch = dir.mFiles.subList(
+						i, Math.min(i + BATCH_SIZE, dir.mFiles.size()));
+				tasks.add(new Callable<Void>() {
+					@Override
+					public Void call() {
+						processBatch(dir, batch);
+						return null;
+					}
+				});
+			}
+		}
+		runAll(tasks);
+	}
+	
+	/**
+	 * Lists the tree without following the links, and creates the
+	 * target directories of a move.
+	 */
+	private List<Dir> list() throws IOException {
+		final List<Dir> dirs = new ArrayList<Dir>();
+		final ArrayDeque<Dir> stack = new ArrayDeque<Dir>();
+		
+		Files.walkFileTree(mSrcRoot.toPath(),
+				EnumSet.noneOf(FileVisitOption.class), Integer.MAX_VALUE,
+				new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult preVisitDirectory(Path path,
+					BasicFileAttributes attrs) {
+				Dir parent = stack.peek();
+				File file = path.toFile();
+				if (mDestRoot != null) {
+					try {
+						Files.createDirectories(getTarget(file).toPath());
+					} catch (IOException e) {
+						mReport.addError(file, e);
+						if (parent != null) {
+							parent.mFailed = true;
+						}
+						return FileVisitResult.SKIP_SUBTREE;
+					}
+				}
+				
+				Dir dir = new Dir(file, parent);
+				if (parent != null) {
+					parent.mChildren++;
+				}
+				stack.push(dir);
+				dirs.add(dir);
+				mReport.addEntries(1);
+				return FileVisitResult.CONTINUE;
+			}
+			
+			@Override
+			public FileVisitResult visitFile(Path path,
+					BasicFileAttributes attrs) {
+				Dir dir = stack.peek();
+				dir.mFiles.add(path.toFile());
+				dir.mChildren++;
+				mReport.addEntries(1);
+				return FileVisitResult.CONTINUE;
+			}
+			
+			@Override
+			public FileVisitResult visitFileFailed(Path path,
+					IOException e) {
+				mReport.addError(path.toFile(), e);
+				if (!stack.isEmpty()) {
+					stack.peek().mFailed = true;
+				}
+				return FileVisitResult.CONTINUE;
+			}
+			
+			@Override
+			public FileVisitResult postVisitDirectory(Path path,
+					IOException e) {
+				Dir dir = stack.pop();
+				if (e != null) {
+					mReport.addError(dir.mFile, e);
+					dir.mFailed = true;
+				}
+				return FileVisitResult.CONTINUE;
+			}
+		});
+		return dirs;
+	}
+	
+	private void processBatch(Dir dir, List<File> batch) {
+		for (File file : batch) {
+			try {
+				processFile(file);
+			} catch (IOException e) {
+				mReport.addError(file, e);
+				dir.mFailed = true;
+			}
+			mReport.addProcessed();
+		}
+		finish(dir, batch.size());
+	}
+	
+	/**
+	 * Counts the finished entries of the directory, and completes it
+	 * after the last one.
+	 */
+	private void finish(Dir dir, int count) {
+		if (dir.mPending.addAndGet(-count) == 0) {
+			complete(dir);
+		}
+	}
+	
+	/**
+	 * Removes the directory if all of its entries were processed, and
+	 * then finishes it in its parent.
+	 */
+	private void complete(Dir dir) {
+		if (!dir.mFailed) {
+			try {
+				if (mDestRoot != null) {
+					// after the children, so a read-only one is filled
+					copyAttributes(dir.mFile, getTarget(dir.mFile));
+				}
+				deleteEntry(dir.mFile);
+			} catch (IOException e) {
+				mReport.addError(dir.mFile, e);
+				dir.mFailed = true;
+			}
+		}
+		mReport.addProcessed();
+		
+		if (dir.mParent != null) {
+			if (dir.mFailed) {
+				dir.mParent.mFailed = true;
+			}
+			finish(dir.mParent, 1);
+		}
+	}
+	
+	private void processFile(File file) throws IOException {
+		if (mDestRoot == null) {
+			deleteEntry(file);
+		} else if (!rename(file, getTarget(file))) {
+			copyEntry(file, getTarget(file));
+			deleteEntry(file);
+		}
+	}
+	
+	/**
+	 * Renames the file atomically, replacing the target, unless a rename
+	 * has failed before.
+	 *
+	 * @return
+	 *    false if the file should be copied instead
+	 */
+	private boolean rename(File src, File dest) {
+		if (mRenameFailed) {
+			return false;
+		}
+		try {
+			Files.move(src.toPath(), dest.toPath(),
+					StandardCopyOption.ATOMIC_MOVE);
+			return true;
+		} catch (IOException e) {
+			mRenameFailed = true;
+			return false;
+		}
+	}
+	
+	private void copyEntry(File src, File dest) throws IOException {
+		Path path = src.toPath();
+		if (Files.isSymbolicLink(path)) {
+			Files.deleteIfExists(dest.toPath());
+			Files.createSymbolicLink(dest.toPath(),
+					Files.readSymbolicLink(path));
+			return;
+		}
+		if (!FileManager.ensureParentDirectory(dest)
+				|| !FileManager._copy(src, dest, null)) {
+			throw new IOException("Failed to copy \"" + src + "\" to \"" +
+					dest + "\"");
+		}
+		copyAttributes(src, dest);
+	}
+	
+	/**
+	 * Copies the last modified time and, on POSIX file systems, the
+	 * permissions of the entry, which a rename would keep.
+	 */
+	private static void copyAttributes(File src, File dest)
+			throws IOException {
+		PosixFileAttributeView from = Files.getFileAttributeView(
+				src.toPath(), PosixFileAttributeView.class,
+				LinkOption.NOFOLLOW_LINKS);
+		PosixFileAttributeView to = Files.getFileAttributeView(
+				dest.toPath(), PosixFileAttributeView.class,
+				LinkOption.NOFOLLOW_LINKS);
+		if (from != null && to != null) {
+			to.setPermissions(from.readAttributes().permissions());
+		}
+		dest.setLastModified(src.lastModified());
+	}
+	
+	/**
+	 * Deletes the entry; a read-only entry is made writable and deleted
+	 * again. An entry which is already gone counts as deleted.
+	 */
+	private static void deleteEntry(File file) throws IOException {
+		PathLocks.Handle handle = file.isDirectory() ? PathLocks.UNLOCKED
+				: FileManager.lockExclusive(file);
+		try {
+			try {
+				Files.delete(file.toPath());
+			} catch (AccessDeniedException e) {
+				if (!file.setWritable(true)) {
+					throw e;
+				}
+				Files.delete(file.toPath());
+			}
+		} catch (NoSuchFileException e) {
+			// deleted by another one
+		} finally {
+			handle.close();
+		}
+	}
+	
+	private File getTarget(File file) {
+		return mDestRoot.toPath().resolve(
+				mSrcRoot.toPath().relativize(file.toPath())).toFile();
+	}
+	
+	private void runAll(List<Callable<Void>> tasks) {
+		if (tasks.isEmpty()) {
+			return;
+		}
+		ExecutorService executor = ThreadPools.newFixedDaemonPool("tree",
+				Math.min(tasks.size(), 2 * ThreadPools.getProcessorCount()));
+		try {
+			List<Future<Void>> futures = new ArrayList<Future<Void>>();
+			for (Callable<Void> task : tasks) {
+				futures.add(executor.submit(task));
+			}
+			for (Future<Void> future : futures) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					// e.g. a SecurityException, which is not per entry
+					mReport.addError(mSrcRoot, new IOException(e.getCause()));
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			mReport.addError(mSrcRoot, new InterruptedIOException(
+					e.toString()));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,107 @@
+package idea.inspired.core.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The result of {@link FileManager#move(File, File)} or
+ * {@link FileManager#deleteTree(File)}, including the error of each
+ * entry which could not be processed.
+ *
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+public class TreeReport {
+	
+	private final TreeListener mListener;
+	private long mEntryCount;
+	private long mProcessedCount;
+	private boolean mRenamed;
+	private final Map<File, IOException> mErrors =
+			new TreeMap<File, IOException>();
+	
+	TreeReport(TreeListener listener) {
+		this.mListener = listener;
+	}
+	
+	/**
+	 * Returns the number of the files and directories found.
+	 * @return
+	 */
+	public synchronized long getEntryCount() {
+		return mEntryCount;
+	}
+	
+	/**
+	 * Returns the number of the entries processed, successfully or not.
+	 * @return
+	 */
+	public synchronized long getProcessedCount() {
+		return mProcessedCount;
+	}
+	
+	/**
+	 * Returns true if the tree was moved by an atomic rename at once.
+	 * @return
+	 */
+	public synchronized boolean isRenamed() {
+		return mRenamed;
+	}
+	
+	/**
+	 * Returns the number of the entries which could not be processed.
+	 * @return
+	 */
+	public synchronized int getFailedCount() {
+		return mErrors.size();
+	}
+	
+	/**
+	 * Returns the errors, sorted by the entries.
+	 * @return
+	 */
+	public synchronized Map<File, IOException> getErrors() {
+		return Collections.unmodifiableMap(
+				new TreeMap<File, IOException>(mErrors));
+	}
+	
+	/**
+	 * Returns true if every entry was processed successfully.
+	 * @return
+	 */
+	public synchronized boolean isSuccessful() {
+		return mErrors.isEmpty();
+	}
+	
+	synchronized void addEntries(long count) {
+		mEntryCount += count;
+	}
+	
+	synchronized void setRenamed() {
+		mRenamed = true;
+	}
+	
+	synchronized void addProcessed() {
+		mProcessedCount++;
+		if (mListener != null) {
+			mListener.onProgress(mProcessedCount, mEntryCount);
+		}
+	}
+	
+	synchronized void addError(File file, IOException e) {
+		mErrors.put(file, e);
+		if (mListener != null) {
+			mListener.onError(file, e);
+		}
+	}
+	
+	@Override
+	public synchronized String toString() {
+		return "entries: " + mEntryCount + ", processed: " +
+				mProcessedCount + ", failed: " + mErrors.size() +
+				(mRenamed ? ", renamed" : "");
+	}
+}
@@ -0,0 +1,99 @@
+package idea.inspired.core.io.archive;
+
+import java.io.File;
+
+/**
+ * An entry of an archive, i.e. a file, a directory or a symbolic link,
+ * with its relative path and attributes.
+ *
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+public class ArchiveEntry {
+	
+	/** The kinds of the entries */
+	public enum Type {
+		FILE, DIRECTORY, SYMLINK
+	}
+	
+	/** The permission bits are unknown, e.g. on Windows or in a zip */
+	public static final int UNKNOWN_MODE = -1;
+	
+	private final String mName;
+	private final Type mType;
+	private final long mSize;
+	private final long mLastModified;
+	private final int mMode;
+	private final String mLinkTarget;
+	
+	/** The file to pack, or null if it is read from an archive */
+	final File mSource;
+	
+	/** The offset of the content in a tar archive, or -1 */
+	final long mDataOffset;
+	
+	ArchiveEntry(String name, Type type, long size, long lastModified,
+			int mode, String linkTarget, File source, long dataOffset) {
+		this.mName = name;
+		this.mType = type;
+		this.mSize = size;
+		this.mLastModified = lastModified;
+		this.mMode = mode;
+		this.mLinkTarget = linkTarget;
+		this.mSource = source;
+		this.mDataOffset = dataOffset;
+	}
+	
+	/**
+	 * Returns the relative path separated by '/'. The path of a
+	 * directory does not end with '/'.
+	 * @return
+	 */
+	public String getName() {
+		return mName;
+	}
+	
+	public Type getType() {
+		return mType;
+	}
+	
+	/**
+	 * Returns the size of the content in bytes, or 0 if it is not a
+	 * file.
+	 * @return
+	 */
+	public long getSize() {
+		return mSize;
+	}
+	
+	/**
+	 * Returns the last modified time in milliseconds.
+	 * @return
+	 */
+	public long getLastModified() {
+		return mLastModified;
+	}
+	
+	/**
+	 * Returns the POSIX permission bits, e.g. 0755, or
+	 * {@link #UNKNOWN_MODE}.
+	 * @return
+	 */
+	public int getMode() {
+		return mMode;
+	}
+	
+	/**
+	 * Returns the target of the symbolic link, or null if it is not a
+	 * symbolic link.
+	 * @return
+	 */
+	public String getLinkTarget() {
+		return mLinkTarget;
+	}
+	
+	@Override
+	public String toString() {
+		return mType + " " + mName + " (" + mSize + " bytes)";
+	}
+}
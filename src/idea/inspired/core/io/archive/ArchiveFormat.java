@@ -0,0 +1,52 @@
+package idea.inspired.core.io.archive;
+
+import java.io.File;
+
+/**
+ * The formats supported by {@link Archiver}.
+ *
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+public enum ArchiveFormat {
+	
+	/** The POSIX ustar format, with the GNU and pax long names */
+	TAR(".tar"),
+	
+	/** The zip format; the permission bits are not kept */
+	ZIP(".zip");
+	
+	private final String mExtension;
+	
+	private ArchiveFormat(String extension) {
+		this.mExtension = extension;
+	}
+	
+	/**
+	 * Returns the file name extension, e.g. ".tar".
+	 * @return
+	 */
+	public String getExtension() {
+		return mExtension;
+	}
+	
+	/**
+	 * Returns the format by the extension of the file name.
+	 *
+	 * @param file
+	 * @return
+	 *    the format, or null if the extension is unknown
+	 */
+	public static ArchiveFormat forFile(File file) {
+		String name = file.getName().toLowerCase();
+		for (ArchiveFormat format : values()) {
+			if (name.endsWith(format.mExtension)) {
+				return format;
+			}
+		}
+		if (name.endsWith(".jar")) {
+			return ZIP;
+		}
+		return null;
+	}
+}
@@ -0,0 +1,770 @@
+package idea.inspired.core.io.archive;
+
+import idea.inspired.core.util.ThreadPools;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveTask;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * <P>Packs a directory tree into a tar or zip archive, and unpacks it,
+ * keeping the last modified times and (for tar, on POSIX file systems)
+ * the permission bits.</P>
+ *
+ * <P>The tree is traversed in parallel. For tar, the offset of every
+ * entry is known from the sizes, so the entries are written in parallel
+ * at their offsets, and the contents are moved by
+ * {@link FileChannel#transferFrom} / {@link FileChannel#transferTo}
+ * without being copied through the Java heap. The entries of both
+ * formats are extracted in parallel.</P>
+ *
+ * <P>The entries which would be extracted outside of the destination
+ * directory (e.g. "../x", or through a symbolic link), and the duplicate
+ * entries, are rejected.</P>
+ *
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+public class Archiver {
+	
+	private int mParallelism = ThreadPools.getProcessorCount();
+	
+	/**
+	 * Sets the number of the threads to traverse, pack and unpack.
+	 *
+	 * @param parallelism
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism <= 0) {
+			throw new IllegalArgumentException(
+					"The parallelism should be a positive number");
+		}
+		this.mParallelism = parallelism;
+	}
+	
+	/**
+	 * Packs the directory, or the single file, into the archive whose
+	 * format is given by its extension.
+	 *
+	 * @param root - the directory whose children are packed, or a file
+	 * @param archive - the archive to create or replace
+	 * @return
+	 *    the packed entries
+	 * @throws IOException
+	 */
+	public List<ArchiveEntry> pack(File root, File archive)
+			throws IOException {
+		return pack(root, archive, getFormat(archive));
+	}
+	
+	/**
+	 * Packs the directory, or the single file, into the archive. The
+	 * symbolic links are not packed into a zip.
+	 *
+	 * @param root - the directory whose children are packed, or a file
+	 * @param archive - the archive to create or replace
+	 * @param format
+	 * @return
+	 *    the packed entries
+	 * @throws IOException
+	 */
+	public List<ArchiveEntry> pack(File root, File archive,
+			ArchiveFormat format) throws IOException {
+		if (!root.exists()) {
+			throw new IOException("Not found: " + root);
+		}
+		List<ArchiveEntry> entries = collect(root, archive);
+		
+		boolean done = false;
+		try {
+			if (format == ArchiveFormat.TAR) {
+				packTar(entries, archive);
+			} else {
+				entries = packZip(entries, archive);
+			}
+			done = true;
+		} finally {
+			if (!done) {
+				archive.delete();
+			}
+		}
+		return entries;
+	}
+	
+	/**
+	 * Lists the entries of the archive whose format is given by its
+	 * extension.
+	 *
+	 * @param archive
+	 * @return
+	 * @throws IOException
+	 */
+	public List<ArchiveEntry> list(File archive) throws IOException {
+		return list(archive, getFormat(archive));
+	}
+	
+	/**
+	 * Lists the entries of the archive.
+	 *
+	 * @param archive
+	 * @param format
+	 * @return
+	 * @throws IOException
+	 */
+	public List<ArchiveEntry> list(File archive, ArchiveFormat format)
+			throws IOException {
+		if (format == ArchiveFormat.TAR) {
+			FileChannel channel = FileChannel.open(archive.toPath(),
+					StandardOpenOption.READ);
+			try {
+				return TarArchive.read(channel);
+			} finally {
+				channel.close();
+			}
+		}
+		
+		ZipFile zip = new ZipFile(archive);
+		try {
+			List<ArchiveEntry> entries = new ArrayList<ArchiveEntry>();
+			Enumeration<? extends ZipEntry> e = zip.entries();
+			while (e.hasMoreElements()) {
+				entries.add(toEntry(e.nextElement()));
+			}
+			return entries;
+		} finally {
+			zip.close();
+		}
+	}
+	
+	/**
+	 * Unpacks the archive whose format is given by its extension.
+	 *
+	 * @param archive
+	 * @param destDir - the directory to extract into
+	 * @return
+	 *    the extracted entries
+	 * @throws IOException
+	 */
+	public List<ArchiveEntry> unpack(File archive, File destDir)
+			throws IOException {
+		return unpack(archive, destDir, getFormat(archive));
+	}
+	
+	/**
+	 * Unpacks the archive. The existing files are replaced.
+	 *
+	 * @param archive
+	 * @param destDir - the directory to extract into
+	 * @param format
+	 * @return
+	 *    the extracted entries
+	 * @throws IOException
+	 */
+	public List<ArchiveEntry> unpack(File archive, File destDir,
+			ArchiveFormat format) throws IOException {
+		Path dest = destDir.toPath().toAbsolutePath().normalize();
+		Files.createDirectories(dest);
+		
+		if (format == ArchiveFormat.TAR) {
+			FileChannel channel = FileChannel.open(archive.toPath(),
+					StandardOpenOption.READ);
+			try {
+				List<ArchiveEntry> entries = TarArchive.read(channel);
+				unpackTar(channel, entries, dest);
+				return entries;
+			} finally {
+				channel.close();
+			}
+		}
+		
+		ZipFile zip = new ZipFile(archive);
+		try {
+			return unpackZip(zip, dest);
+		} finally {
+			zip.close();
+		}
+	}
+	
+	//-------------------------------------------------------------
+	// Traversal
+	//-------------------------------------------------------------
+	
+	private static ArchiveFormat getFormat(File archive) {
+		ArchiveFormat format = ArchiveFormat.forFile(archive);
+		if (format == null) {
+			throw new IllegalArgumentException(
+					"Unknown archive format: " + archive);
+		}
+		return format;
+	}
+	
+	/**
+	 * Collects the entries under the root in parallel, sorted by name so
+	 * that a directory precedes its children.
+	 */
+	private List<ArchiveEntry> collect(File root, File archive)
+			throws IOException {
+		final Path rootPath = root.toPath().toAbsolutePath().normalize();
+		final Path archivePath = archive.toPath().toAbsolutePath()
+				.normalize();
+		
+		List<ArchiveEntry> entries;
+		if (!Files.isDirectory(rootPath, LinkOption.NOFOLLOW_LINKS)) {
+			entries = new ArrayList<ArchiveEntry>();
+			ArchiveEntry entry = toEntry(rootPath,
+					rootPath.getFileName().toString());
+			if (entry != null) {
+				entries.add(entry);
+			}
+			return entries;
+		}
+		
+		ForkJoinPool pool = new ForkJoinPool(mParallelism);
+		try {
+			entries = pool.submit(
+					new DirectoryTask(rootPath, "", archivePath)).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException(e.toString());
+		} catch (ExecutionException e) {
+			throw toIOException(e);
+		} finally {
+			pool.shutdown();
+		}
+		
+		Collections.sort(entries, new Comparator<ArchiveEntry>() {
+			@Override
+			public int compare(ArchiveEntry a, ArchiveEntry b) {
+				return a.getName().compareTo(b.getName());
+			}
+		});
+		return entries;
+	}
+	
+	/** Lists a directory, and forks a task for each sub-directory. */
+	private static class DirectoryTask
+			extends RecursiveTask<List<ArchiveEntry>> {
+		private static final long serialVersionUID = 1L;
+		
+		private final Path mDir;
+		private final String mPrefix;
+		private final Path mExcluded;
+		
+		DirectoryTask(Path dir, String prefix, Path excluded) {
+			this.mDir = dir;
+			this.mPrefix = prefix;
+			this.mExcluded = excluded;
+		}
+		
+		@Override
+		protected List<ArchiveEntry> compute() {
+			List<ArchiveEntry> entries = new ArrayList<ArchiveEntry>();
+			List<DirectoryTask> tasks = new ArrayList<DirectoryTask>();
+			try {
+				DirectoryStream<Path> stream = Files.newDirectoryStream(mDir);
+				try {
+					for (Path child : stream) {
+						if (child.equals(mExcluded)) {
+							continue; // the archive itself
+						}
+						String name = mPrefix + child.getFileName();
+						ArchiveEntry entry = toEntry(child, name);
+						if (entry == null) {
+							continue;
+						}
+						entries.add(entry);
+						if (entry.getType() == ArchiveEntry.Type.DIRECTORY) {
+							DirectoryTask task = new DirectoryTask(
+									child, name + "/", mExcluded);
+							task.fork();
+							tasks.add(task);
+						}
+					}
+				} finally {
+					stream.close();
+				}
+			} catch (IOException e) {
+				completeExceptionally(e);
+				return entries;
+			}
+			for (DirectoryTask task : tasks) {
+				entries.addAll(task.join());
+			}
+			return entries;
+		}
+	}
+	
+	/**
+	 * Reads the attributes of the path without following the links.
+	 *
+	 * @return
+	 *    the entry, or null if it is neither a file, a directory nor a
+	 *  symbolic link
+	 */
+	private static ArchiveEntry toEntry(Path path, String name)
+			throws IOException {
+		BasicFileAttributes attributes;
+		int mode = ArchiveEntry.UNKNOWN_MODE;
+		try {
+			PosixFileAttributes posix = Files.readAttributes(path,
+					PosixFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+			mode = toMode(posix.permissions());
+			attributes = posix;
+		} catch (UnsupportedOperationException e) {
+			attributes = Files.readAttributes(path,
+					BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+		}
+		
+		long lastModified = attributes.lastModifiedTime().toMillis();
+		if (attributes.isSymbolicLink()) {
+			return new ArchiveEntry(name, ArchiveEntry.Type.SYMLINK, 0,
+					lastModified, mode,
+					Files.readSymbolicLink(path).toString(),
+					path.toFile(), -1);
+		} else if (attributes.isDirectory()) {
+			return new ArchiveEntry(name, ArchiveEntry.Type.DIRECTORY, 0,
+					lastModified, mode, null, path.toFile(), -1);
+		} else if (attributes.isRegularFile()) {
+			return new ArchiveEntry(name, ArchiveEntry.Type.FILE,
+					attributes.size(), lastModified, mode, null,
+					path.toFile(), -1);
+		}
+		return null;
+	}
+	
+	private static ArchiveEntry toEntry(ZipEntry zipEntry) {
+		String name = zipEntry.getName();
+		boolean directory = zipEntry.isDirectory();
+		while (name.endsWith("/")) {
+			name = name.substring(0, name.length() - 1);
+		}
+		return new ArchiveEntry(name, directory
+				? ArchiveEntry.Type.DIRECTORY : ArchiveEntry.Type.FILE,
+				directory ? 0 : Math.max(0, zipEntry.getSize()),
+				zipEntry.getTime(), ArchiveEntry.UNKNOWN_MODE, null, null, -1);
+	}
+	
+	//-------------------------------------------------------------
+	// Tar
+	//-------------------------------------------------------------
+	
+	private void packTar(List<ArchiveEntry> entries, File archive)
+			throws IOException {
+		// lays out the entries
+		final byte [][] headers = new byte [entries.size()][];
+		final long [] offsets = new long [entries.size()];
+		long position = 0;
+		for (int i = 0; i < entries.size(); i++) {
+			headers[i] = TarArchive.encode(entries.get(i));
+			offsets[i] = position;
+			position += headers[i].length;
+			if (entries.get(i).getType() == ArchiveEntry.Type.FILE) {
+				position += TarArchive.padded(entries.get(i).getSize());
+			}
+		}
+		final long end = position;
+		
+		final FileChannel out = FileChannel.open(archive.toPath(),
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		try {
+			List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+			for (int i = 0; i < entries.size(); i++) {
+				final ArchiveEntry entry = entries.get(i);
+				final byte [] header = headers[i];
+				final long offset = offsets[i];
+				
+				tasks.add(new Callable<Void>() {
+					@Override
+					public Void call() throws IOException {
+						writeFully(out, ByteBuffer.wrap(header), offset);
+						if (entry.getType() == ArchiveEntry.Type.FILE) {
+							transferFrom(entry, out, offset + header.length);
+						}
+						return null;
+					}
+				});
+			}
+			runAll(tasks);
+			
+			// the gaps of the padding are holes, which read as zeros
+			writeFully(out, ByteBuffer.allocate(TarArchive.END_SIZE), end);
+			out.truncate(end + TarArchive.END_SIZE);
+		} finally {
+			out.close();
+		}
+	}
+	
+	private static void transferFrom(ArchiveEntry entry, FileChannel out,
+			long position) throws IOException {
+		FileChannel in = FileChannel.open(entry.mSource.toPath(),
+				StandardOpenOption.READ);
+		try {
+			long size = entry.getSize();
+			long done = 0;
+			while (done < size) {
+				long count = out.transferFrom(in, position + done,
+						size - done);
+				if (count <= 0) {
+					throw new IOException(
+							"The file is truncated while packing: " +
+							entry.mSource);
+				}
+				done += count;
+			}
+		} finally {
+			in.close();
+		}
+	}
+	
+	private void unpackTar(final FileChannel in, List<ArchiveEntry> entries,
+			final Path dest) throws IOException {
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+		List<ArchiveEntry> links = new ArrayList<ArchiveEntry>();
+		Set<Path> targets = new HashSet<Path>();
+		
+		for (final ArchiveEntry entry : entries) {
+			final Path target = resolve(dest, entry.getName(), targets);
+			switch (entry.getType()) {
+			case DIRECTORY:
+				createDirectories(dest, target);
+				break;
+			case SYMLINK:
+				links.add(entry);
+				break;
+			default:
+				tasks.add(new Callable<Void>() {
+					@Override
+					public Void call() throws IOException {
+						createDirectories(dest, target.getParent());
+						FileChannel out = FileChannel.open(target,
+								StandardOpenOption.CREATE,
+								StandardOpenOption.WRITE,
+								StandardOpenOption.TRUNCATE_EXISTING,
+								LinkOption.NOFOLLOW_LINKS);
+						try {
+							transferTo(in, entry, out);
+						} finally {
+							out.close();
+						}
+						setAttributes(target, entry);
+						return null;
+					}
+				});
+				break;
+			}
+		}
+		runAll(tasks);
+		finish(dest, entries, links);
+	}
+	
+	private static void transferTo(FileChannel in, ArchiveEntry entry,
+			FileChannel out) throws IOException {
+		long size = entry.getSize();
+		long done = 0;
+		while (done < size) {
+			long count = in.transferTo(entry.mDataOffset + done,
+					size - done, out);
+			if (count <= 0) {
+				throw new IOException("The tar archive is truncated at " +
+						entry.getName());
+			}
+			done += count;
+		}
+	}
+	
+	//-------------------------------------------------------------
+	// Zip
+	//-------------------------------------------------------------
+	
+	private List<ArchiveEntry> packZip(List<ArchiveEntry> entries,
+			File archive) throws IOException {
+		List<ArchiveEntry> packed = new ArrayList<ArchiveEntry>();
+		ZipOutputStream out = new ZipOutputStream(new BufferedOutputStream(
+				new FileOutputStream(archive), 64 * 1024));
+		try {
+			byte [] buffer = new byte [64 * 1024];
+			for (ArchiveEntry entry : entries) {
+				if (entry.getType() == ArchiveEntry.Type.SYMLINK) {
+					continue;
+				}
+				boolean directory =
+						entry.getType() == ArchiveEntry.Type.DIRECTORY;
+				ZipEntry zipEntry = new ZipEntry(
+						directory ? entry.getName() + "/" : entry.getName());
+				zipEntry.setTime(entry.getLastModified());
+				out.putNextEntry(zipEntry);
+				
+				if (!directory) {
+					InputStream is = Files.newInputStream(
+							entry.mSource.toPath());
+					try {
+						int length;
+						while ((length = is.read(buffer)) != -1) {
+							out.write(buffer, 0, length);
+						}
+					} finally {
+						is.close();
+					}
+				}
+				out.closeEntry();
+				packed.add(entry);
+			}
+		} finally {
+			out.close();
+		}
+		return packed;
+	}
+	
+	private List<ArchiveEntry> unpackZip(final ZipFile zip, final Path dest)
+			throws IOException {
+		List<ArchiveEntry> entries = new ArrayList<ArchiveEntry>();
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+		Set<Path> targets = new HashSet<Path>();
+		
+		Enumeration<? extends ZipEntry> e = zip.entries();
+		while (e.hasMoreElements()) {
+			final ZipEntry zipEntry = e.nextElement();
+			final ArchiveEntry entry = toEntry(zipEntry);
+			if (entry.getName().length() == 0) {
+				continue;
+			}
+			entries.add(entry);
+			
+			final Path target = resolve(dest, entry.getName(), targets);
+			if (zipEntry.isDirectory()) {
+				createDirectories(dest, target);
+				continue;
+			}
+			tasks.add(new Callable<Void>() {
+				@Override
+				public Void call() throws IOException {
+					createDirectories(dest, target.getParent());
+					InputStream is = zip.getInputStream(zipEntry);
+					try {
+						Files.copy(is, target,
+								StandardCopyOption.REPLACE_EXISTING);
+					} finally {
+						is.close();
+					}
+					setAttributes(target, entry);
+					return null;
+				}
+			});
+		}
+		runAll(tasks);
+		finish(dest, entries, new ArrayList<ArchiveEntry>());
+		return entries;
+	}
+	
+	//-------------------------------------------------------------
+	// Helpers
+	//-------------------------------------------------------------
+	
+	/**
+	 * Resolves the name in the destination, and rejects the names
+	 * escaping from it.
+	 */
+	private static Path resolve(Path dest, String name) throws IOException {
+		Path target = dest.resolve(name).normalize();
+		if (!target.startsWith(dest) || target.equals(dest)) {
+			throw new IOException(
+					"The entry is outside of the destination: " + name);
+		}
+		return target;
+	}
+	
+	/**
+	 * Resolves the name like {@link #resolve(Path, String)}, and rejects
+	 * the name resolved before, e.g. a file and a symbolic link of the
+	 * same name.
+	 */
+	private static Path resolve(Path dest, String name, Set<Path> targets)
+			throws IOException {
+		Path target = resolve(dest, name);
+		if (!targets.add(target)) {
+			throw new IOException("Duplicate entry: " + name);
+		}
+		return target;
+	}
+	
+	/**
+	 * Creates the directory and its parents under the destination one by
+	 * one, and rejects the existing symbolic links on the way, which would
+	 * lead the entries outside of the destination.
+	 */
+	private static void createDirectories(Path dest, Path dir)
+			throws IOException {
+		Path current = dest;
+		for (Path name : dest.relativize(dir)) {
+			current = current.resolve(name);
+			if (Files.isSymbolicLink(current)) {
+				throw new IOException(
+						"The entry is under a symbolic link: " + current);
+			}
+			if (!Files.isDirectory(current, LinkOption.NOFOLLOW_LINKS)) {
+				try {
+					Files.createDirectory(current);
+				} catch (FileAlreadyExistsException e) {
+					// created by another task
+					if (!Files.isDirectory(current,
+							LinkOption.NOFOLLOW_LINKS)) {
+						throw e;
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Creates the symbolic links, and then sets the attributes of the
+	 * directories, the deepest first, since extracting their children
+	 * changes their last modified times.
+	 */
+	private static void finish(Path dest, List<ArchiveEntry> entries,
+			List<ArchiveEntry> links) throws IOException {
+		for (ArchiveEntry link : links) {
+			Path target = resolve(dest, link.getName());
+			createDirectories(dest, target.getParent());
+			Files.deleteIfExists(target);
+			try {
+				Files.createSymbolicLink(target,
+						Paths.get(link.getLinkTarget()));
+			} catch (UnsupportedOperationException e) {
+				throw new IOException(
+						"Symbolic links are not supported: " + target);
+			}
+		}
+		for (int i = entries.size() - 1; i >= 0; i--) {
+			ArchiveEntry entry = entries.get(i);
+			if (entry.getType() == ArchiveEntry.Type.DIRECTORY) {
+				setAttributes(resolve(dest, entry.getName()), entry);
+			}
+		}
+	}
+	
+	/**
+	 * Sets the attributes of the path itself; a path replaced by a
+	 * symbolic link is skipped, never followed.
+	 */
+	private static void setAttributes(Path path, ArchiveEntry entry)
+			throws IOException {
+		if (Files.isSymbolicLink(path)) {
+			return;
+		}
+		if (entry.getMode() != ArchiveEntry.UNKNOWN_MODE) {
+			PosixFileAttributeView view = Files.getFileAttributeView(path,
+					PosixFileAttributeView.class, LinkOption.NOFOLLOW_LINKS);
+			if (view != null) {
+				view.setPermissions(toPermissions(entry.getMode()));
+			}
+		}
+		if (entry.getLastModified() >= 0) {
+			Files.getFileAttributeView(path, BasicFileAttributeView.class,
+					LinkOption.NOFOLLOW_LINKS).setTimes(
+					FileTime.fromMillis(entry.getLastModified()), null, null);
+		}
+	}
+	
+	/**
+	 * Converts the permissions into the bits; the order of
+	 * {@link PosixFilePermission} is from 0400 to 0001.
+	 */
+	private static int toMode(Set<PosixFilePermission> permissions) {
+		int mode = 0;
+		for (PosixFilePermission permission : permissions) {
+			mode |= 1 << (8 - permission.ordinal());
+		}
+		return mode;
+	}
+	
+	private static Set<PosixFilePermission> toPermissions(int mode) {
+		Set<PosixFilePermission> permissions =
+				EnumSet.noneOf(PosixFilePermission.class);
+		for (PosixFilePermission permission : PosixFilePermission.values()) {
+			if ((mode & (1 << (8 - permission.ordinal()))) != 0) {
+				permissions.add(permission);
+			}
+		}
+		return permissions;
+	}
+	
+	private static void writeFully(FileChannel channel, ByteBuffer buffer,
+			long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			position += channel.write(buffer, position);
+		}
+	}
+	
+	/**
+	 * Runs the tasks on a pool of {@link #mParallelism} threads, and
+	 * throws the first failure after cancelling the others.
+	 */
+	private void runAll(List<Callable<Void>> tasks) throws IOException {
+		if (tasks.isEmpty()) {
+			return;
+		}
+		ExecutorService executor = ThreadPools.newFixedDaemonPool(
+				"archiver", Math.min(mParallelism, tasks.size()));
+		try {
+			List<Future<Void>> futures = new ArrayList<Future<Void>>();
+			for (Callable<Void> task : tasks) {
+				futures.add(executor.submit(task));
+			}
+			for (Future<Void> future : futures) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException(e.toString());
+		} catch (ExecutionException e) {
+			throw toIOException(e);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	private static IOException toIOException(ExecutionException e) {
+		Throwable cause = e.getCause();
+		if (cause instanceof IOException) {
+			return (IOException) cause;
+		}
+		return new IOException(cause);
+	}
+}
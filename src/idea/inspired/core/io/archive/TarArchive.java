@@ -0,0 +1,419 @@
+package idea.inspired.core.io.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes and decodes the headers of the tar format. The names longer
+ * than the ustar fields are written as GNU long-name entries; the GNU
+ * and the pax long names are both read.
+ *
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+class TarArchive {
+	
+	/** The size of a tar block */
+	static final int BLOCK_SIZE = 512;
+	
+	/** The size of the end-of-archive marker, i.e. two zero blocks */
+	static final int END_SIZE = 2 * BLOCK_SIZE;
+	
+	/** The maximum size of a long name to read */
+	private static final int MAX_NAME_SIZE = 1 << 20;
+	
+	private static final byte [] MAGIC = "ustar\u000000"
+			.getBytes(StandardCharsets.US_ASCII);
+	
+	/**
+	 * Returns the size rounded up to whole blocks.
+	 */
+	static long padded(long size) {
+		return (size + BLOCK_SIZE - 1) / BLOCK_SIZE * BLOCK_SIZE;
+	}
+	
+	//-------------------------------------------------------------
+	// Writing
+	//-------------------------------------------------------------
+	
+	/**
+	 * Encodes the header blocks of the entry, which are followed by the
+	 * padded content.
+	 *
+	 * @param entry
+	 * @return
+	 *    one block, or more if a long-name entry is needed
+	 */
+	static byte [] encode(ArchiveEntry entry) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(BLOCK_SIZE);
+		ArchiveEntry.Type type = entry.getType();
+		
+		String path = entry.getName();
+		if (type == ArchiveEntry.Type.DIRECTORY) {
+			path += "/";
+		}
+		byte [] name = path.getBytes(StandardCharsets.UTF_8);
+		byte [] prefix = new byte [0];
+		
+		if (name.length > 100) {
+			// splits the path into the ustar prefix and name if possible
+			int split = -1;
+			for (int i = Math.min(155, name.length - 2); i > 0; i--) {
+				if (name[i] == '/') {
+					if (name.length - i - 1 <= 100) {
+						split = i;
+					}
+					break;
+				}
+			}
+			if (split > 0) {
+				prefix = slice(name, 0, split);
+				name = slice(name, split + 1, name.length);
+			} else {
+				writeLongName(out, 'L', name);
+				name = slice(name, 0, 100);
+			}
+		}
+		
+		byte [] link = new byte [0];
+		if (type == ArchiveEntry.Type.SYMLINK) {
+			link = entry.getLinkTarget().getBytes(StandardCharsets.UTF_8);
+			if (link.length > 100) {
+				writeLongName(out, 'K', link);
+				link = slice(link, 0, 100);
+			}
+		}
+		
+		int mode = entry.getMode();
+		if (mode == ArchiveEntry.UNKNOWN_MODE) {
+			mode = type == ArchiveEntry.Type.FILE ? 0644 : 0755;
+		}
+		char flag = type == ArchiveEntry.Type.DIRECTORY ? '5'
+				: type == ArchiveEntry.Type.SYMLINK ? '2' : '0';
+		long size = type == ArchiveEntry.Type.FILE ? entry.getSize() : 0;
+		
+		byte [] block = newHeader(name, flag, size);
+		writeNumber(block, 100, 8, mode);
+		writeNumber(block, 136, 12, entry.getLastModified() / 1000);
+		System.arraycopy(link, 0, block, 157, link.length);
+		System.arraycopy(prefix, 0, block, 345, prefix.length);
+		writeChecksum(block);
+		out.write(block, 0, block.length);
+		return out.toByteArray();
+	}
+	
+	private static void writeLongName(ByteArrayOutputStream out,
+			char flag, byte [] name) {
+		byte [] block = newHeader(
+				"././@LongLink".getBytes(StandardCharsets.US_ASCII),
+				flag, name.length + 1);
+		writeNumber(block, 100, 8, 0644);
+		writeNumber(block, 136, 12, 0);
+		writeChecksum(block);
+		out.write(block, 0, block.length);
+		
+		byte [] data = new byte [(int) padded(name.length + 1)];
+		System.arraycopy(name, 0, data, 0, name.length);
+		out.write(data, 0, data.length);
+	}
+	
+	private static byte [] newHeader(byte [] name, char flag, long size) {
+		byte [] block = new byte [BLOCK_SIZE];
+		System.arraycopy(name, 0, block, 0, name.length);
+		writeNumber(block, 108, 8, 0); // uid
+		writeNumber(block, 116, 8, 0); // gid
+		writeNumber(block, 124, 12, size);
+		block[156] = (byte) flag;
+		System.arraycopy(MAGIC, 0, block, 257, MAGIC.length);
+		return block;
+	}
+	
+	/**
+	 * Writes an octal number ended with NUL, or a big-endian binary
+	 * number marked by 0x80 if it is too large, e.g. a size >= 8 GB.
+	 */
+	private static void writeNumber(byte [] block, int offset, int length,
+			long value) {
+		if (value >= 0 && value < 1L << (3 * (length - 1))) {
+			for (int i = offset + length - 2; i >= offset; i--) {
+				block[i] = (byte) ('0' + (value & 7));
+				value >>>= 3;
+			}
+			block[offset + length - 1] = 0;
+		} else {
+			for (int i = offset + length - 1; i > offset; i--) {
+				block[i] = (byte) value;
+				value >>>= 8;
+			}
+			block[offset] = (byte) 0x80;
+		}
+	}
+	
+	private static void writeChecksum(byte [] block) {
+		long sum = checksum(block);
+		writeNumber(block, 148, 7, sum);
+		block[155] = ' ';
+	}
+	
+	/**
+	 * Sums the bytes of the block, taking the checksum field as spaces.
+	 */
+	private static long checksum(byte [] block) {
+		long sum = 0;
+		for (int i = 0; i < BLOCK_SIZE; i++) {
+			sum += i >= 148 && i < 156 ? ' ' : block[i] & 0xFF;
+		}
+		return sum;
+	}
+	
+	private static byte [] slice(byte [] bytes, int from, int to) {
+		byte [] slice = new byte [to - from];
+		System.arraycopy(bytes, from, slice, 0, slice.length);
+		return slice;
+	}
+	
+	//-------------------------------------------------------------
+	// Reading
+	//-------------------------------------------------------------
+	
+	/**
+	 * Reads the headers of the archive, skipping the contents.
+	 *
+	 * @param channel - the archive
+	 * @return
+	 *    the files, the directories and the symbolic links; the other
+	 *  kinds of entries (e.g. hard links and devices) are skipped
+	 * @throws IOException
+	 *    if a header is broken
+	 */
+	static List<ArchiveEntry> read(FileChannel channel) throws IOException {
+		List<ArchiveEntry> entries = new ArrayList<ArchiveEntry>();
+		ByteBuffer buffer = ByteBuffer.allocate(BLOCK_SIZE);
+		byte [] block = buffer.array();
+		long position = 0;
+		long size = channel.size();
+		
+		String longName = null;
+		String longLink = null;
+		Map<String, String> pax = new HashMap<String, String>();
+		
+		while (position + BLOCK_SIZE <= size) {
+			buffer.clear();
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer, position + buffer.position()) < 0) {
+					throw new IOException("The tar archive is truncated");
+				}
+			}
+			if (isZero(block)) {
+				break; // the end-of-archive marker
+			}
+			if (parseNumber(block, 148, 8) != checksum(block)) {
+				throw new IOException(
+						"Bad tar header checksum at offset " + position);
+			}
+			
+			char flag = (char) block[156];
+			long dataSize = parseNumber(block, 124, 12);
+			if (pax.containsKey("size")) {
+				dataSize = parsePaxNumber(pax, "size");
+			}
+			long dataOffset = position + BLOCK_SIZE;
+			if (dataSize < 0 || dataSize > size - dataOffset) {
+				throw new IOException("Bad tar entry size " + dataSize +
+						" at offset " + position);
+			}
+			position = dataOffset + padded(dataSize);
+			
+			if (flag == 'L') {
+				longName = readString(channel, dataOffset, dataSize);
+				continue;
+			} else if (flag == 'K') {
+				longLink = readString(channel, dataOffset, dataSize);
+				continue;
+			} else if (flag == 'x') {
+				parsePax(readString(channel, dataOffset, dataSize), pax);
+				continue;
+			} else if (flag == 'g') {
+				continue; // the global pax header
+			}
+			
+			String name = longName;
+			if (pax.containsKey("path")) {
+				name = pax.get("path");
+			}
+			if (name == null) {
+				name = parseString(block, 0, 100);
+				String prefix = parseString(block, 345, 155);
+				if (isUstar(block) && prefix.length() > 0) {
+					name = prefix + "/" + name;
+				}
+			}
+			String link = longLink;
+			if (pax.containsKey("linkpath")) {
+				link = pax.get("linkpath");
+			}
+			if (link == null) {
+				link = parseString(block, 157, 100);
+			}
+			
+			long lastModified = parseNumber(block, 136, 12) * 1000;
+			if (pax.containsKey("mtime")) {
+				try {
+					lastModified = (long) (Double.parseDouble(
+							pax.get("mtime")) * 1000);
+				} catch (NumberFormatException e) {
+					throw new IOException("Bad pax mtime: " +
+							pax.get("mtime"));
+				}
+			}
+			int mode = (int) (parseNumber(block, 100, 8) & 07777);
+			
+			longName = null;
+			longLink = null;
+			pax.clear();
+			
+			ArchiveEntry.Type type;
+			if (flag == '5' || (flag == '0' || flag == 0)
+					&& name.endsWith("/")) {
+				type = ArchiveEntry.Type.DIRECTORY;
+			} else if (flag == '0' || flag == 0 || flag == '7') {
+				type = ArchiveEntry.Type.FILE;
+			} else if (flag == '2') {
+				type = ArchiveEntry.Type.SYMLINK;
+			} else {
+				continue;
+			}
+			
+			while (name.startsWith("./")) {
+				name = name.substring(2);
+			}
+			while (name.endsWith("/")) {
+				name = name.substring(0, name.length() - 1);
+			}
+			if (name.length() == 0) {
+				continue; // the root itself
+			}
+			entries.add(new ArchiveEntry(name, type,
+					type == ArchiveEntry.Type.FILE ? dataSize : 0,
+					lastModified, mode,
+					type == ArchiveEntry.Type.SYMLINK ? link : null,
+					null, dataOffset));
+		}
+		return entries;
+	}
+	
+	private static boolean isZero(byte [] block) {
+		for (byte b : block) {
+			if (b != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	private static boolean isUstar(byte [] block) {
+		for (int i = 0; i < 5; i++) {
+			if (block[257 + i] != MAGIC[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	private static long parseNumber(byte [] block, int offset,
+			int length) {
+		long value = 0;
+		if ((block[offset] & 0x80) != 0) {
+			// the big-endian binary number
+			value = block[offset] & 0x7F;
+			for (int i = offset + 1; i < offset + length; i++) {
+				value = (value << 8) | (block[i] & 0xFF);
+			}
+			return value;
+		}
+		for (int i = offset; i < offset + length; i++) {
+			byte b = block[i];
+			if (b >= '0' && b <= '7') {
+				value = (value << 3) + (b - '0');
+			} else if (b != ' ' || value != 0) {
+				break; // NUL or space ends the number
+			}
+		}
+		return value;
+	}
+	
+	private static long parsePaxNumber(Map<String, String> pax, String key)
+			throws IOException {
+		try {
+			return Long.parseLong(pax.get(key));
+		} catch (NumberFormatException e) {
+			throw new IOException("Bad pax " + key + ": " + pax.get(key));
+		}
+	}
+	
+	private static String parseString(byte [] block, int offset,
+			int length) {
+		int end = offset;
+		while (end < offset + length && block[end] != 0) {
+			end++;
+		}
+		return new String(block, offset, end - offset,
+				StandardCharsets.UTF_8);
+	}
+	
+	private static String readString(FileChannel channel, long offset,
+			long size) throws IOException {
+		if (size > MAX_NAME_SIZE) {
+			throw new IOException("The tar header is too long: " + size);
+		}
+		ByteBuffer buffer = ByteBuffer.allocate((int) size);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, offset + buffer.position()) < 0) {
+				throw new IOException("The tar archive is truncated");
+			}
+		}
+		return parseString(buffer.array(), 0, (int) size);
+	}
+	
+	/**
+	 * Parses the pax records, i.e. "length key=value\n".
+	 */
+	private static void parsePax(String records, Map<String, String> pax)
+			throws IOException {
+		byte [] bytes = records.getBytes(StandardCharsets.UTF_8);
+		int position = 0;
+		while (position < bytes.length) {
+			int space = position;
+			while (space < bytes.length && bytes[space] != ' ') {
+				space++;
+			}
+			int length;
+			try {
+				length = Integer.parseInt(new String(bytes, position,
+						space - position, StandardCharsets.US_ASCII));
+			} catch (NumberFormatException e) {
+				throw new IOException("Bad pax header: " + records);
+			}
+			// the record holds at least the space and the newline
+			if (length < space - position + 2
+					|| length > bytes.length - position) {
+				throw new IOException("Bad pax header: " + records);
+			}
+			String record = new String(bytes, space + 1,
+					position + length - space - 2, StandardCharsets.UTF_8);
+			int equal = record.indexOf('=');
+			if (equal > 0) {
+				pax.put(record.substring(0, equal),
+						record.substring(equal + 1));
+			}
+			position += length;
+		}
+	}
+}
@@ -0,0 +1,86 @@
+package idea.inspired.core.io.compress;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Pools the {@link Deflater} and {@link Inflater} instances, whose 
+ * native memory is expensive to allocate and to release.
+ * 
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+class CodecPool {
+	
+	/** The maximum number of the idle instances of each kind */
+	private static final int MAX_IDLE = 64;
+	
+	private static final ConcurrentLinkedQueue<Deflater> sRawDeflaters = 
+			new ConcurrentLinkedQueue<Deflater>();
+	private static final ConcurrentLinkedQueue<Deflater> sZlibDeflaters = 
+			new ConcurrentLinkedQueue<Deflater>();
+	private static final ConcurrentLinkedQueue<Inflater> sRawInflaters = 
+			new ConcurrentLinkedQueue<Inflater>();
+	private static final ConcurrentLinkedQueue<Inflater> sZlibInflaters = 
+			new ConcurrentLinkedQueue<Inflater>();
+	
+	/**
+	 * Borrows a deflater with the default compression level.
+	 * 
+	 * @param nowrap - true for the raw deflate data (as in gzip), false 
+	 *    for the zlib format
+	 * @return
+	 */
+	static Deflater borrowDeflater(boolean nowrap) {
+		Deflater deflater = (nowrap ? sRawDeflaters : sZlibDeflaters).poll();
+		return deflater != null ? deflater 
+				: new Deflater(Deflater.DEFAULT_COMPRESSION, nowrap);
+	}
+	
+	/**
+	 * Returns the deflater to the pool.
+	 * 
+	 * @param deflater
+	 * @param nowrap - the same as the one when it was borrowed
+	 */
+	static void release(Deflater deflater, boolean nowrap) {
+		ConcurrentLinkedQueue<Deflater> queue = 
+				nowrap ? sRawDeflaters : sZlibDeflaters;
+		if (queue.size() < MAX_IDLE) {
+			deflater.reset();
+			queue.offer(deflater);
+		} else {
+			deflater.end();
+		}
+	}
+	
+	/**
+	 * Borrows an inflater.
+	 * 
+	 * @param nowrap - true for the raw deflate data, false for the 
+	 *    zlib format
+	 * @return
+	 */
+	static Inflater borrowInflater(boolean nowrap) {
+		Inflater inflater = (nowrap ? sRawInflaters : sZlibInflaters).poll();
+		return inflater != null ? inflater : new Inflater(nowrap);
+	}
+	
+	/**
+	 * Returns the inflater to the pool.
+	 * 
+	 * @param inflater
+	 * @param nowrap - the same as the one when it was borrowed
+	 */
+	static void release(Inflater inflater, boolean nowrap) {
+		ConcurrentLinkedQueue<Inflater> queue = 
+				nowrap ? sRawInflaters : sZlibInflaters;
+		if (queue.size() < MAX_IDLE) {
+			inflater.reset();
+			queue.offer(inflater);
+		} else {
+			inflater.end();
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package idea.inspired.core.io.compress;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * <P>The service provider interface of a compression format. The 
+ * built-in codecs are {@link CompressionCodecs#GZIP} and 
+ * {@link CompressionCodecs#DEFLATE}; more codecs (e.g. for the faster 
+ * algorithms) can be added by {@link CompressionCodecs#register} or 
+ * listed in 
+ * <CODE>META-INF/services/idea.inspired.core.io.compress.CompressionCodec</CODE>.
+ * </P>
+ * 
+ * <P>A compressed file is recognized by its leading bytes (the magic 
+ * number), the same way as {@link idea.inspired.core.io.FileHeader} 
+ * recognizes the byte order mark.</P>
+ * 
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+public interface CompressionCodec {
+	
+	/** The maximum number of the leading bytes to recognize a codec */
+	int MAGIC_LENGTH = 4;
+	
+	/**
+	 * Returns the name of the codec, e.g. "gzip".
+	 * @return
+	 */
+	String getName();
+	
+	/**
+	 * Returns true if the leading bytes of a file is the magic number 
+	 * of the codec.
+	 * 
+	 * @param bytes - the leading bytes of the file
+	 * @param length - the number of the valid bytes, at most 
+	 *    {@link #MAGIC_LENGTH}
+	 * @return
+	 */
+	boolean matches(byte [] bytes, int length);
+	
+	/**
+	 * Creates a stream which decompresses the data from the input.
+	 * Closing the returned stream closes the input.
+	 * 
+	 * @param in
+	 * @return
+	 * @throws IOException
+	 */
+	InputStream newInputStream(InputStream in) throws IOException;
+	
+	/**
+	 * Creates a stream which compresses the data to the output.
+	 * Closing the returned stream finishes the compression and closes 
+	 * the output.
+	 * 
+	 * @param out
+	 * @return
+	 * @throws IOException
+	 */
+	OutputStream newOutputStream(OutputStream out) throws IOException;
+}
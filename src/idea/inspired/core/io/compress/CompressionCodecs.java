@@ -0,0 +1,212 @@
+package idea.inspired.core.io.compress;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * The registry of the {@link CompressionCodec}s, and the built-in 
+ * codecs.
+ * 
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+public class CompressionCodecs {
+	
+	/** 
+	 * The gzip format (RFC 1952). The large data is compressed by 
+	 * several threads into the concatenated gzip members, and the data 
+	 * is inflated by a pooled inflater.
+	 */
+	public static final CompressionCodec GZIP = new CompressionCodec() {
+		@Override
+		public String getName() {
+			return "gzip";
+		}
+		
+		@Override
+		public boolean matches(byte [] bytes, int length) {
+			// ID1 ID2 CM(deflate)
+			return length >= 3 && bytes[0] == 0x1F 
+					&& bytes[1] == (byte) 0x8B && bytes[2] == 8;
+		}
+		
+		@Override
+		public InputStream newInputStream(InputStream in) 
+				throws IOException {
+			return new PooledGzipInputStream(in, 64 * 1024);
+		}
+		
+		@Override
+		public OutputStream newOutputStream(OutputStream out) {
+			return new ParallelGzipOutputStream(out);
+		}
+	};
+	
+	/** 
+	 * The zlib format (RFC 1950). The header is recognized by its 
+	 * method, window size and check bits, without a preset dictionary. 
+	 * Since a text may still begin like a header (e.g. "x^"), the 
+	 * readers should read the data as it is when it cannot be inflated.
+	 */
+	public static final CompressionCodec DEFLATE = new CompressionCodec() {
+		@Override
+		public String getName() {
+			return "deflate";
+		}
+		
+		@Override
+		public boolean matches(byte [] bytes, int length) {
+			if (length < 2) {
+				return false;
+			}
+			int cmf = bytes[0] & 0xFF;
+			int flg = bytes[1] & 0xFF;
+			
+			// CM(deflate), CINFO(window <= 32K), FDICT(none), FCHECK
+			return (cmf & 0x0F) == 8 && (cmf >> 4) <= 7 
+					&& (flg & 0x20) == 0 && (cmf << 8 | flg) % 31 == 0;
+		}
+		
+		@Override
+		public InputStream newInputStream(InputStream in) {
+			final Inflater inflater = CodecPool.borrowInflater(false);
+			return new InflaterInputStream(in, inflater, 64 * 1024) {
+				private boolean mReleased;
+				
+				@Override
+				public void close() throws IOException {
+					try {
+						super.close();
+					} finally {
+						if (!mReleased) {
+							mReleased = true;
+							CodecPool.release(inflater, false);
+						}
+					}
+				}
+			};
+		}
+		
+		@Override
+		public OutputStream newOutputStream(OutputStream out) {
+			final Deflater deflater = CodecPool.borrowDeflater(false);
+			return new DeflaterOutputStream(out, deflater, 64 * 1024) {
+				private boolean mReleased;
+				
+				@Override
+				public void close() throws IOException {
+					try {
+						super.close();
+					} finally {
+						if (!mReleased) {
+							mReleased = true;
+							CodecPool.release(deflater, false);
+						}
+					}
+				}
+			};
+		}
+	};
+	
+	/** The registered codecs, in the order of the detection */
+	private static final List<CompressionCodec> sCodecs = 
+			new CopyOnWriteArrayList<CompressionCodec>();
+	
+	static {
+		sCodecs.add(GZIP);
+		sCodecs.add(DEFLATE);
+		
+		// loads the codecs of the service providers
+		Iterator<CompressionCodec> itr = ServiceLoader.load(
+				CompressionCodec.class).iterator();
+		while (true) {
+			try {
+				if (!itr.hasNext()) {
+					break;
+				}
+				sCodecs.add(itr.next());
+			} catch (ServiceConfigurationError e) {
+				e.printStackTrace();
+			}
+		}
+	}
+	
+	/**
+	 * Registers the codec. The codecs registered later are checked 
+	 * first by {@link #detect(byte[], int)}.
+	 * 
+	 * @param codec
+	 */
+	public static void register(CompressionCodec codec) {
+		if (codec == null) {
+			throw new IllegalArgumentException("The codec can not be null");
+		}
+		sCodecs.add(0, codec);
+	}
+	
+	/**
+	 * Finds the codec by its name.
+	 * 
+	 * @param name
+	 * @return
+	 *    the codec, or <CODE>null</CODE> if not found
+	 */
+	public static CompressionCodec forName(String name) {
+		for (CompressionCodec codec : sCodecs) {
+			if (codec.getName().equalsIgnoreCase(name)) {
+				return codec;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Detects the codec from the leading bytes of a file.
+	 * 
+	 * @param bytes - the leading bytes of the file
+	 * @param length - the number of the valid bytes
+	 * @return
+	 *    the codec, or <CODE>null</CODE> if the data is not compressed
+	 */
+	public static CompressionCodec detect(byte [] bytes, int length) {
+		for (CompressionCodec codec : sCodecs) {
+			if (codec.matches(bytes, length)) {
+				return codec;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Detects the codec of the file.
+	 * 
+	 * @param file
+	 * @return
+	 *    the codec, or <CODE>null</CODE> if the file is not compressed
+	 * @throws IOException
+	 */
+	public static CompressionCodec detect(File file) throws IOException {
+		byte [] bytes = new byte [CompressionCodec.MAGIC_LENGTH];
+		int length;
+		
+		FileInputStream fis = new FileInputStream(file);
+		try {
+			length = fis.read(bytes);
+		} finally {
+			fis.close();
+		}
+		return detect(bytes, Math.max(length, 0));
+	}
+}
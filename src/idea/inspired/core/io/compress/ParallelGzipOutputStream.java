@@ -0,0 +1,198 @@
+package idea.inspired.core.io.compress;
+
+import idea.inspired.core.util.ThreadPools;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses the data into the gzip format with several threads, like 
+ * <CODE>pigz</CODE>. The data is split into blocks of 
+ * {@link #BLOCK_SIZE}, each block is compressed into a complete gzip 
+ * member in parallel, and the members are written in order. The 
+ * concatenated members are a valid gzip stream (RFC 1952).
+ * 
+ * <P>The data smaller than a block is compressed in the calling 
+ * thread.</P>
+ * 
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+class ParallelGzipOutputStream extends OutputStream {
+	
+	/** The size of a block, i.e. 1 MB */
+	static final int BLOCK_SIZE = 1 << 20;
+	
+	/** The shared threads to compress the blocks */
+	private static ExecutorService sExecutor;
+	
+	private static synchronized ExecutorService getExecutor() {
+		if (sExecutor == null) {
+			sExecutor = ThreadPools.newFixedDaemonPool(
+					"gzip", ThreadPools.getProcessorCount());
+		}
+		return sExecutor;
+	}
+	
+	private final OutputStream mOut;
+	
+	/** The members being compressed, in order */
+	private final ArrayDeque<Future<byte []>> mPending = 
+			new ArrayDeque<Future<byte []>>();
+	
+	/** The maximum number of the blocks in flight */
+	private final int mMaxPending = ThreadPools.getProcessorCount() * 2;
+	
+	private byte [] mBlock = new byte [BLOCK_SIZE];
+	private int mFilled;
+	private boolean mSubmitted;
+	private boolean mClosed;
+	
+	ParallelGzipOutputStream(OutputStream out) {
+		this.mOut = out;
+	}
+	
+	@Override
+	public void write(int b) throws IOException {
+		if (mFilled == mBlock.length) {
+			submit();
+		}
+		mBlock[mFilled++] = (byte) b;
+	}
+	
+	@Override
+	public void write(byte [] bytes, int offset, int length) 
+			throws IOException {
+		while (length > 0) {
+			if (mFilled == mBlock.length) {
+				submit();
+			}
+			int count = Math.min(length, mBlock.length - mFilled);
+			System.arraycopy(bytes, offset, mBlock, mFilled, count);
+			mFilled += count;
+			offset += count;
+			length -= count;
+		}
+	}
+	
+	/** Submits the current block to be compressed. */
+	private void submit() throws IOException {
+		while (mPending.size() >= mMaxPending) {
+			drainOne();
+		}
+		
+		final byte [] block = mBlock;
+		final int length = mFilled;
+		mPending.add(getExecutor().submit(new Callable<byte []>() {
+			@Override
+			public byte [] call() {
+				return member(block, length);
+			}
+		}));
+		mBlock = new byte [BLOCK_SIZE];
+		mFilled = 0;
+		mSubmitted = true;
+	}
+	
+	private void drainOne() throws IOException {
+		Future<byte []> future = mPending.poll();
+		try {
+			mOut.write(future.get());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException(e.toString());
+		} catch (ExecutionException e) {
+			throw new IOException(e.getCause());
+		}
+	}
+	
+	/** Writes the completed members. */
+	@Override
+	public void flush() throws IOException {
+		while (!mPending.isEmpty() && mPending.peek().isDone()) {
+			drainOne();
+		}
+		mOut.flush();
+	}
+	
+	@Override
+	public void close() throws IOException {
+		if (mClosed) {
+			return;
+		}
+		mClosed = true;
+		
+		try {
+			if (mFilled > 0 || !mSubmitted) {
+				if (mSubmitted) {
+					submit();
+				} else {
+					// small data: no need to hand it to another thread
+					mOut.write(member(mBlock, mFilled));
+				}
+			}
+			while (!mPending.isEmpty()) {
+				drainOne();
+			}
+		} finally {
+			for (Future<byte []> future : mPending) {
+				future.cancel(true);
+			}
+			mOut.close();
+		}
+	}
+	
+	/**
+	 * Compresses the bytes into a complete gzip member.
+	 */
+	static byte [] member(byte [] bytes, int length) {
+		Deflater deflater = CodecPool.borrowDeflater(true);
+		try {
+			ByteArrayOutputStream out = 
+					new ByteArrayOutputStream(length / 2 + 64);
+			
+			// header: ID1 ID2 CM FLG MTIME(4) XFL OS
+			out.write(new byte [] {
+					0x1F, (byte) 0x8B, Deflater.DEFLATED, 0, 
+					0, 0, 0, 0, 0, (byte) 0xFF}, 0, 10);
+			
+			byte [] buffer = new byte [64 * 1024];
+			deflater.setInput(bytes, 0, length);
+			deflater.finish();
+			while (!deflater.finished()) {
+				int count = deflater.deflate(buffer);
+				out.write(buffer, 0, count);
+			}
+			
+			// trailer: CRC32 ISIZE, in little endian
+			CRC32 crc = new CRC32();
+			crc.update(bytes, 0, length);
+			writeIntLE(out, (int) crc.getValue());
+			writeIntLE(out, length);
+			return out.toByteArray();
+		} finally {
+			CodecPool.release(deflater, true);
+		}
+	}
+	
+	private static void writeIntLE(OutputStream out, int value) {
+		try {
+			out.write(value);
+			out.write(value >>> 8);
+			out.write(value >>> 16);
+			out.write(value >>> 24);
+		} catch (IOException e) {
+			// never happens for ByteArrayOutputStream
+			throw new IllegalStateException(e);
+		}
+	}
+}
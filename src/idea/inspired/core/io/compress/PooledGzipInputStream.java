@@ -0,0 +1,228 @@
+package idea.inspired.core.io.compress;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Decompresses the gzip format (RFC 1952) like
+ * {@link java.util.zip.GZIPInputStream}, but with an {@link Inflater}
+ * borrowed from the {@link CodecPool}. The concatenated members, e.g.
+ * the ones written by {@link ParallelGzipOutputStream}, are read as one
+ * stream; the CRC and the size of each member are checked.
+ *
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+class PooledGzipInputStream extends InputStream {
+	
+	private static final int FHCRC = 2;
+	private static final int FEXTRA = 4;
+	private static final int FNAME = 8;
+	private static final int FCOMMENT = 16;
+	
+	private final InputStream mIn;
+	private final Inflater mInflater = CodecPool.borrowInflater(true);
+	private final CRC32 mCrc = new CRC32();
+	
+	/** The input, of which [mPosition, mLimit) is not consumed yet */
+	private final byte [] mBuffer;
+	private int mPosition;
+	private int mLimit;
+	
+	private final byte [] mSingle = new byte [1];
+	private boolean mEof;
+	private boolean mClosed;
+	
+	/**
+	 * Reads the header of the first member.
+	 *
+	 * @param in
+	 * @param bufferSize
+	 * @throws ZipException
+	 *    if the data is not in the gzip format
+	 * @throws IOException
+	 */
+	PooledGzipInputStream(InputStream in, int bufferSize)
+			throws IOException {
+		mIn = in;
+		mBuffer = new byte [bufferSize];
+		try {
+			readHeader(true);
+		} catch (IOException e) {
+			CodecPool.release(mInflater, true);
+			throw e;
+		}
+	}
+	
+	@Override
+	public int read() throws IOException {
+		return read(mSingle, 0, 1) == -1 ? -1 : mSingle[0] & 0xFF;
+	}
+	
+	@Override
+	public int read(byte [] b, int off, int len) throws IOException {
+		if (mClosed) {
+			throw new IOException("Stream closed");
+		}
+		if (len == 0) {
+			return 0;
+		}
+		
+		while (!mEof) {
+			int length;
+			try {
+				length = mInflater.inflate(b, off, len);
+			} catch (DataFormatException e) {
+				throw new ZipException(e.getMessage() != null
+						? e.getMessage() : "Invalid gzip data");
+			}
+			if (length > 0) {
+				mCrc.update(b, off, length);
+				return length;
+			}
+			
+			if (mInflater.finished()) {
+				mPosition = mLimit - mInflater.getRemaining();
+				readTrailer();
+				if (readHeader(false)) {
+					mInflater.reset();
+					mCrc.reset();
+				} else {
+					mEof = true;
+				}
+			} else if (mInflater.needsDictionary()) {
+				throw new ZipException("Invalid gzip data: a dictionary");
+			} else if (mInflater.needsInput()) {
+				if (!fill()) {
+					throw new EOFException(
+							"Unexpected end of the gzip stream");
+				}
+				mInflater.setInput(mBuffer, mPosition, mLimit - mPosition);
+				mPosition = mLimit;
+			}
+		}
+		return -1;
+	}
+	
+	@Override
+	public int available() throws IOException {
+		if (mClosed) {
+			throw new IOException("Stream closed");
+		}
+		return mEof ? 0 : 1;
+	}
+	
+	@Override
+	public void close() throws IOException {
+		if (mClosed) {
+			return;
+		}
+		mClosed = true;
+		try {
+			mIn.close();
+		} finally {
+			CodecPool.release(mInflater, true);
+		}
+	}
+	
+	/**
+	 * Reads the header of a member.
+	 *
+	 * @param first - whether it is the first member
+	 * @return
+	 *    true if a member follows; false at the end of the data, or
+	 *  before the trailing bytes which are not a member, which are
+	 *  ignored like {@link java.util.zip.GZIPInputStream} does
+	 * @throws IOException
+	 */
+	private boolean readHeader(boolean first) throws IOException {
+		if (!first && !fill()) {
+			return false;
+		}
+		if (readByte() != 0x1F || readByte() != 0x8B) {
+			if (first) {
+				throw new ZipException("Not in GZIP format");
+			}
+			return false;
+		}
+		if (readByte() != 8) {
+			throw new ZipException("Unsupported compression method");
+		}
+		int flags = readByte();
+		skip(6); // MTIME, XFL, OS
+		
+		if ((flags & FEXTRA) != 0) {
+			skip(readByte() | readByte() << 8);
+		}
+		if ((flags & FNAME) != 0) {
+			while (readByte() != 0) {
+			}
+		}
+		if ((flags & FCOMMENT) != 0) {
+			while (readByte() != 0) {
+			}
+		}
+		if ((flags & FHCRC) != 0) {
+			skip(2);
+		}
+		return true;
+	}
+	
+	private void readTrailer() throws IOException {
+		long crc = readInt();
+		long size = readInt();
+		if (crc != mCrc.getValue()) {
+			throw new ZipException("Corrupt gzip data: a bad CRC");
+		}
+		if (size != (mInflater.getBytesWritten() & 0xFFFFFFFFL)) {
+			throw new ZipException("Corrupt gzip data: a bad size");
+		}
+	}
+	
+	/**
+	 * Reads an unsigned little-endian 32-bit number.
+	 */
+	private long readInt() throws IOException {
+		long value = 0;
+		for (int i = 0; i < 4; i++) {
+			value |= (long) readByte() << (8 * i);
+		}
+		return value;
+	}
+	
+	private void skip(int count) throws IOException {
+		for (int i = 0; i < count; i++) {
+			readByte();
+		}
+	}
+	
+	private int readByte() throws IOException {
+		if (!fill()) {
+			throw new EOFException("Unexpected end of the gzip stream");
+		}
+		return mBuffer[mPosition++] & 0xFF;
+	}
+	
+	/**
+	 * Reads more input if all of the buffer is consumed.
+	 *
+	 * @return
+	 *    false at the end of the input
+	 */
+	private boolean fill() throws IOException {
+		while (mPosition == mLimit) {
+			int length = mIn.read(mBuffer, 0, mBuffer.length);
+			if (length == -1) {
+				return false;
+			}
+			mPosition = 0;
+			mLimit = length;
+		}
+		return true;
+	}
+}
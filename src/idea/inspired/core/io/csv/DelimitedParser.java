@@ -0,0 +1,381 @@
+package idea.inspired.core.io.csv;
+
+import idea.inspired.core.io.ChunkedCharSequence;
+import idea.inspired.core.io.FileHeader;
+import idea.inspired.core.io.FileManager;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <P>Parses the delimited records, e.g. CSV and TSV, from a character
+ * buffer in place. Each record is passed to a {@link RecordHandler} as
+ * a reusable {@link Record} whose fields are views of the buffer, so no
+ * String is created unless it is asked for.</P>
+ *
+ * <P>A record ends with "\n" or "\r\n"; the empty lines are skipped. If
+ * quoting is enabled, a field enclosed in the quotes may contain the
+ * delimiters, the line separators and the doubled quotes, like
+ * RFC 4180.</P>
+ *
+ * <P>The parser has no state, so it can be shared by the threads.</P>
+ *
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+public class DelimitedParser {
+	
+	/** The quote character which disables quoting */
+	public static final char NO_QUOTE = '\0';
+	
+	/** The initial size of the streaming buffer */
+	private static final int BUFFER_SIZE = 64 * 1024;
+	
+	private final char mDelimiter;
+	private final char mQuote;
+	
+	/**
+	 * Creates a parser.
+	 *
+	 * @param delimiter - the separator of the fields
+	 * @param quote - the quote character, or {@link #NO_QUOTE}
+	 */
+	public DelimitedParser(char delimiter, char quote) {
+		if (delimiter == '\n' || delimiter == '\r' || delimiter == quote) {
+			throw new IllegalArgumentException(
+					"Invalid delimiter: " + (int) delimiter);
+		}
+		this.mDelimiter = delimiter;
+		this.mQuote = quote;
+	}
+	
+	/**
+	 * Creates a parser of the comma-separated values with the double
+	 * quotes.
+	 * @return
+	 */
+	public static DelimitedParser forCsv() {
+		return new DelimitedParser(',', '"');
+	}
+	
+	/**
+	 * Creates a parser of the tab-separated values without quoting.
+	 * @return
+	 */
+	public static DelimitedParser forTsv() {
+		return new DelimitedParser('\t', NO_QUOTE);
+	}
+	
+	/**
+	 * Parses the file, whose charset is detected by {@link FileHeader}.
+	 *
+	 * @param file
+	 * @param handler
+	 * @return
+	 *    the number of the parsed records
+	 * @throws IOException
+	 */
+	public long parse(File file, RecordHandler handler) throws IOException {
+		FileHeader header = FileHeader.getHeader(file);
+		InputStream is = new FileInputStream(file);
+		try {
+			long skip = header.getHeaderLength();
+			while (skip > 0) {
+				skip -= is.skip(skip);
+			}
+			return parse(new InputStreamReader(is, header.getCharset()),
+					handler);
+		} finally {
+			is.close();
+		}
+	}
+	
+	/**
+	 * Parses the characters of the reader, which is not closed. The
+	 * buffer is grown if a record is longer than it.
+	 *
+	 * @param reader
+	 * @param handler
+	 * @return
+	 *    the number of the parsed records
+	 * @throws IOException
+	 */
+	public long parse(Reader reader, RecordHandler handler)
+			throws IOException {
+		char [] buffer = new char [BUFFER_SIZE];
+		int start = 0;
+		int limit = 0;
+		boolean eof = false;
+		Record record = new Record();
+		long count = 0;
+		
+		while (true) {
+			// parses the complete records in the buffer
+			while (start < limit) {
+				record.reset(buffer, count + 1);
+				int next = parseRecord(record, buffer, start, limit, eof);
+				if (next < 0) {
+					break; // incomplete
+				}
+				start = next;
+				if (record.getFieldCount() > 0) {
+					count++;
+					if (!handler.onRecord(record)) {
+						return count;
+					}
+				}
+			}
+			if (eof) {
+				return count;
+			}
+			
+			// keeps the incomplete record, and reads more
+			if (start > 0) {
+				System.arraycopy(buffer, start, buffer, 0, limit - start);
+				limit -= start;
+				start = 0;
+			} else if (limit == buffer.length) {
+				buffer = Arrays.copyOf(buffer, buffer.length * 2);
+			}
+			int length = reader.read(buffer, limit, buffer.length - limit);
+			if (length < 0) {
+				eof = true;
+			} else {
+				limit += length;
+			}
+		}
+	}
+	
+	/**
+	 * Parses the characters.
+	 *
+	 * @param text
+	 * @param handler
+	 * @return
+	 *    the number of the parsed records
+	 * @throws IOException
+	 *    if a quoted field is not closed
+	 */
+	public long parse(char [] text, int offset, int length,
+			RecordHandler handler) throws IOException {
+		return parse(text, offset, length, handler, 1);
+	}
+	
+	/**
+	 * Reads the file by {@link FileManager#readParallel(File, boolean)},
+	 * which decodes the line-aligned chunks of a UTF-8 file in parallel,
+	 * and then parses the chunks in parallel in place.
+	 *
+	 * <P>The handler is called from several threads at the same time, so
+	 * it should be thread-safe; the records are numbered 0. A quoted
+	 * field with a line separator may be cut by the chunks, which is
+	 * reported as an {@link IOException}; such a file should be parsed
+	 * by {@link #parse(File, RecordHandler)}.</P>
+	 *
+	 * @param file
+	 * @param handler - a thread-safe handler
+	 * @return
+	 *    the number of the parsed records
+	 * @throws IOException
+	 */
+	public long parseParallel(File file, final RecordHandler handler)
+			throws IOException {
+		CharSequence content = FileManager.readParallel(file, true);
+		if (content == null) {
+			throw new IOException("Failed to read the file: " + file);
+		}
+		if (!(content instanceof ChunkedCharSequence)) {
+			char [] chars = new char [content.length()];
+			content.toString().getChars(0, chars.length, chars, 0);
+			return parse(chars, 0, chars.length, handler);
+		}
+		
+		final ChunkedCharSequence chunks = (ChunkedCharSequence) content;
+		final AtomicLong count = new AtomicLong();
+		final RecordHandler stoppable = new RecordHandler() {
+			private volatile boolean mStopped;
+			
+			@Override
+			public boolean onRecord(Record record) {
+				if (mStopped || !handler.onRecord(record)) {
+					mStopped = true;
+					return false;
+				}
+				return true;
+			}
+		};
+		
+		final List<RecursiveAction> tasks = new ArrayList<RecursiveAction>();
+		for (int i = 0; i < chunks.getChunkCount(); i++) {
+			final int index = i;
+			tasks.add(new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
+				
+				@Override
+				protected void compute() {
+					try {
+						count.addAndGet(parse(chunks.getChunk(index), 0,
+								chunks.getChunkLength(index), stoppable, 0));
+					} catch (IOException e) {
+						completeExceptionally(e);
+					}
+				}
+			});
+		}
+		
+		try {
+			ForkJoinPool.commonPool().submit(new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
+				
+				@Override
+				protected void compute() {
+					invokeAll(tasks);
+				}
+			}).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException(e.toString());
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			throw new IOException(cause);
+		}
+		return count.get();
+	}
+	
+	/**
+	 * Parses the complete characters.
+	 *
+	 * @param firstNumber - the number of the first record, or 0 not to
+	 *    number the records
+	 */
+	private long parse(char [] text, int offset, int length,
+			RecordHandler handler, long firstNumber) throws IOException {
+		Record record = new Record();
+		int start = offset;
+		int limit = offset + length;
+		long count = 0;
+		
+		while (start < limit) {
+			record.reset(text, firstNumber == 0 ? 0 : firstNumber + count);
+			start = parseRecord(record, text, start, limit, true);
+			if (record.getFieldCount() > 0) {
+				count++;
+				if (!handler.onRecord(record)) {
+					break;
+				}
+			}
+		}
+		return count;
+	}
+	
+	/**
+	 * Parses a record into the fields.
+	 *
+	 * @param eof - true if no more character follows the limit
+	 * @return
+	 *    the start of the next record, or -1 if the record is not
+	 *  complete before the limit
+	 * @throws IOException
+	 *    if a quoted field is not closed at the end
+	 */
+	private int parseRecord(Record record, char [] buffer, int position,
+			int limit, boolean eof) throws IOException {
+		int p = position;
+		
+		// skips an empty line
+		if (buffer[p] == '\n') {
+			return p + 1;
+		}
+		if (buffer[p] == '\r') {
+			if (p + 1 == limit) {
+				return eof ? limit : -1;
+			}
+			if (buffer[p + 1] == '\n') {
+				return p + 2;
+			}
+		}
+		
+		while (true) {
+			if (mQuote != NO_QUOTE && p < limit && buffer[p] == mQuote) {
+				// a quoted field
+				int start = p + 1;
+				boolean escaped = false;
+				int q = start;
+				while (true) {
+					if (q >= limit) {
+						if (eof) {
+							throw new IOException(
+									"The quoted field is not closed at " +
+									"the record " + record.getRecordNumber());
+						}
+						return -1;
+					}
+					if (buffer[q] == mQuote) {
+						if (q + 1 == limit && !eof) {
+							return -1; // may be a doubled quote
+						}
+						if (q + 1 < limit && buffer[q + 1] == mQuote) {
+							escaped = true;
+							q += 2;
+							continue;
+						}
+						break;
+					}
+					q++;
+				}
+				if (escaped) {
+					record.addEscapedField(start, q, mQuote);
+				} else {
+					record.addField(start, q);
+				}
+				
+				// ignores the characters between the quote and the
+				// delimiter
+				p = q + 1;
+				while (p < limit && buffer[p] != mDelimiter
+						&& buffer[p] != '\n') {
+					p++;
+				}
+			} else {
+				// a plain field
+				int start = p;
+				while (p < limit && buffer[p] != mDelimiter
+						&& buffer[p] != '\n') {
+					p++;
+				}
+				if (p == limit && !eof) {
+					return -1;
+				}
+				int end = p;
+				if (p < limit && buffer[p] == '\n' && end > start
+						&& buffer[end - 1] == '\r') {
+					end--;
+				}
+				record.addField(start, end);
+			}
+			
+			if (p == limit) {
+				return eof ? limit : -1;
+			}
+			if (buffer[p] == '\n') {
+				return p + 1;
+			}
+			p++; // the delimiter
+		}
+	}
+}
@@ -0,0 +1,350 @@
+package idea.inspired.core.io.csv;
+
+import java.util.Arrays;
+
+/**
+ * <P>A parsed record, whose fields are views of the parser's character
+ * buffer. The record and the views are reused for the next record, so
+ * parsing does not create an object per field.</P>
+ *
+ * <P>The numeric accessors parse the characters in place. A field which
+ * is quoted and contains escaped quotes is unescaped into a scratch
+ * buffer of the record, which is also reused.</P>
+ *
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+public class Record {
+	
+	/** The exact powers of ten of a double */
+	private static final double [] POWERS_OF_TEN = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+		1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+	
+	/** The buffer of the parser */
+	private char [] mBuffer;
+	
+	/** The unescaped quoted fields */
+	private char [] mScratch = new char [64];
+	private int mScratchLength;
+	
+	/** The bounds of each field, in the buffer or the scratch */
+	private int [] mStarts = new int [16];
+	private int [] mEnds = new int [16];
+	private boolean [] mInScratch = new boolean [16];
+	private Field [] mFields = new Field [16];
+	private int mCount;
+	
+	private long mRecordNumber;
+	
+	//-------------------------------------------------------------
+	// Accessors
+	//-------------------------------------------------------------
+	
+	/**
+	 * Returns the number of the record, starting from 1, or 0 if the
+	 * records are parsed in parallel.
+	 * @return
+	 */
+	public long getRecordNumber() {
+		return mRecordNumber;
+	}
+	
+	/**
+	 * Returns the number of the fields.
+	 * @return
+	 */
+	public int getFieldCount() {
+		return mCount;
+	}
+	
+	/**
+	 * Returns a view of the field, which is valid until the next
+	 * record.
+	 *
+	 * @param index - starting from 0
+	 * @return
+	 */
+	public CharSequence getField(int index) {
+		checkIndex(index);
+		Field field = mFields[index];
+		if (field == null) {
+			field = mFields[index] = new Field(index);
+		}
+		return field;
+	}
+	
+	/**
+	 * Returns a copy of the field.
+	 *
+	 * @param index - starting from 0
+	 * @return
+	 */
+	public String getString(int index) {
+		checkIndex(index);
+		return new String(source(index), mStarts[index],
+				mEnds[index] - mStarts[index]);
+	}
+	
+	/**
+	 * Parses the field as a decimal int without creating a String.
+	 *
+	 * @param index - starting from 0
+	 * @return
+	 * @throws NumberFormatException
+	 */
+	public int parseInt(int index) {
+		long value = parseLong(index);
+		if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+			throw new NumberFormatException("Out of int range: " +
+					getString(index));
+		}
+		return (int) value;
+	}
+	
+	/**
+	 * Parses the field as a decimal long without creating a String.
+	 *
+	 * @param index - starting from 0
+	 * @return
+	 * @throws NumberFormatException
+	 */
+	public long parseLong(int index) {
+		checkIndex(index);
+		char [] chars = source(index);
+		int i = mStarts[index];
+		int end = mEnds[index];
+		
+		boolean negative = false;
+		if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+			negative = chars[i] == '-';
+			i++;
+		}
+		if (i == end) {
+			throw new NumberFormatException("Not a number: \"" +
+					getString(index) + "\"");
+		}
+		
+		// accumulates negatively to reach Long.MIN_VALUE
+		long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+		long value = 0;
+		for (; i < end; i++) {
+			int digit = chars[i] - '0';
+			if (digit < 0 || digit > 9 || value < limit / 10
+					|| value * 10 < limit + digit) {
+				throw new NumberFormatException("Not a long: \"" +
+						getString(index) + "\"");
+			}
+			value = value * 10 - digit;
+		}
+		return negative ? value : -value;
+	}
+	
+	/**
+	 * Parses the field as a double. The plain decimal numbers with at
+	 * most 15 significant digits, e.g. "-12.5" or "3.25e-4", are parsed
+	 * in place and rounded correctly; the others (e.g. "NaN" or very
+	 * long numbers) fall back to {@link Double#parseDouble(String)}.
+	 *
+	 * @param index - starting from 0
+	 * @return
+	 * @throws NumberFormatException
+	 */
+	public double parseDouble(int index) {
+		checkIndex(index);
+		char [] chars = source(index);
+		int i = mStarts[index];
+		int end = mEnds[index];
+		
+		boolean negative = false;
+		if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+			negative = chars[i] == '-';
+			i++;
+		}
+		
+		long mantissa = 0;
+		int digits = 0;   // the significant digits in the mantissa
+		int scale = 0;    // the digits after the decimal point
+		boolean any = false;
+		boolean point = false;
+		for (; i < end; i++) {
+			char c = chars[i];
+			if (c >= '0' && c <= '9') {
+				any = true;
+				if (mantissa != 0 || c != '0') {
+					digits++;
+				}
+				mantissa = mantissa * 10 + (c - '0');
+				if (point) {
+					scale++;
+				}
+				if (digits > 15) {
+					return slowParseDouble(index);
+				}
+			} else if (c == '.' && !point) {
+				point = true;
+			} else {
+				break;
+			}
+		}
+		if (!any) {
+			return slowParseDouble(index);
+		}
+		
+		int exponent = 0;
+		if (i < end && (chars[i] == 'e' || chars[i] == 'E')) {
+			i++;
+			boolean negativeExponent = false;
+			if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+				negativeExponent = chars[i] == '-';
+				i++;
+			}
+			if (i == end) {
+				return slowParseDouble(index);
+			}
+			for (; i < end; i++) {
+				int digit = chars[i] - '0';
+				if (digit < 0 || digit > 9 || exponent > 1000) {
+					return slowParseDouble(index);
+				}
+				exponent = exponent * 10 + digit;
+			}
+			if (negativeExponent) {
+				exponent = -exponent;
+			}
+		}
+		if (i != end) {
+			return slowParseDouble(index);
+		}
+		
+		// both the mantissa (< 10^15) and 10^|e| (e <= 22) are exact,
+		// so a single multiplication or division is correctly rounded
+		exponent -= scale;
+		double value;
+		if (mantissa == 0) {
+			value = 0;
+		} else if (exponent >= 0 && exponent < POWERS_OF_TEN.length) {
+			value = mantissa * POWERS_OF_TEN[exponent];
+		} else if (exponent < 0 && -exponent < POWERS_OF_TEN.length) {
+			value = mantissa / POWERS_OF_TEN[-exponent];
+		} else {
+			return slowParseDouble(index);
+		}
+		return negative ? -value : value;
+	}
+	
+	private double slowParseDouble(int index) {
+		return Double.parseDouble(getString(index));
+	}
+	
+	/**
+	 * Returns the fields as Strings.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("[");
+		for (int i = 0; i < mCount; i++) {
+			if (i > 0) {
+				builder.append(", ");
+			}
+			builder.append(source(i), mStarts[i], mEnds[i] - mStarts[i]);
+		}
+		return builder.append(']').toString();
+	}
+	
+	private void checkIndex(int index) {
+		if (index < 0 || index >= mCount) {
+			throw new IndexOutOfBoundsException("The field " + index +
+					" is out of [0, " + mCount + ")");
+		}
+	}
+	
+	private char [] source(int index) {
+		return mInScratch[index] ? mScratch : mBuffer;
+	}
+	
+	//-------------------------------------------------------------
+	// Building, used by the parser
+	//-------------------------------------------------------------
+	
+	void reset(char [] buffer, long recordNumber) {
+		this.mBuffer = buffer;
+		this.mRecordNumber = recordNumber;
+		this.mCount = 0;
+		this.mScratchLength = 0;
+	}
+	
+	void addField(int start, int end) {
+		ensureFields();
+		mStarts[mCount] = start;
+		mEnds[mCount] = end;
+		mInScratch[mCount] = false;
+		mCount++;
+	}
+	
+	/**
+	 * Adds a quoted field, removing one of each pair of the quotes.
+	 */
+	void addEscapedField(int start, int end, char quote) {
+		ensureFields();
+		if (mScratchLength + end - start > mScratch.length) {
+			mScratch = Arrays.copyOf(mScratch, Math.max(
+					mScratch.length * 2, mScratchLength + end - start));
+		}
+		int from = mScratchLength;
+		for (int i = start; i < end; i++) {
+			char c = mBuffer[i];
+			mScratch[mScratchLength++] = c;
+			if (c == quote) {
+				i++; // skips the second quote
+			}
+		}
+		mStarts[mCount] = from;
+		mEnds[mCount] = mScratchLength;
+		mInScratch[mCount] = true;
+		mCount++;
+	}
+	
+	private void ensureFields() {
+		if (mCount == mStarts.length) {
+			int size = mCount * 2;
+			mStarts = Arrays.copyOf(mStarts, size);
+			mEnds = Arrays.copyOf(mEnds, size);
+			mInScratch = Arrays.copyOf(mInScratch, size);
+			mFields = Arrays.copyOf(mFields, size);
+		}
+	}
+	
+	/** A reusable view of a field. */
+	private class Field implements CharSequence {
+		private final int mIndex;
+		
+		Field(int index) {
+			this.mIndex = index;
+		}
+		
+		@Override
+		public int length() {
+			return mEnds[mIndex] - mStarts[mIndex];
+		}
+		
+		@Override
+		public char charAt(int index) {
+			if (index < 0 || index >= length()) {
+				throw new IndexOutOfBoundsException("index: " + index);
+			}
+			return source(mIndex)[mStarts[mIndex] + index];
+		}
+		
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			return toString().substring(start, end);
+		}
+		
+		@Override
+		public String toString() {
+			return getString(mIndex);
+		}
+	}
+}
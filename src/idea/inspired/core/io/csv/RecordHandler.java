@@ -0,0 +1,21 @@
+package idea.inspired.core.io.csv;
+
+/**
+ * Receives the records parsed by {@link DelimitedParser}.
+ *
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+public interface RecordHandler {
+	
+	/**
+	 * Called with each record. The record and its fields are reused for
+	 * the next record, so they should be copied (e.g. by
+	 * {@link Record#getString(int)}) if they are kept.
+	 *
+	 * @param record
+	 * @return
+	 *    true to continue; false to stop parsing
+	 */
+	boolean onRecord(Record record);
+}
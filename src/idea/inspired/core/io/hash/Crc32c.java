@@ -0,0 +1,82 @@
+package idea.inspired.core.io.hash;
+
+import java.util.zip.Checksum;
+
+/**
+ * The CRC-32C (Castagnoli) checksum. On Java 9 or later, the 
+ * intrinsic <CODE>java.util.zip.CRC32C</CODE> is used; otherwise, it 
+ * falls back to the table-driven implementation of this class.
+ * 
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+class Crc32c implements Checksum {
+	
+	/** The reversed polynomial of CRC-32C */
+	private static final int POLYNOMIAL = 0x82F63B78;
+	
+	private static final int [] TABLE = new int [256];
+	
+	static {
+		for (int i = 0; i < 256; i++) {
+			int crc = i;
+			for (int j = 0; j < 8; j++) {
+				crc = (crc & 1) != 0 ? (crc >>> 1) ^ POLYNOMIAL : crc >>> 1;
+			}
+			TABLE[i] = crc;
+		}
+	}
+	
+	/** The class of the JDK implementation, or null before Java 9 */
+	private static final Class<?> JDK_CRC32C = findJdkClass();
+	
+	private static Class<?> findJdkClass() {
+		try {
+			return Class.forName("java.util.zip.CRC32C");
+		} catch (ClassNotFoundException e) {
+			return null;
+		}
+	}
+	
+	/**
+	 * Creates a new CRC-32C checksum, preferring the JDK implementation.
+	 * @return
+	 */
+	static Checksum newChecksum() {
+		if (JDK_CRC32C != null) {
+			try {
+				return (Checksum) JDK_CRC32C.getDeclaredConstructor()
+						.newInstance();
+			} catch (Exception e) {
+				// falls back to the table-driven implementation
+			}
+		}
+		return new Crc32c();
+	}
+	
+	private int mCrc = 0xFFFFFFFF;
+	
+	@Override
+	public void update(int b) {
+		mCrc = (mCrc >>> 8) ^ TABLE[(mCrc ^ b) & 0xFF];
+	}
+	
+	@Override
+	public void update(byte [] bytes, int offset, int length) {
+		int crc = mCrc;
+		for (int i = offset; i < offset + length; i++) {
+			crc = (crc >>> 8) ^ TABLE[(crc ^ bytes[i]) & 0xFF];
+		}
+		mCrc = crc;
+	}
+	
+	@Override
+	public long getValue() {
+		return ~mCrc & 0xFFFFFFFFL;
+	}
+	
+	@Override
+	public void reset() {
+		mCrc = 0xFFFFFFFF;
+	}
+}
@@ -0,0 +1,588 @@
+package idea.inspired.core.io.hash;
+
+import idea.inspired.core.util.ThreadPools;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * <P>Copies a directory tree, or rewrites an existing one, so that the
+ * files with the same content share their storage.</P>
+ *
+ * <P>The files are grouped by size first, and only the files sharing a
+ * size are hashed. A duplicate is replaced by a hard link to the first
+ * file with the same digest, or by a reflink (a copy-on-write clone,
+ * made by <CODE>cp --reflink=always</CODE> on Linux). Note that the
+ * hard-linked files share their content and attributes, so writing one
+ * of them changes all; the reflinks do not. If the algorithm is not
+ * {@link HashAlgorithm#SHA256}, the contents are also compared before
+ * linking, since a fast hash may collide.</P>
+ *
+ * <P>The size groups are processed in parallel.</P>
+ *
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ * @see {@link FileHasher}
+ */
+public class Deduplicator {
+	
+	/** The suffix of the temporary links made by the replacement */
+	private static final String TEMP_SUFFIX = ".dedup-tmp";
+	
+	/** How a duplicate shares the storage of the original */
+	public enum LinkMode {
+		/** A hard link, supported by most of the file systems */
+		HARD_LINK,
+		
+		/** A copy-on-write clone, e.g. on Btrfs and XFS */
+		REFLINK
+	}
+	
+	/** The result of a copy or a deduplication. */
+	public static class Report {
+		private int mFileCount;
+		private int mDuplicateCount;
+		private long mBytesSaved;
+		private final Map<String, IOException> mErrors =
+				new TreeMap<String, IOException>();
+		
+		/**
+		 * Returns the number of the files processed.
+		 * @return
+		 */
+		public synchronized int getFileCount() {
+			return mFileCount;
+		}
+		
+		/**
+		 * Returns the number of the files linked to another file.
+		 * @return
+		 */
+		public synchronized int getDuplicateCount() {
+			return mDuplicateCount;
+		}
+		
+		/**
+		 * Returns the number of the bytes which are not stored again.
+		 * @return
+		 */
+		public synchronized long getBytesSaved() {
+			return mBytesSaved;
+		}
+		
+		/**
+		 * Returns the files which failed, by their relative paths.
+		 * @return
+		 */
+		public synchronized Map<String, IOException> getErrors() {
+			return Collections.unmodifiableMap(
+					new TreeMap<String, IOException>(mErrors));
+		}
+		
+		@Override
+		public synchronized String toString() {
+			return "files: " + mFileCount + ", duplicates: " +
+					mDuplicateCount + ", bytes saved: " + mBytesSaved +
+					", errors: " + mErrors.size();
+		}
+		
+		private synchronized void addFile() {
+			mFileCount++;
+		}
+		
+		private synchronized void addDuplicate(long size) {
+			mDuplicateCount++;
+			mBytesSaved += size;
+		}
+		
+		private synchronized void addError(String path, IOException e) {
+			mErrors.put(path, e);
+		}
+	}
+	
+	/**
+	 * Copies the directory tree, linking the duplicates in the
+	 * destination to the first copy of their content. If a link can not
+	 * be made (e.g. reflinks are not supported), the file is copied. The
+	 * symbolic links, to files or directories, are copied as links.
+	 *
+	 * @param src - the root of the source tree
+	 * @param dest - the root of the destination tree
+	 * @param algorithm - the hash algorithm
+	 * @param mode - how to link the duplicates
+	 * @return
+	 *    the report; the files which failed are listed in it
+	 * @throws IOException if the trees could not be listed
+	 */
+	public static Report copy(File src, File dest,
+			final HashAlgorithm algorithm, final LinkMode mode)
+			throws IOException {
+		TreeMap<String, File> files = new TreeMap<String, File>();
+		List<String> directories = new ArrayList<String>();
+		TreeMap<String, File> links = new TreeMap<String, File>();
+		listFiles(src, "", files, directories, links);
+		
+		Files.createDirectories(dest.toPath());
+		for (String directory : directories) {
+			Files.createDirectories(new File(dest, directory).toPath());
+		}
+		
+		final Report report = new Report();
+		for (Entry<String, File> link : links.entrySet()) {
+			report.addFile();
+			try {
+				copyLink(link.getValue(), new File(dest, link.getKey()));
+			} catch (IOException e) {
+				report.addError(link.getKey(), e);
+			}
+		}
+		
+		final File destRoot = dest;
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+		
+		for (final Map<String, File> group : groupBySize(files)) {
+			tasks.add(new Callable<Void>() {
+				@Override
+				public Void call() {
+					// maps each digest to its first copy
+					Map<String, File> copies = new HashMap<String, File>();
+					
+					for (Entry<String, File> entry : group.entrySet()) {
+						String path = entry.getKey();
+						File from = entry.getValue();
+						File to = new File(destRoot, path);
+						report.addFile();
+						try {
+							if (group.size() == 1 || from.length() == 0) {
+								copyFile(from, to);
+								continue;
+							}
+							if (copies.isEmpty()) {
+								// the first of the group is hashed while
+								// being copied
+								byte [] digest = FileHasher.copy(
+										from, to, algorithm);
+								copyAttributes(from, to);
+								copies.put(FileHasher.toHex(digest), to);
+								continue;
+							}
+							
+							String digest = FileHasher.toHex(
+									FileHasher.hash(from, algorithm));
+							File original = copies.get(digest);
+							if (original != null
+									&& isSameContent(original, from,
+											algorithm)
+									&& link(original, to, mode)) {
+								report.addDuplicate(from.length());
+							} else {
+								copyFile(from, to);
+								if (original == null) {
+									copies.put(digest, to);
+								}
+							}
+						} catch (IOException e) {
+							report.addError(path, e);
+						}
+					}
+					return null;
+				}
+			});
+		}
+		runAll(tasks);
+		return report;
+	}
+	
+	/**
+	 * Replaces the duplicates in the directory tree by the links to the
+	 * first file (in the order of the paths) with the same content. The
+	 * files which are already hard links of each other are counted once.
+	 * The symbolic links are neither followed nor replaced.
+	 *
+	 * @param root - the root of the tree
+	 * @param algorithm - the hash algorithm
+	 * @param mode - how to link the duplicates
+	 * @return
+	 *    the report; the files which failed are listed in it
+	 * @throws IOException if the tree could not be listed
+	 */
+	public static Report dedup(File root, final HashAlgorithm algorithm,
+			final LinkMode mode) throws IOException {
+		TreeMap<String, File> files = new TreeMap<String, File>();
+		listFiles(root, "", files, new ArrayList<String>(),
+				new TreeMap<String, File>());
+		
+		final Report report = new Report();
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+		
+		for (final Map<String, File> group : groupBySize(files)) {
+			if (group.size() == 1
+					|| group.values().iterator().next().length() == 0) {
+				for (int i = 0; i < group.size(); i++) {
+					report.addFile();
+				}
+				continue;
+			}
+			
+			tasks.add(new Callable<Void>() {
+				@Override
+				public Void call() {
+					// the paths of each file (i.e. inode), in order
+					Map<Object, List<String>> inodes =
+							new LinkedHashMap<Object, List<String>>();
+					for (Entry<String, File> entry : group.entrySet()) {
+						report.addFile();
+						try {
+							Object key = getFileKey(entry.getValue());
+							List<String> paths = inodes.get(key);
+							if (paths == null) {
+								paths = new ArrayList<String>();
+								inodes.put(key, paths);
+							}
+							paths.add(entry.getKey());
+						} catch (IOException e) {
+							report.addError(entry.getKey(), e);
+						}
+					}
+					
+					Map<String, File> originals = new HashMap<String, File>();
+					for (List<String> paths : inodes.values()) {
+						File file = group.get(paths.get(0));
+						try {
+							String digest = FileHasher.toHex(
+									FileHasher.hash(file, algorithm));
+							File original = originals.get(digest);
+							if (original == null) {
+								originals.put(digest, file);
+								continue;
+							}
+							if (!isSameContent(original, file, algorithm)) {
+								continue;
+							}
+							
+							// relinks all the paths of the file
+							long size = file.length();
+							boolean linked = false;
+							for (String path : paths) {
+								try {
+									replace(original, group.get(path), mode);
+									linked = true;
+								} catch (IOException e) {
+									report.addError(path, e);
+								}
+							}
+							if (linked) {
+								report.addDuplicate(size);
+							}
+						} catch (IOException e) {
+							report.addError(paths.get(0), e);
+						}
+					}
+					return null;
+				}
+			});
+		}
+		runAll(tasks);
+		return report;
+	}
+	
+	//-------------------------------------------------------------
+	// Helpers
+	//-------------------------------------------------------------
+	
+	/**
+	 * Lists the regular files, the directories and the symbolic links by
+	 * their relative paths; the links are not followed.
+	 */
+	private static void listFiles(File directory, String prefix,
+			Map<String, File> files, List<String> directories,
+			Map<String, File> links) throws IOException {
+		File [] children = directory.listFiles();
+		if (children == null) {
+			throw new IOException("Failed to list the directory: " +
+					directory);
+		}
+		
+		for (File child : children) {
+			String path = prefix + child.getName();
+			Path childPath = child.toPath();
+			if (Files.isSymbolicLink(childPath)) {
+				links.put(path, child);
+			} else if (Files.isDirectory(childPath,
+					LinkOption.NOFOLLOW_LINKS)) {
+				directories.add(path);
+				listFiles(child, path + "/", files, directories, links);
+			} else if (Files.isRegularFile(childPath,
+					LinkOption.NOFOLLOW_LINKS)) {
+				files.put(path, child);
+			}
+		}
+	}
+	
+	/**
+	 * Groups the files by size, keeping the order of the paths.
+	 */
+	private static List<Map<String, File>> groupBySize(
+			Map<String, File> files) {
+		Map<Long, Map<String, File>> groups =
+				new LinkedHashMap<Long, Map<String, File>>();
+		for (Entry<String, File> entry : files.entrySet()) {
+			Long size = entry.getValue().length();
+			Map<String, File> group = groups.get(size);
+			if (group == null) {
+				group = new TreeMap<String, File>();
+				groups.put(size, group);
+			}
+			group.put(entry.getKey(), entry.getValue());
+		}
+		return new ArrayList<Map<String, File>>(groups.values());
+	}
+	
+	private static Object getFileKey(File file) throws IOException {
+		Object key = Files.readAttributes(file.toPath(),
+				BasicFileAttributes.class).fileKey();
+		return key != null ? key : file.getCanonicalPath();
+	}
+	
+	/**
+	 * Recreates the symbolic link with the same target.
+	 */
+	private static void copyLink(File src, File dest) throws IOException {
+		Files.deleteIfExists(dest.toPath());
+		Files.createSymbolicLink(dest.toPath(),
+				Files.readSymbolicLink(src.toPath()));
+	}
+	
+	private static void copyFile(File src, File dest) throws IOException {
+		Files.copy(src.toPath(), dest.toPath(),
+				StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.COPY_ATTRIBUTES);
+	}
+	
+	/**
+	 * Copies the last modified time and, on POSIX file systems, the
+	 * permissions, like {@link #copyFile(File, File)} does.
+	 */
+	private static void copyAttributes(File src, File dest)
+			throws IOException {
+		Path from = src.toPath();
+		Path to = dest.toPath();
+		PosixFileAttributeView view = Files.getFileAttributeView(to,
+				PosixFileAttributeView.class);
+		if (view != null) {
+			view.setPermissions(Files.readAttributes(from,
+					PosixFileAttributes.class).permissions());
+		}
+		Files.setLastModifiedTime(to, Files.getLastModifiedTime(from));
+	}
+	
+	/**
+	 * Compares the contents if the digests may collide.
+	 */
+	private static boolean isSameContent(File a, File b,
+			HashAlgorithm algorithm) throws IOException {
+		if (algorithm == HashAlgorithm.SHA256) {
+			return true;
+		}
+		
+		byte [] bufferA = new byte [64 * 1024];
+		byte [] bufferB = new byte [bufferA.length];
+		InputStream isA = new FileInputStream(a);
+		try {
+			InputStream isB = new FileInputStream(b);
+			try {
+				while (true) {
+					int lengthA = readFully(isA, bufferA);
+					int lengthB = readFully(isB, bufferB);
+					if (lengthA != lengthB) {
+						return false;
+					}
+					if (lengthA == 0) {
+						return true;
+					}
+					for (int i = 0; i < lengthA; i++) {
+						if (bufferA[i] != bufferB[i]) {
+							return false;
+						}
+					}
+				}
+			} finally {
+				isB.close();
+			}
+		} finally {
+			isA.close();
+		}
+	}
+	
+	private static int readFully(InputStream is, byte [] buffer)
+			throws IOException {
+		int total = 0, length;
+		while (total < buffer.length
+				&& (length = is.read(buffer, total, buffer.length - total)) != -1) {
+			total += length;
+		}
+		return total;
+	}
+	
+	/**
+	 * Links the new file to the original.
+	 *
+	 * @return
+	 *    false if the link cannot be made, e.g. the reflinks are not
+	 *  supported or the hard links of the original are too many, so the
+	 *  file should be copied instead
+	 */
+	private static boolean link(File original, File file, LinkMode mode)
+			throws IOException {
+		Files.deleteIfExists(file.toPath());
+		try {
+			if (mode == LinkMode.HARD_LINK) {
+				Files.createLink(file.toPath(), original.toPath());
+			} else {
+				reflink(original, file);
+			}
+			return true;
+		} catch (IOException e) {
+			return false;
+		} catch (UnsupportedOperationException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Replaces the existing file by a link to the original, atomically
+	 * through a temporary link in the same directory. The temporary name
+	 * is created exclusively, so an existing file is never overwritten
+	 * or deleted.
+	 */
+	private static void replace(File original, File file, LinkMode mode)
+			throws IOException {
+		Path target = file.toPath();
+		Path temp;
+		if (mode == LinkMode.HARD_LINK) {
+			temp = createTempLink(original.toPath(), target);
+		} else {
+			temp = Files.createTempFile(target.getParent(),
+					"." + file.getName() + ".", TEMP_SUFFIX);
+		}
+		
+		boolean moved = false;
+		try {
+			if (mode != LinkMode.HARD_LINK) {
+				reflink(original, temp.toFile());
+				copyAttributes(file, temp.toFile());
+			}
+			Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+			moved = true;
+		} finally {
+			if (!moved) {
+				Files.deleteIfExists(temp);
+			}
+		}
+	}
+	
+	/**
+	 * Creates a hard link to the original beside the target, with a
+	 * random name which does not exist yet.
+	 */
+	private static Path createTempLink(Path original, Path target)
+			throws IOException {
+		while (true) {
+			Path temp = target.resolveSibling("." + target.getFileName() +
+					"." + Long.toHexString(ThreadLocalRandom.current()
+					.nextLong()) + TEMP_SUFFIX);
+			try {
+				return Files.createLink(temp, original);
+			} catch (FileAlreadyExistsException e) {
+				// tries another name
+			}
+		}
+	}
+	
+	/**
+	 * Clones the file by <CODE>cp --reflink=always</CODE>.
+	 */
+	private static void reflink(File original, File file)
+			throws IOException {
+		Process process = new ProcessBuilder("cp", "--reflink=always",
+				original.getPath(), file.getPath())
+				.redirectErrorStream(true).start();
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		InputStream is = process.getInputStream();
+		try {
+			byte [] buffer = new byte [1024];
+			int length;
+			while ((length = is.read(buffer)) != -1) {
+				output.write(buffer, 0, length);
+			}
+		} finally {
+			is.close();
+		}
+		
+		int status;
+		try {
+			status = process.waitFor();
+		} catch (InterruptedException e) {
+			process.destroy();
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException(e.toString());
+		}
+		if (status != 0) {
+			Files.deleteIfExists(file.toPath());
+			throw new IOException("Failed to reflink " + file + ": " +
+					output.toString().trim());
+		}
+	}
+	
+	private static void runAll(List<Callable<Void>> tasks)
+			throws IOException {
+		if (tasks.isEmpty()) {
+			return;
+		}
+		ExecutorService executor = ThreadPools.newFixedDaemonPool(
+				"dedup", Math.min(tasks.size(),
+						ThreadPools.getProcessorCount()));
+		try {
+			List<Future<Void>> futures = new ArrayList<Future<Void>>();
+			for (Callable<Void> task : tasks) {
+				futures.add(executor.submit(task));
+			}
+			for (Future<Void> future : futures) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException(e.toString());
+		} catch (ExecutionException e) {
+			throw new IOException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
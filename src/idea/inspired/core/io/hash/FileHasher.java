@@ -0,0 +1,232 @@
+package idea.inspired.core.io.hash;
+
+import idea.inspired.core.io.FileManager;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The class is used to hash the files and to copy the files with 
+ * hashing.
+ * 
+ * <P>The files are mapped into memory to be hashed. For the algorithms 
+ * with the tree hashing (see {@link HashAlgorithm#isTreeHashing()}), 
+ * the chunks of a large file are hashed in parallel.</P>
+ * 
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ * @see {@link HashManifest}
+ */
+public class FileHasher {
+	
+	/** The size of a chunk of the tree hashing, i.e. 4 MB */
+	public static final int TREE_CHUNK_SIZE = 4 << 20;
+	
+	/** The size of the buffer used to copy the files */
+	private static final int COPY_BUFFER_SIZE = 256 * 1024;
+	
+	/** The size of the window mapped at a time for the sequential hashing */
+	private static final int MAP_WINDOW_SIZE = 64 << 20;
+	
+	private static final char [] HEXI_DECIMAL
+			= "0123456789abcdef".toCharArray();
+	
+	/**
+	 * Creates a streaming hasher whose digest is the same as 
+	 * {@link #hash(File, HashAlgorithm)} for the same bytes.
+	 * 
+	 * @param algorithm
+	 * @return
+	 */
+	public static Hasher newStreamingHasher(HashAlgorithm algorithm) {
+		if (algorithm.isTreeHashing()) {
+			return new TreeHasher(algorithm, TREE_CHUNK_SIZE);
+		}
+		return algorithm.newHasher();
+	}
+	
+	/**
+	 * Hashes the content of the file.
+	 * 
+	 * @param file - the file to hash
+	 * @param algorithm - the hash algorithm
+	 * @return
+	 *    the digest
+	 * @throws IOException
+	 */
+	public static byte [] hash(File file, HashAlgorithm algorithm) 
+			throws IOException {
+		FileInputStream fis = new FileInputStream(file);
+		try {
+			FileChannel channel = fis.getChannel();
+			long size = channel.size();
+			
+			if (algorithm.isTreeHashing() && size > TREE_CHUNK_SIZE) {
+				return hashTree(channel, size, algorithm);
+			}
+			
+			Hasher hasher = algorithm.newHasher();
+			for (long position = 0; position < size; 
+					position += MAP_WINDOW_SIZE) {
+				hasher.update(channel.map(FileChannel.MapMode.READ_ONLY, 
+						position, Math.min(MAP_WINDOW_SIZE, size - position)));
+			}
+			return hasher.digest();
+		} finally {
+			fis.close();
+		}
+	}
+	
+	/**
+	 * Hashes the chunks of the file in parallel, and then combines the 
+	 * chunk digests.
+	 */
+	private static byte [] hashTree(final FileChannel channel, long size, 
+			final HashAlgorithm algorithm) throws IOException {
+		int count = (int) ((size + TREE_CHUNK_SIZE - 1) / TREE_CHUNK_SIZE);
+		List<ForkJoinTask<byte []>> tasks = 
+				new ArrayList<ForkJoinTask<byte []>>(count);
+		
+		for (int i = 0; i < count; i++) {
+			final long position = (long) i * TREE_CHUNK_SIZE;
+			final long length = Math.min(TREE_CHUNK_SIZE, size - position);
+			
+			tasks.add(ForkJoinPool.commonPool().submit(
+					new RecursiveTask<byte []>() {
+				private static final long serialVersionUID = 1L;
+				
+				@Override
+				protected byte [] compute() {
+					try {
+						MappedByteBuffer chunk = channel.map(
+								FileChannel.MapMode.READ_ONLY, 
+								position, length);
+						Hasher hasher = algorithm.newHasher();
+						hasher.update(chunk);
+						return hasher.digest();
+					} catch (IOException e) {
+						completeExceptionally(e);
+						return null;
+					}
+				}
+			}));
+		}
+		
+		byte [] leaves = null;
+		try {
+			for (int i = 0; i < count; i++) {
+				byte [] digest = tasks.get(i).get();
+				if (leaves == null) {
+					leaves = new byte [digest.length * count];
+				}
+				System.arraycopy(digest, 0, leaves, i * digest.length, 
+						digest.length);
+			}
+		} catch (InterruptedException e) {
+			for (ForkJoinTask<byte []> task : tasks) {
+				task.cancel(true);
+			}
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException(e.toString());
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			throw cause instanceof IOException 
+					? (IOException) cause : new IOException(cause);
+		}
+		return TreeHasher.combine(algorithm, leaves);
+	}
+	
+	/**
+	 * Copies the source file to the target file and hashes the bytes 
+	 * while they are copied, so the source is read only once.
+	 * 
+	 * @param src - the source file
+	 * @param dest - the target file
+	 * @param algorithm - the hash algorithm
+	 * @return
+	 *    the digest of the copied bytes, the same as 
+	 *  {@link #hash(File, HashAlgorithm)} of the source
+	 * @throws IOException
+	 */
+	public static byte [] copy(File src, File dest, HashAlgorithm algorithm) 
+			throws IOException {
+		if (!FileManager.ensureParentDirectory(dest)) {
+			throw new IOException("Failed to create the file directory \"" + 
+					dest.getParent() + "\"!");
+		}
+		if (dest.exists() && !dest.canWrite() && !dest.setWritable(true)) {
+			throw new IOException("Failed to set the write permission." +
+					"\n - file: " + dest);
+		}
+		
+		Hasher hasher = newStreamingHasher(algorithm);
+		FileInputStream fis = new FileInputStream(src);
+		try {
+			FileOutputStream fos = new FileOutputStream(dest);
+			try {
+				FileChannel input = fis.getChannel();
+				FileChannel output = fos.getChannel();
+				ByteBuffer buffer = ByteBuffer.allocateDirect(COPY_BUFFER_SIZE);
+				
+				while (input.read(buffer) != -1) {
+					buffer.flip();
+					hasher.update(buffer.duplicate());
+					while (buffer.hasRemaining()) {
+						output.write(buffer);
+					}
+					buffer.clear();
+				}
+			} finally {
+				fos.close();
+			}
+		} finally {
+			fis.close();
+		}
+		return hasher.digest();
+	}
+	
+	/**
+	 * Copies the source file to the target file, and verifies that the 
+	 * target has the same digest as the copied bytes.
+	 * 
+	 * @param src - the source file
+	 * @param dest - the target file
+	 * @param algorithm - the hash algorithm
+	 * @return
+	 *    true if the target is identical to the source; false otherwise
+	 * @throws IOException
+	 */
+	public static boolean copyVerified(File src, File dest, 
+			HashAlgorithm algorithm) throws IOException {
+		byte [] expected = copy(src, dest, algorithm);
+		return Arrays.equals(expected, hash(dest, algorithm));
+	}
+	
+	/**
+	 * Converts the digest to the lower-case hexadecimal string.
+	 * 
+	 * @param digest
+	 * @return
+	 */
+	public static String toHex(byte [] digest) {
+		char [] chars = new char [digest.length * 2];
+		for (int i = 0; i < digest.length; i++) {
+			chars[i * 2] = HEXI_DECIMAL[(digest[i] & 0xF0) >> 4];
+			chars[i * 2 + 1] = HEXI_DECIMAL[digest[i] & 0x0F];
+		}
+		return new String(chars);
+	}
+}
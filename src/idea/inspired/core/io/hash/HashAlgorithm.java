@@ -0,0 +1,154 @@
+package idea.inspired.core.io.hash;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.Checksum;
+
+/**
+ * The algorithms supported by {@link FileHasher}.
+ * 
+ * <P>The fast algorithms ({@link #CRC32C} and {@link #XXHASH64}) use 
+ * the tree hashing for a file larger than 
+ * {@link FileHasher#TREE_CHUNK_SIZE}: each chunk is hashed on its own, 
+ * in parallel, and the digest is the hash of the chunk digests. 
+ * {@link #SHA256} always hashes the file as a whole, so its digest is 
+ * the same as <CODE>sha256sum</CODE>.</P>
+ * 
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+public enum HashAlgorithm {
+	CRC32C("crc32c", true), 
+	XXHASH64("xxh64", true), 
+	SHA256("sha256", false);
+	
+	/** The name used in the manifest files */
+	private final String mName;
+	
+	/** Whether the tree hashing is used for the large files or not */
+	private final boolean mTreeHashing;
+	
+	private HashAlgorithm(String name, boolean treeHashing) {
+		this.mName = name;
+		this.mTreeHashing = treeHashing;
+	}
+	
+	/**
+	 * Returns the name used in the manifest files.
+	 * @return
+	 */
+	public String getName() {
+		return this.mName;
+	}
+	
+	/**
+	 * Returns true if the large files are hashed as a tree of chunks.
+	 * @return
+	 */
+	public boolean isTreeHashing() {
+		return this.mTreeHashing;
+	}
+	
+	/**
+	 * Creates a new hasher of the algorithm.
+	 * @return
+	 */
+	public Hasher newHasher() {
+		switch (this) {
+		case CRC32C:
+			return new ChecksumHasher(Crc32c.newChecksum());
+		case XXHASH64:
+			return new XxHash64();
+		case SHA256:
+			try {
+				return new DigestHasher(MessageDigest.getInstance("SHA-256"));
+			} catch (NoSuchAlgorithmException e) {
+				// every Java platform supports SHA-256
+				throw new IllegalStateException(e);
+			}
+		default:
+			throw new IllegalStateException("Unknown algorithm: " + this);
+		}
+	}
+	
+	/**
+	 * Finds the algorithm by its name.
+	 * 
+	 * @param name - the name used in the manifest files
+	 * @return
+	 *    the algorithm, or <CODE>null</CODE> if not found
+	 */
+	public static HashAlgorithm forName(String name) {
+		for (HashAlgorithm algorithm : values()) {
+			if (algorithm.mName.equalsIgnoreCase(name)) {
+				return algorithm;
+			}
+		}
+		return null;
+	}
+	
+	/** Adapts a {@link Checksum} to the {@link Hasher}. */
+	private static class ChecksumHasher implements Hasher {
+		private final Checksum mChecksum;
+		private final byte [] mBuffer = new byte [8192];
+		
+		ChecksumHasher(Checksum checksum) {
+			this.mChecksum = checksum;
+		}
+		
+		@Override
+		public void update(byte [] bytes, int offset, int length) {
+			mChecksum.update(bytes, offset, length);
+		}
+		
+		@Override
+		public void update(ByteBuffer buffer) {
+			if (buffer.hasArray()) {
+				mChecksum.update(buffer.array(), 
+						buffer.arrayOffset() + buffer.position(), 
+						buffer.remaining());
+				buffer.position(buffer.limit());
+				return;
+			}
+			while (buffer.hasRemaining()) {
+				int length = Math.min(mBuffer.length, buffer.remaining());
+				buffer.get(mBuffer, 0, length);
+				mChecksum.update(mBuffer, 0, length);
+			}
+		}
+		
+		@Override
+		public byte [] digest() {
+			long value = mChecksum.getValue();
+			mChecksum.reset();
+			return new byte [] {
+					(byte) (value >>> 24), (byte) (value >>> 16), 
+					(byte) (value >>> 8), (byte) value};
+		}
+	}
+	
+	/** Adapts a {@link MessageDigest} to the {@link Hasher}. */
+	private static class DigestHasher implements Hasher {
+		private final MessageDigest mDigest;
+		
+		DigestHasher(MessageDigest digest) {
+			this.mDigest = digest;
+		}
+		
+		@Override
+		public void update(byte [] bytes, int offset, int length) {
+			mDigest.update(bytes, offset, length);
+		}
+		
+		@Override
+		public void update(ByteBuffer buffer) {
+			mDigest.update(buffer);
+		}
+		
+		@Override
+		public byte [] digest() {
+			return mDigest.digest();
+		}
+	}
+}
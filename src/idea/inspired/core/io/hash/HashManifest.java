@@ -0,0 +1,289 @@
+package idea.inspired.core.io.hash;
+
+import idea.inspired.core.util.ThreadPools;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * <P>Creates and verifies the manifest of a directory tree, which lists
+ * the digest of each file. The format is like the output of
+ * <CODE>sha256sum</CODE>, with the algorithm in the first line:
+ * <PRE>
+ *    # algorithm: xxh64
+ *    2fa19b0818d80c80  dir/file.txt
+ * </PRE>
+ * The paths are relative to the root and separated by '/'. The files
+ * are hashed in parallel.</P>
+ * 
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ * @see {@link FileHasher}
+ */
+public class HashManifest {
+	
+	private static final String ALGORITHM_PREFIX = "# algorithm: ";
+	
+	/** The result of {@link HashManifest#verify(File, File)}. */
+	public static class Report {
+		private int mVerified;
+		private final List<String> mMismatched = new ArrayList<String>();
+		private final List<String> mMissing = new ArrayList<String>();
+		private final Map<String, IOException> mErrors = 
+				new LinkedHashMap<String, IOException>();
+		
+		/**
+		 * Returns the number of the files whose digest matched.
+		 * @return
+		 */
+		public int getVerifiedCount() {
+			return mVerified;
+		}
+		
+		/**
+		 * Returns the files whose digest did not match.
+		 * @return
+		 */
+		public List<String> getMismatched() {
+			return Collections.unmodifiableList(mMismatched);
+		}
+		
+		/**
+		 * Returns the files listed in the manifest but not found.
+		 * @return
+		 */
+		public List<String> getMissing() {
+			return Collections.unmodifiableList(mMissing);
+		}
+		
+		/**
+		 * Returns the files which could not be read.
+		 * @return
+		 */
+		public Map<String, IOException> getErrors() {
+			return Collections.unmodifiableMap(mErrors);
+		}
+		
+		/**
+		 * Returns true if all the files are verified.
+		 * @return
+		 */
+		public boolean isSuccessful() {
+			return mMismatched.isEmpty() && mMissing.isEmpty() 
+					&& mErrors.isEmpty();
+		}
+		
+		@Override
+		public String toString() {
+			return "verified: " + mVerified + ", mismatched: " + 
+					mMismatched.size() + ", missing: " + mMissing.size() + 
+					", errors: " + mErrors.size();
+		}
+	}
+	
+	/**
+	 * Hashes all the files of the directory tree and writes the 
+	 * manifest. The manifest file itself is skipped if it is in the 
+	 * tree. If a file cannot be read, the old manifest is kept.
+	 * 
+	 * @param root - the root of the directory tree
+	 * @param manifest - the manifest file to write
+	 * @param algorithm - the hash algorithm
+	 * @return
+	 *    the number of the files in the manifest
+	 * @throws IOException
+	 */
+	public static int write(File root, File manifest, 
+			HashAlgorithm algorithm) throws IOException {
+		TreeMap<String, File> files = new TreeMap<String, File>();
+		listFiles(root, "", manifest.getAbsoluteFile(), files);
+		
+		Map<String, Object> digests = hashAll(files, algorithm);
+		for (Object digest : digests.values()) {
+			if (digest instanceof IOException) {
+				throw (IOException) digest;
+			}
+		}
+		
+		// replaces the old manifest at once, so a failure never leaves 
+		// a truncated one
+		File temp = new File(manifest.getPath() + ".tmp-manifest");
+		boolean moved = false;
+		try {
+			BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(
+					new FileOutputStream(temp), StandardCharsets.UTF_8));
+			try {
+				bw.write(ALGORITHM_PREFIX + algorithm.getName());
+				bw.write('\n');
+				for (Entry<String, Object> entry : digests.entrySet()) {
+					bw.write(FileHasher.toHex((byte []) entry.getValue()));
+					bw.write("  ");
+					bw.write(entry.getKey());
+					bw.write('\n');
+				}
+			} finally {
+				bw.close();
+			}
+			Files.move(temp.toPath(), manifest.toPath(),
+					StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+			moved = true;
+		} finally {
+			if (!moved) {
+				temp.delete();
+			}
+		}
+		return digests.size();
+	}
+	
+	/**
+	 * Verifies the files of the directory tree against the manifest.
+	 * The files not listed in the manifest are ignored.
+	 * 
+	 * @param root - the root of the directory tree
+	 * @param manifest - the manifest file
+	 * @return
+	 *    the report of the verification
+	 * @throws IOException if the manifest could not be read
+	 */
+	public static Report verify(File root, File manifest) 
+			throws IOException {
+		Map<String, String> expected = new LinkedHashMap<String, String>();
+		HashAlgorithm algorithm = null;
+		
+		BufferedReader br = new BufferedReader(new InputStreamReader(
+				new FileInputStream(manifest), StandardCharsets.UTF_8));
+		try {
+			String line;
+			while ((line = br.readLine()) != null) {
+				if (line.startsWith(ALGORITHM_PREFIX)) {
+					algorithm = HashAlgorithm.forName(
+							line.substring(ALGORITHM_PREFIX.length()).trim());
+				} else if (line.length() > 0 && !line.startsWith("#")) {
+					int splitAt = line.indexOf("  ");
+					if (splitAt <= 0) {
+						throw new IOException("Invalid manifest line: " + line);
+					}
+					expected.put(line.substring(splitAt + 2), 
+							line.substring(0, splitAt).toLowerCase());
+				}
+			}
+		} finally {
+			br.close();
+		}
+		
+		if (algorithm == null) {
+			throw new IOException("Unknown algorithm in " + manifest);
+		}
+		
+		Report report = new Report();
+		Map<String, File> files = new LinkedHashMap<String, File>();
+		for (String path : expected.keySet()) {
+			File file = new File(root, path);
+			if (file.isFile()) {
+				files.put(path, file);
+			} else {
+				report.mMissing.add(path);
+			}
+		}
+		
+		for (Entry<String, Object> entry : 
+				hashAll(files, algorithm).entrySet()) {
+			String path = entry.getKey();
+			if (entry.getValue() instanceof IOException) {
+				report.mErrors.put(path, (IOException) entry.getValue());
+			} else if (FileHasher.toHex((byte []) entry.getValue())
+					.equals(expected.get(path))) {
+				report.mVerified++;
+			} else {
+				report.mMismatched.add(path);
+			}
+		}
+		return report;
+	}
+	
+	/**
+	 * Hashes the files in parallel.
+	 * 
+	 * @return
+	 *    maps each path to its digest, or to the {@link IOException}
+	 */
+	private static Map<String, Object> hashAll(Map<String, File> files, 
+			final HashAlgorithm algorithm) throws IOException {
+		ExecutorService executor = ThreadPools.newFixedDaemonPool(
+				"hash-manifest", ThreadPools.getProcessorCount());
+		Map<String, Future<byte []>> futures = 
+				new LinkedHashMap<String, Future<byte []>>();
+		Map<String, Object> digests = new LinkedHashMap<String, Object>();
+		
+		try {
+			for (Entry<String, File> entry : files.entrySet()) {
+				final File file = entry.getValue();
+				futures.put(entry.getKey(), executor.submit(
+						new Callable<byte []>() {
+					@Override
+					public byte [] call() throws IOException {
+						return FileHasher.hash(file, algorithm);
+					}
+				}));
+			}
+			
+			for (Entry<String, Future<byte []>> entry : futures.entrySet()) {
+				try {
+					digests.put(entry.getKey(), entry.getValue().get());
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					digests.put(entry.getKey(), cause instanceof IOException 
+							? cause : new IOException(cause));
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException(e.toString());
+		} finally {
+			executor.shutdownNow();
+		}
+		return digests;
+	}
+	
+	private static void listFiles(File directory, String prefix, 
+			File excluded, Map<String, File> files) throws IOException {
+		File [] children = directory.listFiles();
+		if (children == null) {
+			throw new IOException("Failed to list the directory: " + 
+					directory);
+		}
+		
+		for (File child : children) {
+			String path = prefix + child.getName();
+			if (child.isDirectory()) {
+				if (!Files.isSymbolicLink(child.toPath())) {
+					listFiles(child, path + "/", excluded, files);
+				}
+			} else if (!child.getAbsoluteFile().equals(excluded)) {
+				files.put(path, child);
+			}
+		}
+	}
+}
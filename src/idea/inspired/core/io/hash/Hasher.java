@@ -0,0 +1,39 @@
+package idea.inspired.core.io.hash;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Computes the digest of a stream of bytes. An instance is not 
+ * thread-safe.
+ * 
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ * @see {@link HashAlgorithm#newHasher()}
+ */
+public interface Hasher {
+	
+	/**
+	 * Updates the digest with the bytes.
+	 * 
+	 * @param bytes
+	 * @param offset
+	 * @param length
+	 */
+	void update(byte [] bytes, int offset, int length);
+	
+	/**
+	 * Updates the digest with the remaining bytes of the buffer. The 
+	 * position of the buffer is moved to its limit.
+	 * 
+	 * @param buffer
+	 */
+	void update(ByteBuffer buffer);
+	
+	/**
+	 * Completes the digest and resets the hasher.
+	 * 
+	 * @return
+	 *    the digest in the big-endian order
+	 */
+	byte [] digest();
+}
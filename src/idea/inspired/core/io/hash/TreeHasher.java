@@ -0,0 +1,89 @@
+package idea.inspired.core.io.hash;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * The streaming form of the tree hashing. The bytes are hashed chunk 
+ * by chunk of {@link FileHasher#TREE_CHUNK_SIZE}; if there is more than 
+ * one chunk, the digest is the hash of the chunk digests, otherwise it 
+ * is the digest of the only chunk. The result is the same as 
+ * {@link FileHasher#hash(java.io.File, HashAlgorithm)}, which hashes 
+ * the chunks in parallel.
+ * 
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+class TreeHasher implements Hasher {
+	
+	private final HashAlgorithm mAlgorithm;
+	private final int mChunkSize;
+	
+	/** The hasher of the current chunk */
+	private final Hasher mLeaf;
+	
+	/** The digests of the completed chunks */
+	private final ByteArrayOutputStream mLeaves = new ByteArrayOutputStream();
+	private int mLeafCount;
+	
+	/** The number of the bytes hashed in the current chunk */
+	private int mFilled;
+	
+	TreeHasher(HashAlgorithm algorithm, int chunkSize) {
+		this.mAlgorithm = algorithm;
+		this.mChunkSize = chunkSize;
+		this.mLeaf = algorithm.newHasher();
+	}
+	
+	@Override
+	public void update(byte [] bytes, int offset, int length) {
+		update(ByteBuffer.wrap(bytes, offset, length));
+	}
+	
+	@Override
+	public void update(ByteBuffer buffer) {
+		while (buffer.hasRemaining()) {
+			if (mFilled == mChunkSize) {
+				completeLeaf();
+			}
+			int length = Math.min(mChunkSize - mFilled, buffer.remaining());
+			ByteBuffer part = buffer.duplicate();
+			part.limit(part.position() + length);
+			mLeaf.update(part);
+			buffer.position(buffer.position() + length);
+			mFilled += length;
+		}
+	}
+	
+	private void completeLeaf() {
+		byte [] digest = mLeaf.digest();
+		mLeaves.write(digest, 0, digest.length);
+		mLeafCount++;
+		mFilled = 0;
+	}
+	
+	@Override
+	public byte [] digest() {
+		byte [] digest;
+		
+		if (mLeafCount == 0) {
+			digest = mLeaf.digest();
+		} else {
+			completeLeaf();
+			digest = combine(mAlgorithm, mLeaves.toByteArray());
+		}
+		mLeaves.reset();
+		mLeafCount = 0;
+		mFilled = 0;
+		return digest;
+	}
+	
+	/**
+	 * Computes the root digest from the concatenated chunk digests.
+	 */
+	static byte [] combine(HashAlgorithm algorithm, byte [] leaves) {
+		Hasher root = algorithm.newHasher();
+		root.update(leaves, 0, leaves.length);
+		return root.digest();
+	}
+}
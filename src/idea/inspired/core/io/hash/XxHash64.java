@@ -0,0 +1,133 @@
+package idea.inspired.core.io.hash;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The streaming xxHash64 with the seed 0.
+ * 
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ * @see <a href="https://github.com/Cyan4973/xxHash">xxHash</a>
+ */
+class XxHash64 implements Hasher {
+	
+	private static final long PRIME1 = 0x9E3779B185EBCA87L;
+	private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+	private static final long PRIME3 = 0x165667B19E3779F9L;
+	private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+	private static final long PRIME5 = 0x27D4EB2F165667C5L;
+	
+	/** The bytes not yet consumed, less than a stripe of 32 bytes */
+	private final ByteBuffer mPending = 
+			ByteBuffer.allocate(32).order(ByteOrder.LITTLE_ENDIAN);
+	
+	private long mV1, mV2, mV3, mV4;
+	private long mTotal;
+	
+	XxHash64() {
+		reset();
+	}
+	
+	private void reset() {
+		mV1 = PRIME1 + PRIME2;
+		mV2 = PRIME2;
+		mV3 = 0;
+		mV4 = -PRIME1;
+		mTotal = 0;
+		mPending.clear();
+	}
+	
+	@Override
+	public void update(byte [] bytes, int offset, int length) {
+		update(ByteBuffer.wrap(bytes, offset, length));
+	}
+	
+	@Override
+	public void update(ByteBuffer buffer) {
+		ByteOrder order = buffer.order();
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		mTotal += buffer.remaining();
+		
+		// fills the pending stripe first
+		if (mPending.position() > 0) {
+			while (mPending.hasRemaining() && buffer.hasRemaining()) {
+				mPending.put(buffer.get());
+			}
+			if (mPending.hasRemaining()) {
+				buffer.order(order);
+				return;
+			}
+			mPending.flip();
+			stripe(mPending);
+			mPending.clear();
+		}
+		
+		while (buffer.remaining() >= 32) {
+			stripe(buffer);
+		}
+		while (buffer.hasRemaining()) {
+			mPending.put(buffer.get());
+		}
+		buffer.order(order);
+	}
+	
+	private void stripe(ByteBuffer buffer) {
+		mV1 = round(mV1, buffer.getLong());
+		mV2 = round(mV2, buffer.getLong());
+		mV3 = round(mV3, buffer.getLong());
+		mV4 = round(mV4, buffer.getLong());
+	}
+	
+	@Override
+	public byte [] digest() {
+		long h;
+		
+		if (mTotal >= 32) {
+			h = Long.rotateLeft(mV1, 1) + Long.rotateLeft(mV2, 7) 
+					+ Long.rotateLeft(mV3, 12) + Long.rotateLeft(mV4, 18);
+			h = mergeRound(h, mV1);
+			h = mergeRound(h, mV2);
+			h = mergeRound(h, mV3);
+			h = mergeRound(h, mV4);
+		} else {
+			h = PRIME5;
+		}
+		h += mTotal;
+		
+		ByteBuffer tail = mPending;
+		tail.flip();
+		while (tail.remaining() >= 8) {
+			h ^= round(0, tail.getLong());
+			h = Long.rotateLeft(h, 27) * PRIME1 + PRIME4;
+		}
+		if (tail.remaining() >= 4) {
+			h ^= (tail.getInt() & 0xFFFFFFFFL) * PRIME1;
+			h = Long.rotateLeft(h, 23) * PRIME2 + PRIME3;
+		}
+		while (tail.hasRemaining()) {
+			h ^= (tail.get() & 0xFF) * PRIME5;
+			h = Long.rotateLeft(h, 11) * PRIME1;
+		}
+		
+		h ^= h >>> 33;
+		h *= PRIME2;
+		h ^= h >>> 29;
+		h *= PRIME3;
+		h ^= h >>> 32;
+		
+		reset();
+		return ByteBuffer.allocate(8).putLong(h).array();
+	}
+	
+	private static long round(long acc, long input) {
+		acc += input * PRIME2;
+		acc = Long.rotateLeft(acc, 31);
+		return acc * PRIME1;
+	}
+	
+	private static long mergeRound(long acc, long value) {
+		acc ^= round(0, value);
+		return acc * PRIME1 + PRIME4;
+	}
+}
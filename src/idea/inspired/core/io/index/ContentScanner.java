@@ -0,0 +1,169 @@
+package idea.inspired.core.io.index;
+
+import idea.inspired.core.io.FileHeader;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Reads a file once to get its header, the hash of its content and the
+ * trigrams of its characters.
+ * 
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+class ContentScanner {
+	
+	/** The header detected by {@link FileHeader} */
+	FileHeader mHeader;
+	
+	/** The hash of the content */
+	long mHash;
+	
+	/** The sorted distinct trigrams, or null if not indexed */
+	long [] mTrigrams;
+	
+	/**
+	 * Scans the file.
+	 * 
+	 * @param file
+	 * @param maxIndexedSize - the maximum size of the file whose
+	 *    trigrams are collected
+	 * @throws IOException
+	 */
+	void scan(File file, long maxIndexedSize) throws IOException {
+		CRC32 crc = new CRC32();
+		long size = file.length();
+		
+		if (size <= maxIndexedSize) {
+			byte [] bytes = readAll(file, (int) size);
+			crc.update(bytes, 0, bytes.length);
+			
+			mHeader = FileHeader.getHeader(bytes, Math.min(4, bytes.length));
+			int offset = mHeader.getHeaderLength();
+			String text = new String(bytes, offset, bytes.length - offset,
+					mHeader.getCharset());
+			mTrigrams = trigrams(text);
+		} else {
+			mHeader = FileHeader.getHeader(file);
+			InputStream is = new BufferedInputStream(
+					new FileInputStream(file));
+			try {
+				byte [] buffer = new byte [64 * 1024];
+				int length;
+				while ((length = is.read(buffer)) != -1) {
+					crc.update(buffer, 0, length);
+				}
+			} finally {
+				is.close();
+			}
+			mTrigrams = null;
+		}
+		mHash = (size << 32) ^ crc.getValue();
+	}
+	
+	private static byte [] readAll(File file, int size) throws IOException {
+		byte [] bytes = new byte [size];
+		InputStream is = new FileInputStream(file);
+		try {
+			int total = 0, length;
+			while (total < size
+					&& (length = is.read(bytes, total, size - total)) != -1) {
+				total += length;
+			}
+			return total == size ? bytes : Arrays.copyOf(bytes, total);
+		} finally {
+			is.close();
+		}
+	}
+	
+	/**
+	 * Packs three characters into a trigram key.
+	 */
+	static long key(char c0, char c1, char c2) {
+		return ((long) c0 << 32) | ((long) c1 << 16) | c2;
+	}
+	
+	/**
+	 * Returns the sorted distinct trigrams of the text.
+	 */
+	static long [] trigrams(CharSequence text) {
+		LongHashSet set = new LongHashSet();
+		for (int i = 0; i + 2 < text.length(); i++) {
+			set.add(key(text.charAt(i), text.charAt(i + 1),
+					text.charAt(i + 2)));
+		}
+		long [] keys = set.toArray();
+		Arrays.sort(keys);
+		return keys;
+	}
+	
+	/** An open-addressing hash set of the primitive longs. */
+	private static class LongHashSet {
+		private long [] mKeys = new long [64];
+		private boolean mHasZero;
+		private int mSize;
+		
+		void add(long key) {
+			if (key == 0) {
+				if (!mHasZero) {
+					mHasZero = true;
+					mSize++;
+				}
+				return;
+			}
+			if ((mSize + 1) * 2 > mKeys.length) {
+				rehash();
+			}
+			int mask = mKeys.length - 1;
+			int i = hash(key) & mask;
+			while (mKeys[i] != 0) {
+				if (mKeys[i] == key) {
+					return;
+				}
+				i = (i + 1) & mask;
+			}
+			mKeys[i] = key;
+			mSize++;
+		}
+		
+		private static int hash(long key) {
+			key *= 0x9E3779B97F4A7C15L;
+			return (int) (key ^ (key >>> 32));
+		}
+		
+		private void rehash() {
+			long [] old = mKeys;
+			mKeys = new long [old.length * 2];
+			int mask = mKeys.length - 1;
+			for (long key : old) {
+				if (key != 0) {
+					int i = hash(key) & mask;
+					while (mKeys[i] != 0) {
+						i = (i + 1) & mask;
+					}
+					mKeys[i] = key;
+				}
+			}
+		}
+		
+		long [] toArray() {
+			long [] array = new long [mSize];
+			int n = 0;
+			if (mHasZero) {
+				array[n++] = 0;
+			}
+			for (long key : mKeys) {
+				if (key != 0) {
+					array[n++] = key;
+				}
+			}
+			return array;
+		}
+	}
+}
@@ -0,0 +1,681 @@
+package idea.inspired.core.io.index;
+
+import idea.inspired.core.io.FileHeader;
+import idea.inspired.core.io.search.FileSearcher;
+import idea.inspired.core.io.search.SearchListener;
+import idea.inspired.core.util.ThreadPools;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * <P>A persistent index of the files in a directory tree. It records
+ * the metadata of each file (size, last-modified time, header and the
+ * hash of the content) and a trigram inverted index of the content, so
+ * the repeated searches only read the files which may match, and
+ * {@link #update()} only reads the files which changed.</P>
+ * 
+ * <P>The index is stored in a single file, which is memory-mapped when
+ * it is opened. The layout (big-endian) is:
+ * <PRE>
+ *    int    magic "IIDX"
+ *    int    version
+ *    int    the number of the entries
+ *    int    the number of the trigrams
+ *    entry  [entries]: short length, UTF-8 path, long size,
+ *           long last-modified, byte header ordinal, long hash,
+ *           byte content-indexed
+ *    table  [trigrams]: long trigram, long postings position,
+ *           int postings count; sorted by the trigram
+ *    varint [postings]: the delta-encoded entry ids
+ * </PRE>
+ * </P>
+ * 
+ * <P>The searches may run while the index is updated: they read the
+ * entries and the postings which were published last.</P>
+ * 
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+public class FileIndex {
+	
+	/** The maximum size of a file whose trigrams are indexed, 16 MB */
+	public static final long MAX_INDEXED_SIZE = 16 << 20;
+	
+	private static final int MAGIC = 0x49494458; // "IIDX"
+	private static final int VERSION = 1;
+	
+	/** The size of a row of the trigram table */
+	private static final int TABLE_ROW = 8 + 8 + 4;
+	
+	/** The root of the directory tree */
+	private final File mRoot;
+	
+	/** The file where the index is stored */
+	private final File mIndexFile;
+	
+	/** The loaded index, replaced at once by {@link #update()} */
+	private volatile Snapshot mSnapshot = Snapshot.EMPTY;
+	
+	private FileIndex(File root, File indexFile) {
+		this.mRoot = root;
+		this.mIndexFile = indexFile;
+	}
+	
+	/**
+	 * Opens the index of the directory tree. If the index file exists,
+	 * it is loaded; otherwise the index is empty until
+	 * {@link #update()} is called.
+	 * 
+	 * @param root - the root of the directory tree
+	 * @param indexFile - the file where the index is stored
+	 * @return
+	 * @throws IOException if the index file is broken
+	 */
+	public static FileIndex open(File root, File indexFile)
+			throws IOException {
+		FileIndex index = new FileIndex(root, indexFile);
+		if (indexFile.exists()) {
+			index.mSnapshot = index.load(indexFile);
+		}
+		return index;
+	}
+	
+	/**
+	 * Returns the root of the directory tree.
+	 * @return
+	 */
+	public File getRoot() {
+		return this.mRoot;
+	}
+	
+	/**
+	 * Returns the entries sorted by the path.
+	 * @return
+	 */
+	public List<IndexEntry> getEntries() {
+		return Collections.unmodifiableList(
+				Arrays.asList(mSnapshot.mEntries));
+	}
+	
+	/**
+	 * Returns the entry of the path.
+	 * 
+	 * @param path - the path relative to the root, separated by '/'
+	 * @return
+	 *    the entry, or <CODE>null</CODE> if the path is not indexed
+	 */
+	public IndexEntry getEntry(String path) {
+		IndexEntry [] entries = mSnapshot.mEntries;
+		int id = findEntry(entries, path);
+		return id >= 0 ? entries[id] : null;
+	}
+	
+	/**
+	 * Returns the files which may contain the literal, i.e. the files
+	 * which contain all the trigrams of the literal, and the files
+	 * whose content are not indexed. A literal shorter than 3
+	 * characters matches all the files.
+	 * 
+	 * @param literal
+	 * @return
+	 */
+	public List<File> findCandidates(String literal) {
+		Snapshot snapshot = mSnapshot;
+		IndexEntry [] entries = snapshot.mEntries;
+		List<File> files = new ArrayList<File>();
+		int [] ids = null;
+		
+		if (literal.length() >= 3) {
+			long [] keys = ContentScanner.trigrams(literal);
+			for (long key : keys) {
+				int [] posting = snapshot.readPosting(key);
+				ids = ids == null ? posting : intersect(ids, posting);
+				if (ids.length == 0) {
+					break;
+				}
+			}
+		}
+		
+		for (int id = 0, i = 0; id < entries.length; id++) {
+			if (ids != null) {
+				while (i < ids.length && ids[i] < id) {
+					i++;
+				}
+			}
+			if (ids == null || !entries[id].isContentIndexed()
+					|| (i < ids.length && ids[i] == id)) {
+				files.add(entries[id].getFile());
+			}
+		}
+		return files;
+	}
+	
+	/**
+	 * Searches the literal in the candidate files, in parallel. The
+	 * search stops once the listener stops it.
+	 * 
+	 * @param literal - the text to find
+	 * @param listener - receives the matches and the errors
+	 * @return
+	 *    the number of the reported matches
+	 * @see {@link #findCandidates(String)}
+	 */
+	public long search(String literal, SearchListener listener) {
+		return FileSearcher.forLiteral(literal).search(
+				findCandidates(literal), listener);
+	}
+	
+	/**
+	 * Scans the directory tree and updates the index. A file is read
+	 * only if its size or last-modified time changed; if its hash did
+	 * not change either, its trigrams are reused.
+	 * 
+	 * <P>A file or a subdirectory which cannot be read is reported in 
+	 * {@link IndexChanges#getErrors()}: its previous entries are kept, 
+	 * or a new file is added without its content indexed, and it is 
+	 * read again by the next update.</P>
+	 * 
+	 * @return
+	 *    the changes since the last update
+	 * @throws IOException
+	 *    if the root cannot be listed, or the index cannot be written
+	 */
+	public synchronized IndexChanges update() throws IOException {
+		IndexChanges changes = new IndexChanges();
+		final Snapshot old = mSnapshot;
+		final IndexEntry [] oldEntries = old.mEntries;
+		
+		TreeMap<String, File> files = new TreeMap<String, File>();
+		File [] children = mRoot.listFiles();
+		if (children == null) {
+			throw new IOException("Failed to list the directory: " + mRoot);
+		}
+		listFiles(children, "", files, oldEntries, changes);
+		
+		final int count = files.size();
+		IndexEntry [] entries = new IndexEntry [count];
+		int [] reused = new int [oldEntries.length]; // old id -> new id
+		Arrays.fill(reused, -1);
+		
+		// finds the files to read; the metadata is taken before the 
+		// content, so a change during the scan is found by the next update
+		List<Integer> toScan = new ArrayList<Integer>();
+		String [] paths = files.keySet().toArray(new String [count]);
+		long [] sizes = new long [count];
+		long [] lastModifieds = new long [count];
+		for (int id = 0; id < count; id++) {
+			File file = files.get(paths[id]);
+			int oldId = findEntry(oldEntries, paths[id]);
+			sizes[id] = file.length();
+			lastModifieds[id] = file.lastModified();
+			
+			if (oldId >= 0 && oldEntries[oldId].getSize() == sizes[id]
+					&& oldEntries[oldId].getLastModified()
+					== lastModifieds[id]) {
+				entries[id] = oldEntries[oldId];
+				reused[oldId] = id;
+			} else {
+				toScan.add(id);
+			}
+		}
+		for (int oldId = 0, id = 0; oldId < oldEntries.length; oldId++) {
+			String path = oldEntries[oldId].getPath();
+			while (id < count && paths[id].compareTo(path) < 0) {
+				id++;
+			}
+			if (id >= count || !paths[id].equals(path)) {
+				changes.mRemoved.add(path);
+			}
+		}
+		
+		// reads the changed files in parallel
+		ContentScanner [] scanners = scan(files, paths, toScan, changes);
+		Map<Integer, long []> trigrams = new HashMap<Integer, long []>();
+		for (int i = 0; i < scanners.length; i++) {
+			int id = toScan.get(i);
+			File file = files.get(paths[id]);
+			ContentScanner scanner = scanners[i];
+			int oldId = findEntry(oldEntries, paths[id]);
+			
+			if (scanner == null) {
+				// unreadable: keeps the old entry, or else adds one 
+				// whose content is not indexed; both are stale
+				if (oldId >= 0) {
+					entries[id] = oldEntries[oldId];
+					reused[oldId] = id;
+				} else {
+					entries[id] = new IndexEntry(paths[id], file, -1, 
+							lastModifieds[id], FileHeader.NO_HEADER, 0, 
+							false);
+					changes.mAdded.add(paths[id]);
+				}
+				continue;
+			}
+			
+			entries[id] = new IndexEntry(paths[id], file, sizes[id],
+					lastModifieds[id], scanner.mHeader, scanner.mHash,
+					scanner.mTrigrams != null);
+			
+			if (oldId < 0) {
+				changes.mAdded.add(paths[id]);
+				trigrams.put(id, scanner.mTrigrams);
+			} else if (oldEntries[oldId].getHash() == scanner.mHash
+					&& oldEntries[oldId].isContentIndexed()
+					== (scanner.mTrigrams != null)) {
+				reused[oldId] = id; // only touched
+			} else {
+				changes.mModified.add(paths[id]);
+				trigrams.put(id, scanner.mTrigrams);
+			}
+		}
+		changes.mHashed = scanners.length - changes.mErrors.size();
+		
+		if (changes.isEmpty() && mIndexFile.exists()
+				&& !hasMetadataChange(oldEntries, entries)) {
+			return changes;
+		}
+		
+		// rebuilds the postings: the reused ones and the new ones
+		Map<Long, IntList> postings = new HashMap<Long, IntList>();
+		for (int row = 0; row < old.mTrigramCount; row++) {
+			long key = old.keyAt(row);
+			for (int oldId : old.readPostingAt(row)) {
+				if (reused[oldId] >= 0) {
+					posting(postings, key).add(reused[oldId]);
+				}
+			}
+		}
+		for (Entry<Integer, long []> entry : trigrams.entrySet()) {
+			if (entry.getValue() != null) {
+				for (long key : entry.getValue()) {
+					posting(postings, key).add(entry.getKey());
+				}
+			}
+		}
+		
+		write(entries, postings);
+		mSnapshot = load(mIndexFile);
+		return changes;
+	}
+	
+	private static boolean hasMetadataChange(IndexEntry [] oldEntries,
+			IndexEntry [] entries) {
+		if (oldEntries.length != entries.length) {
+			return true;
+		}
+		for (int i = 0; i < entries.length; i++) {
+			if (oldEntries[i] != entries[i]) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private static IntList posting(Map<Long, IntList> postings, long key) {
+		IntList list = postings.get(key);
+		if (list == null) {
+			list = new IntList();
+			postings.put(key, list);
+		}
+		return list;
+	}
+	
+	/** 
+	 * Lists the files of the tree, except the index file itself. The 
+	 * old entries of a subdirectory which cannot be listed are kept.
+	 */
+	private void listFiles(File [] children, String prefix,
+			Map<String, File> files, IndexEntry [] oldEntries, 
+			IndexChanges changes) {
+		for (File child : children) {
+			String path = prefix + child.getName();
+			if (child.isDirectory()) {
+				if (Files.isSymbolicLink(child.toPath())) {
+					continue;
+				}
+				File [] grandchildren = child.listFiles();
+				if (grandchildren != null) {
+					listFiles(grandchildren, path + "/", files, oldEntries,
+							changes);
+					continue;
+				}
+				changes.mErrors.put(path, new IOException(
+						"Failed to list the directory: " + child));
+				for (IndexEntry entry : oldEntries) {
+					if (entry.getPath().startsWith(path + "/")) {
+						files.put(entry.getPath(), entry.getFile());
+					}
+				}
+			} else if (!child.equals(mIndexFile)
+					&& !child.getName().endsWith(".tmp-index")) {
+				files.put(path, child);
+			}
+		}
+	}
+	
+	/**
+	 * Scans the files in parallel.
+	 * 
+	 * @return
+	 *    the scanners, or null for a file which cannot be read, whose 
+	 *  error is put into the changes
+	 */
+	private static ContentScanner [] scan(final Map<String, File> files,
+			final String [] paths, List<Integer> ids, IndexChanges changes) 
+			throws IOException {
+		ContentScanner [] scanners = new ContentScanner [ids.size()];
+		if (ids.isEmpty()) {
+			return scanners;
+		}
+		
+		ExecutorService executor = ThreadPools.newFixedDaemonPool(
+				"file-index", ThreadPools.getProcessorCount());
+		try {
+			List<Future<ContentScanner>> futures =
+					new ArrayList<Future<ContentScanner>>(ids.size());
+			for (final Integer id : ids) {
+				futures.add(executor.submit(new Callable<ContentScanner>() {
+					@Override
+					public ContentScanner call() throws IOException {
+						ContentScanner scanner = new ContentScanner();
+						scanner.scan(files.get(paths[id]), MAX_INDEXED_SIZE);
+						return scanner;
+					}
+				}));
+			}
+			for (int i = 0; i < scanners.length; i++) {
+				try {
+					scanners[i] = futures.get(i).get();
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					changes.mErrors.put(paths[ids.get(i)], 
+							cause instanceof IOException ? (IOException) cause
+							: new IOException(cause));
+				}
+			}
+			return scanners;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted", e);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	//-------------------------------------------------------------
+	// Storage
+	//-------------------------------------------------------------
+	
+	private void write(IndexEntry [] entries, Map<Long, IntList> postings)
+			throws IOException {
+		long [] keys = new long [postings.size()];
+		int n = 0;
+		for (Long key : postings.keySet()) {
+			keys[n++] = key;
+		}
+		Arrays.sort(keys);
+		
+		// encodes the postings first to know their positions
+		ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+		long [] positions = new long [keys.length];
+		int [] counts = new int [keys.length];
+		for (int i = 0; i < keys.length; i++) {
+			IntList list = postings.get(keys[i]);
+			list.sort();
+			positions[i] = encoded.size();
+			counts[i] = list.size();
+			int previous = 0;
+			for (int j = 0; j < list.size(); j++) {
+				writeVarint(encoded, list.get(j) - previous);
+				previous = list.get(j);
+			}
+		}
+		
+		File temp = new File(mIndexFile.getPath() + ".tmp-index");
+		File parent = mIndexFile.getAbsoluteFile().getParentFile();
+		if (parent != null && !parent.exists() && !parent.mkdirs()) {
+			throw new IOException("Failed to create the directory: " +
+					parent);
+		}
+		
+		DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(temp)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(entries.length);
+			out.writeInt(keys.length);
+			for (IndexEntry entry : entries) {
+				byte [] path = entry.getPath().getBytes(StandardCharsets.UTF_8);
+				out.writeShort(path.length);
+				out.write(path);
+				out.writeLong(entry.getSize());
+				out.writeLong(entry.getLastModified());
+				out.writeByte(entry.getHeader().ordinal());
+				out.writeLong(entry.getHash());
+				out.writeBoolean(entry.isContentIndexed());
+			}
+			for (int i = 0; i < keys.length; i++) {
+				out.writeLong(keys[i]);
+				out.writeLong(positions[i]);
+				out.writeInt(counts[i]);
+			}
+			encoded.writeTo(out);
+		} finally {
+			out.close();
+		}
+		
+		// replaces the old index at once; the old snapshot stays 
+		// published until the new one is loaded
+		try {
+			Files.move(temp.toPath(), mIndexFile.toPath(),
+					StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			temp.delete();
+			throw e;
+		}
+	}
+	
+	private Snapshot load(File file) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		MappedByteBuffer map;
+		try {
+			map = raf.getChannel().map(FileChannel.MapMode.READ_ONLY,
+					0, raf.length());
+		} finally {
+			raf.close();
+		}
+		
+		if (map.capacity() < 16 || map.getInt(0) != MAGIC
+				|| map.getInt(4) != VERSION) {
+			throw new IOException("Not an index file: " + file);
+		}
+		
+		int count = map.getInt(8);
+		int trigramCount = map.getInt(12);
+		IndexEntry [] entries = new IndexEntry [count];
+		FileHeader [] headers = FileHeader.values();
+		
+		map.position(16);
+		for (int id = 0; id < count; id++) {
+			byte [] utf = new byte [map.getShort() & 0xFFFF];
+			map.get(utf);
+			String path = new String(utf, StandardCharsets.UTF_8);
+			long size = map.getLong();
+			long lastModified = map.getLong();
+			FileHeader header = headers[map.get()];
+			long hash = map.getLong();
+			boolean indexed = map.get() != 0;
+			entries[id] = new IndexEntry(path, new File(mRoot, path),
+					size, lastModified, header, hash, indexed);
+		}
+		
+		return new Snapshot(entries, map, trigramCount, map.position());
+	}
+	
+	private static void writeVarint(OutputStream out, int value)
+			throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.write((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.write(value);
+	}
+	
+	private static int [] intersect(int [] a, int [] b) {
+		int [] result = new int [Math.min(a.length, b.length)];
+		int i = 0, j = 0, n = 0;
+		while (i < a.length && j < b.length) {
+			if (a[i] < b[j]) {
+				i++;
+			} else if (a[i] > b[j]) {
+				j++;
+			} else {
+				result[n++] = a[i];
+				i++;
+				j++;
+			}
+		}
+		return Arrays.copyOf(result, n);
+	}
+	
+	private static int findEntry(IndexEntry [] entries, String path) {
+		int low = 0, high = entries.length - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int compare = entries[mid].getPath().compareTo(path);
+			if (compare < 0) {
+				low = mid + 1;
+			} else if (compare > 0) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -1;
+	}
+	
+	/** 
+	 * The entries and the mapped postings of a loaded index, which are 
+	 * never changed; only the absolute reads are used on the map, so it 
+	 * is shared by the threads. The mapping is released by the GC.
+	 */
+	private static class Snapshot {
+		static final Snapshot EMPTY = new Snapshot(
+				new IndexEntry [0], null, 0, 0);
+		
+		/** The entries sorted by the path; the index is the entry id */
+		final IndexEntry [] mEntries;
+		
+		/** The mapped index file, or null if it is empty */
+		final MappedByteBuffer mMap;
+		
+		/** The number of the rows of the trigram table */
+		final int mTrigramCount;
+		
+		/** The position of the trigram table in the map */
+		final int mTableOffset;
+		
+		/** The position of the postings in the map */
+		final int mPostingsOffset;
+		
+		Snapshot(IndexEntry [] entries, MappedByteBuffer map, 
+				int trigramCount, int tableOffset) {
+			this.mEntries = entries;
+			this.mMap = map;
+			this.mTrigramCount = trigramCount;
+			this.mTableOffset = tableOffset;
+			this.mPostingsOffset = tableOffset + trigramCount * TABLE_ROW;
+		}
+		
+		long keyAt(int row) {
+			return mMap.getLong(mTableOffset + row * TABLE_ROW);
+		}
+		
+		int [] readPosting(long key) {
+			int low = 0, high = mTrigramCount - 1;
+			while (low <= high) {
+				int mid = (low + high) >>> 1;
+				long value = keyAt(mid);
+				if (value < key) {
+					low = mid + 1;
+				} else if (value > key) {
+					high = mid - 1;
+				} else {
+					return readPostingAt(mid);
+				}
+			}
+			return new int [0];
+		}
+		
+		int [] readPostingAt(int row) {
+			int base = mTableOffset + row * TABLE_ROW;
+			int position = mPostingsOffset + (int) mMap.getLong(base + 8);
+			int [] ids = new int [mMap.getInt(base + 16)];
+			int previous = 0;
+			
+			for (int i = 0; i < ids.length; i++) {
+				int value = 0, shift = 0;
+				byte b;
+				do {
+					b = mMap.get(position++);
+					value |= (b & 0x7F) << shift;
+					shift += 7;
+				} while (b < 0);
+				previous += value;
+				ids[i] = previous;
+			}
+			return ids;
+		}
+	}
+	
+	/** A growable array of the primitive ints. */
+	private static class IntList {
+		private int [] mValues = new int [4];
+		private int mSize;
+		
+		void add(int value) {
+			if (mSize == mValues.length) {
+				mValues = Arrays.copyOf(mValues, mSize * 2);
+			}
+			mValues[mSize++] = value;
+		}
+		
+		int get(int index) {
+			return mValues[index];
+		}
+		
+		int size() {
+			return mSize;
+		}
+		
+		void sort() {
+			Arrays.sort(mValues, 0, mSize);
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package idea.inspired.core.io.index;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The changes found by {@link FileIndex#update()}. Each list holds the 
+ * paths relative to the root.
+ * 
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+public class IndexChanges {
+	
+	final List<String> mAdded = new ArrayList<String>();
+	final List<String> mModified = new ArrayList<String>();
+	final List<String> mRemoved = new ArrayList<String>();
+	final Map<String, IOException> mErrors = 
+			new TreeMap<String, IOException>();
+	
+	/** The number of the files whose content are read and hashed */
+	int mHashed;
+	
+	/**
+	 * Returns the files which are new to the index.
+	 * @return
+	 */
+	public List<String> getAdded() {
+		return Collections.unmodifiableList(mAdded);
+	}
+	
+	/**
+	 * Returns the files whose content are changed.
+	 * @return
+	 */
+	public List<String> getModified() {
+		return Collections.unmodifiableList(mModified);
+	}
+	
+	/**
+	 * Returns the files which no longer exist.
+	 * @return
+	 */
+	public List<String> getRemoved() {
+		return Collections.unmodifiableList(mRemoved);
+	}
+	
+	/**
+	 * Returns the files and the directories which could not be read, 
+	 * with their errors. They are read again by the next update.
+	 * @return
+	 */
+	public Map<String, IOException> getErrors() {
+		return Collections.unmodifiableMap(mErrors);
+	}
+	
+	/**
+	 * Returns the number of the files which were read during the 
+	 * update, i.e. whose size or last-modified time changed.
+	 * @return
+	 */
+	public int getHashedCount() {
+		return mHashed;
+	}
+	
+	/**
+	 * Returns true if there is no change.
+	 * @return
+	 */
+	public boolean isEmpty() {
+		return mAdded.isEmpty() && mModified.isEmpty() && mRemoved.isEmpty();
+	}
+	
+	@Override
+	public String toString() {
+		return "added: " + mAdded.size() + ", modified: " + 
+				mModified.size() + ", removed: " + mRemoved.size() + 
+				", failed: " + mErrors.size();
+	}
+}
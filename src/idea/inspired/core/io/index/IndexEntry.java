@@ -0,0 +1,110 @@
+package idea.inspired.core.io.index;
+
+import idea.inspired.core.io.FileHeader;
+
+import java.io.File;
+
+/**
+ * The metadata of a file recorded in {@link FileIndex}.
+ * 
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+public class IndexEntry {
+	
+	/** The path relative to the root, separated by '/' */
+	private final String mPath;
+	
+	/** The file */
+	private final File mFile;
+	
+	/** The size of the file in bytes */
+	private final long mSize;
+	
+	/** The last-modified time of the file */
+	private final long mLastModified;
+	
+	/** The header detected by {@link FileHeader} */
+	private final FileHeader mHeader;
+	
+	/** The hash of the content */
+	private final long mHash;
+	
+	/** Whether the trigrams of the content are indexed or not */
+	private final boolean mContentIndexed;
+	
+	IndexEntry(String path, File file, long size, long lastModified, 
+			FileHeader header, long hash, boolean contentIndexed) {
+		this.mPath = path;
+		this.mFile = file;
+		this.mSize = size;
+		this.mLastModified = lastModified;
+		this.mHeader = header;
+		this.mHash = hash;
+		this.mContentIndexed = contentIndexed;
+	}
+	
+	/**
+	 * Returns the path relative to the root, separated by '/'.
+	 * @return
+	 */
+	public String getPath() {
+		return this.mPath;
+	}
+	
+	/**
+	 * Returns the file.
+	 * @return
+	 */
+	public File getFile() {
+		return this.mFile;
+	}
+	
+	/**
+	 * Returns the size of the file in bytes.
+	 * @return
+	 */
+	public long getSize() {
+		return this.mSize;
+	}
+	
+	/**
+	 * Returns the last-modified time of the file.
+	 * @return
+	 * @see {@link File#lastModified()}
+	 */
+	public long getLastModified() {
+		return this.mLastModified;
+	}
+	
+	/**
+	 * Returns the header detected by {@link FileHeader}.
+	 * @return
+	 */
+	public FileHeader getHeader() {
+		return this.mHeader;
+	}
+	
+	/**
+	 * Returns the hash of the content.
+	 * @return
+	 */
+	public long getHash() {
+		return this.mHash;
+	}
+	
+	/**
+	 * Returns true if the trigrams of the content are indexed. A file 
+	 * larger than {@link FileIndex#MAX_INDEXED_SIZE} is not, and it is 
+	 * always a candidate of the searches.
+	 * @return
+	 */
+	public boolean isContentIndexed() {
+		return this.mContentIndexed;
+	}
+	
+	@Override
+	public String toString() {
+		return mPath + " (" + mSize + " bytes, " + mHeader + ")";
+	}
+}
@@ -0,0 +1,20 @@
+package idea.inspired.core.io.schedule;
+
+/**
+ * The classes of the IO jobs scheduled by {@link IoScheduler}, from the
+ * highest priority to the lowest.
+ *
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+public enum IoPriority {
+	
+	/** The latency-sensitive jobs, e.g. reading a file for a user */
+	INTERACTIVE,
+	
+	/** The ordinary jobs, e.g. writing a file */
+	NORMAL,
+	
+	/** The throughput jobs, e.g. copying a directory tree */
+	BULK
+}
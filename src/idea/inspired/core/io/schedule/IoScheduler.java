@@ -0,0 +1,371 @@
+package idea.inspired.core.io.schedule;
+
+import java.io.Closeable;
+import java.io.InterruptedIOException;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <P>Coordinates the IO jobs of a process. A job acquires a
+ * {@link Ticket} before it opens a file and closes it after the file is
+ * closed, and reports the bytes it transfers by
+ * {@link Ticket#throttle(long)}.</P>
+ *
+ * <UL>
+ *    <LI>At most {@link #getMaxOpenFiles()} tickets are held at the same
+ *        time, and the last one is kept for the
+ *        {@link IoPriority#INTERACTIVE} jobs. The waiting jobs are
+ *        started by priority, and in the order of arrival within a
+ *        priority.</LI>
+ *    <LI>Each priority may have a bandwidth limit, enforced by a token
+ *        bucket which allows a burst of one second.</LI>
+ *    <LI>A job yields to the running jobs of the higher priorities, for
+ *        up to {@value #MAX_YIELD_MILLIS} ms per throttle, so the
+ *        interactive reads preempt the bulk copies without starving
+ *        them.</LI>
+ * </UL>
+ *
+ * <P>The time waited in the queue is recorded per priority, see
+ * {@link #getStats(IoPriority)}.</P>
+ *
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ * @see {@link idea.inspired.core.io.FileManager#setScheduler(IoScheduler)}
+ */
+public class IoScheduler {
+	
+	/** The longest time a job yields to the higher priorities at once */
+	public static final long MAX_YIELD_MILLIS = 10;
+	
+	/** The ticket of the unscheduled jobs, which does nothing */
+	public static final Ticket UNSCHEDULED = new Ticket(null, null, 0);
+	
+	/** The priority of the jobs of the current thread */
+	private static final ThreadLocal<IoPriority> CURRENT_PRIORITY =
+			new ThreadLocal<IoPriority>();
+	
+	private final int mMaxOpenFiles;
+	
+	private final ReentrantLock mLock = new ReentrantLock();
+	private final Condition mChanged = mLock.newCondition();
+	
+	/** The waiting jobs; guarded by mLock */
+	private final PriorityQueue<Waiter> mQueue = new PriorityQueue<Waiter>();
+	private long mSequence;
+	private int mOpenFiles;
+	private final int [] mActive = new int [IoPriority.values().length];
+	
+	/** The bandwidth limits, or null if unlimited; guarded by mLock */
+	private final TokenBucket [] mBuckets =
+			new TokenBucket [IoPriority.values().length];
+	
+	/** The metrics of each priority; guarded by mLock */
+	private final long [] mCounts = new long [IoPriority.values().length];
+	private final long [] mTotalWait = new long [IoPriority.values().length];
+	private final long [] mMaxWait = new long [IoPriority.values().length];
+	private final long [] mBytes = new long [IoPriority.values().length];
+	private final long [] mThrottled = new long [IoPriority.values().length];
+	
+	/**
+	 * Creates a scheduler.
+	 *
+	 * @param maxOpenFiles - the maximum number of the tickets held at
+	 *    the same time
+	 */
+	public IoScheduler(int maxOpenFiles) {
+		if (maxOpenFiles <= 0) {
+			throw new IllegalArgumentException(
+					"The maxOpenFiles should be a positive number");
+		}
+		this.mMaxOpenFiles = maxOpenFiles;
+	}
+	
+	public int getMaxOpenFiles() {
+		return mMaxOpenFiles;
+	}
+	
+	/**
+	 * Limits the bandwidth of the priority.
+	 *
+	 * @param priority
+	 * @param bytesPerSecond - the limit, or 0 for no limit
+	 */
+	public void setBandwidthLimit(IoPriority priority, long bytesPerSecond) {
+		if (bytesPerSecond < 0) {
+			throw new IllegalArgumentException(
+					"The bytesPerSecond should not be negative");
+		}
+		mLock.lock();
+		try {
+			mBuckets[priority.ordinal()] = bytesPerSecond == 0 ? null
+					: new TokenBucket(bytesPerSecond);
+		} finally {
+			mLock.unlock();
+		}
+	}
+	
+	/**
+	 * Sets the priority of the jobs started by the current thread
+	 * without a priority, e.g. through
+	 * {@link idea.inspired.core.io.FileManager}.
+	 *
+	 * @param priority - the priority, or null to use the default one of
+	 *    each job
+	 * @return
+	 *    the previous priority, to be restored later
+	 */
+	public static IoPriority setCurrentPriority(IoPriority priority) {
+		IoPriority previous = CURRENT_PRIORITY.get();
+		if (priority == null) {
+			CURRENT_PRIORITY.remove();
+		} else {
+			CURRENT_PRIORITY.set(priority);
+		}
+		return previous;
+	}
+	
+	/**
+	 * Returns the priority set by {@link #setCurrentPriority}, or the
+	 * default one.
+	 *
+	 * @param defaultPriority
+	 * @return
+	 */
+	public static IoPriority getCurrentPriority(IoPriority defaultPriority) {
+		IoPriority priority = CURRENT_PRIORITY.get();
+		return priority != null ? priority : defaultPriority;
+	}
+	
+	/**
+	 * Waits for a free slot, and then starts the job.
+	 *
+	 * @param priority
+	 * @return
+	 *    the ticket, which should be closed when the job ends
+	 * @throws InterruptedIOException if the thread is interrupted
+	 */
+	public Ticket acquire(IoPriority priority) throws InterruptedIOException {
+		int index = priority.ordinal();
+		long start = System.nanoTime();
+		
+		mLock.lock();
+		try {
+			Waiter waiter = new Waiter(index, mSequence++);
+			mQueue.add(waiter);
+			try {
+				while (mQueue.peek() != waiter
+						|| mOpenFiles >= getLimit(index)) {
+					mChanged.await();
+				}
+			} catch (InterruptedException e) {
+				mQueue.remove(waiter);
+				mChanged.signalAll();
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted in the queue");
+			}
+			mQueue.poll();
+			mOpenFiles++;
+			mActive[index]++;
+			
+			long wait = System.nanoTime() - start;
+			mCounts[index]++;
+			mTotalWait[index] += wait;
+			mMaxWait[index] = Math.max(mMaxWait[index], wait);
+			
+			// the next waiter may also have a free slot
+			mChanged.signalAll();
+		} finally {
+			mLock.unlock();
+		}
+		return new Ticket(this, priority, start);
+	}
+	
+	/**
+	 * Returns the metrics of the priority.
+	 *
+	 * @param priority
+	 * @return
+	 */
+	public IoStats getStats(IoPriority priority) {
+		int index = priority.ordinal();
+		mLock.lock();
+		try {
+			return new IoStats(priority, mCounts[index], mTotalWait[index],
+					mMaxWait[index], mBytes[index], mThrottled[index]);
+		} finally {
+			mLock.unlock();
+		}
+	}
+	
+	private void release(IoPriority priority) {
+		mLock.lock();
+		try {
+			mOpenFiles--;
+			mActive[priority.ordinal()]--;
+			mChanged.signalAll();
+		} finally {
+			mLock.unlock();
+		}
+	}
+	
+	private void throttle(IoPriority priority, long bytes)
+			throws InterruptedIOException {
+		int index = priority.ordinal();
+		long start = System.nanoTime();
+		TokenBucket bucket;
+		
+		try {
+			// yields to the higher priorities
+			mLock.lock();
+			try {
+				bucket = mBuckets[index];
+				long remaining = TimeUnit.MILLISECONDS.toNanos(
+						MAX_YIELD_MILLIS);
+				while (remaining > 0 && hasHigherPriority(index)) {
+					remaining = mChanged.awaitNanos(remaining);
+				}
+			} finally {
+				mLock.unlock();
+			}
+			
+			if (bucket != null) {
+				long delay = bucket.take(bytes);
+				if (delay > 0) {
+					TimeUnit.NANOSECONDS.sleep(delay);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while throttled");
+		}
+		
+		mLock.lock();
+		try {
+			mBytes[index] += bytes;
+			mThrottled[index] += System.nanoTime() - start;
+		} finally {
+			mLock.unlock();
+		}
+	}
+	
+	/**
+	 * Returns the number of the slots the priority may fill.
+	 */
+	private int getLimit(int index) {
+		return index == 0 || mMaxOpenFiles == 1 ? mMaxOpenFiles
+				: mMaxOpenFiles - 1;
+	}
+	
+	/**
+	 * Returns true if a job of a higher priority is running. The waiting
+	 * ones are not counted, since they may be waiting for the slot of
+	 * the caller.
+	 */
+	private boolean hasHigherPriority(int index) {
+		for (int i = 0; i < index; i++) {
+			if (mActive[i] > 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/** A job held by the scheduler. */
+	public static class Ticket implements Closeable {
+		private final IoScheduler mScheduler;
+		private final IoPriority mPriority;
+		private final long mStart;
+		private boolean mClosed;
+		
+		private Ticket(IoScheduler scheduler, IoPriority priority,
+				long start) {
+			this.mScheduler = scheduler;
+			this.mPriority = priority;
+			this.mStart = start;
+		}
+		
+		/**
+		 * Reports the bytes about to be transferred, and waits for the
+		 * bandwidth limit and the jobs of the higher priorities.
+		 *
+		 * @param bytes
+		 * @throws InterruptedIOException if the thread is interrupted
+		 */
+		public void throttle(long bytes) throws InterruptedIOException {
+			if (mScheduler != null && bytes > 0) {
+				mScheduler.throttle(mPriority, bytes);
+			}
+		}
+		
+		/**
+		 * Returns the time since the job was queued.
+		 * @return
+		 */
+		public long getElapsedNanos() {
+			return System.nanoTime() - mStart;
+		}
+		
+		/**
+		 * Ends the job and frees its slot.
+		 */
+		@Override
+		public synchronized void close() {
+			if (mScheduler != null && !mClosed) {
+				mClosed = true;
+				mScheduler.release(mPriority);
+			}
+		}
+	}
+	
+	/** A job in the queue, ordered by priority and then arrival. */
+	private static class Waiter implements Comparable<Waiter> {
+		private final int mPriority;
+		private final long mSequence;
+		
+		Waiter(int priority, long sequence) {
+			this.mPriority = priority;
+			this.mSequence = sequence;
+		}
+		
+		@Override
+		public int compareTo(Waiter other) {
+			if (mPriority != other.mPriority) {
+				return mPriority < other.mPriority ? -1 : 1;
+			}
+			return mSequence < other.mSequence ? -1
+					: mSequence > other.mSequence ? 1 : 0;
+		}
+	}
+	
+	/**
+	 * A token bucket of the bytes. A large request takes the tokens in
+	 * advance, and the caller sleeps until the debt is paid.
+	 */
+	private static class TokenBucket {
+		private final long mRate;
+		private double mTokens;
+		private long mLastRefill = System.nanoTime();
+		
+		TokenBucket(long bytesPerSecond) {
+			this.mRate = bytesPerSecond;
+			this.mTokens = bytesPerSecond;
+		}
+		
+		/**
+		 * Takes the tokens.
+		 *
+		 * @return
+		 *    the nanoseconds to sleep before the transfer
+		 */
+		synchronized long take(long bytes) {
+			long now = System.nanoTime();
+			mTokens = Math.min(mRate,
+					mTokens + (now - mLastRefill) * (double) mRate / 1e9);
+			mLastRefill = now;
+			mTokens -= bytes;
+			return mTokens >= 0 ? 0 : (long) (-mTokens * 1e9 / mRate);
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package idea.inspired.core.io.schedule;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A snapshot of the metrics of a priority of {@link IoScheduler}.
+ *
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+public class IoStats {
+	
+	private final IoPriority mPriority;
+	private final long mCount;
+	private final long mTotalWaitNanos;
+	private final long mMaxWaitNanos;
+	private final long mBytes;
+	private final long mThrottleNanos;
+	
+	IoStats(IoPriority priority, long count, long totalWaitNanos,
+			long maxWaitNanos, long bytes, long throttleNanos) {
+		this.mPriority = priority;
+		this.mCount = count;
+		this.mTotalWaitNanos = totalWaitNanos;
+		this.mMaxWaitNanos = maxWaitNanos;
+		this.mBytes = bytes;
+		this.mThrottleNanos = throttleNanos;
+	}
+	
+	public IoPriority getPriority() {
+		return mPriority;
+	}
+	
+	/**
+	 * Returns the number of the jobs which have been started.
+	 * @return
+	 */
+	public long getCount() {
+		return mCount;
+	}
+	
+	/**
+	 * Returns the total time the jobs waited in the queue.
+	 * @return
+	 */
+	public long getTotalWaitNanos() {
+		return mTotalWaitNanos;
+	}
+	
+	/**
+	 * Returns the longest time a job waited in the queue.
+	 * @return
+	 */
+	public long getMaxWaitNanos() {
+		return mMaxWaitNanos;
+	}
+	
+	/**
+	 * Returns the average time a job waited in the queue.
+	 * @return
+	 */
+	public double getAverageWaitMillis() {
+		return mCount == 0 ? 0 : (double) mTotalWaitNanos / mCount
+				/ TimeUnit.MILLISECONDS.toNanos(1);
+	}
+	
+	/**
+	 * Returns the number of the bytes transferred.
+	 * @return
+	 */
+	public long getBytes() {
+		return mBytes;
+	}
+	
+	/**
+	 * Returns the total time the jobs were delayed by the bandwidth
+	 * limit or by the jobs of the higher priorities.
+	 * @return
+	 */
+	public long getThrottleNanos() {
+		return mThrottleNanos;
+	}
+	
+	@Override
+	public String toString() {
+		return mPriority + ": jobs: " + mCount + ", avg wait: " +
+				String.format("%.3f", getAverageWaitMillis()) + " ms" +
+				", max wait: " + mMaxWaitNanos / 1000000 + " ms" +
+				", bytes: " + mBytes + ", throttled: " +
+				mThrottleNanos / 1000000 + " ms";
+	}
+}
@@ -0,0 +1,71 @@
+package idea.inspired.core.io.search;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The Boyer-Moore-Horspool algorithm to find a byte sequence in a 
+ * {@link ByteBuffer}.
+ * 
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ * @see <a href="http://en.wikipedia.org/wiki/Boyer%E2%80%93Moore%E2%80%93Horspool_algorithm">Boyer-Moore-Horspool algorithm</a>
+ */
+class BoyerMooreHorspool {
+	
+	/** The byte sequence to find */
+	private final byte [] mPattern;
+	
+	/** The distance to shift for each value of the last byte */
+	private final int [] mShift = new int [256];
+	
+	BoyerMooreHorspool(byte [] pattern) {
+		if (pattern.length == 0) {
+			throw new IllegalArgumentException(
+					"The pattern can not be empty");
+		}
+		this.mPattern = pattern;
+		
+		int last = pattern.length - 1;
+		for (int i = 0; i < mShift.length; i++) {
+			mShift[i] = pattern.length;
+		}
+		for (int i = 0; i < last; i++) {
+			mShift[pattern[i] & 0xFF] = last - i;
+		}
+	}
+	
+	/**
+	 * Returns the length of the pattern.
+	 * @return
+	 */
+	int length() {
+		return mPattern.length;
+	}
+	
+	/**
+	 * Finds the pattern in the buffer within [from, limit).
+	 * 
+	 * @param buffer - the buffer to search, accessed with the absolute 
+	 *    indexes
+	 * @param from - the index to start from
+	 * @param limit - the index to end at (exclusive)
+	 * @return
+	 *    the index of the first match, or -1 if not found
+	 */
+	int indexOf(ByteBuffer buffer, int from, int limit) {
+		byte [] pattern = mPattern;
+		int last = pattern.length - 1;
+		
+		for (int i = from; i + last < limit; 
+				i += mShift[buffer.get(i + last) & 0xFF]) {
+			int j = last;
+			while (buffer.get(i + j) == pattern[j]) {
+				if (j == 0) {
+					return i;
+				}
+				j--;
+			}
+		}
+		return -1;
+	}
+}
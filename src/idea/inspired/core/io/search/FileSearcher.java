@@ -0,0 +1,593 @@
+package idea.inspired.core.io.search;
+
+import idea.inspired.core.io.FileHeader;
+import idea.inspired.core.util.DirectBuffers;
+import idea.inspired.core.util.ThreadPools;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <P>Searches the text in a directory tree, like grep. The directories
+ * are traversed in parallel, and each file is searched as bytes: a
+ * small file is read into a buffer of the thread, and a larger one is
+ * mapped into memory window by window, so it is never loaded as a
+ * whole.</P>
+ * 
+ * <P>The charset of each file is detected by {@link FileHeader}. A
+ * literal text is encoded with the charset and found by the
+ * Boyer-Moore-Horspool algorithm; a regular expression is applied to
+ * each decoded line.</P>
+ * 
+ * <PRE>
+ *    FileSearcher searcher = FileSearcher.forLiteral("TODO");
+ *    searcher.setMaxMatches(100);
+ *    searcher.search(new File("src"), listener);
+ * </PRE>
+ * 
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+public class FileSearcher {
+	
+	/** The default size of the mapped window, i.e. 256 MB */
+	public static final int DEFAULT_WINDOW_SIZE = 256 << 20;
+	
+	/** The maximum number of the bytes of a reported line */
+	public static final int MAX_LINE_BYTES = 4096;
+	
+	/** 
+	 * The files up to this size, i.e. 1 MB, are read into a buffer 
+	 * instead of being mapped 
+	 */
+	private static final int MAX_READ_SIZE = 1 << 20;
+	
+	/** The buffer of each thread to read the small files */
+	private static final ThreadLocal<ByteBuffer> sReadBuffers = 
+			new ThreadLocal<ByteBuffer>();
+	
+	/** The literal text to find, or null for the regular expression */
+	private final String mLiteral;
+	
+	/** The regular expression to find, or null for the literal text */
+	private final Pattern mPattern;
+	
+	/** Selects the files to search, or null for all the files */
+	private FileFilter mFilter;
+	
+	/** The maximum number of the matches to report */
+	private long mMaxMatches = Long.MAX_VALUE;
+	
+	/** The number of the threads to search */
+	private int mParallelism = ThreadPools.getProcessorCount();
+	
+	/** The size of the mapped window */
+	private int mWindowSize = DEFAULT_WINDOW_SIZE;
+	
+	private FileSearcher(String literal, Pattern pattern) {
+		this.mLiteral = literal;
+		this.mPattern = pattern;
+	}
+	
+	/**
+	 * Creates a searcher to find the literal text.
+	 * 
+	 * @param literal - the non-empty text to find
+	 * @return
+	 */
+	public static FileSearcher forLiteral(String literal) {
+		if (literal == null || literal.length() == 0) {
+			throw new IllegalArgumentException(
+					"The literal can not be empty");
+		}
+		return new FileSearcher(literal, null);
+	}
+	
+	/**
+	 * Creates a searcher to find the regular expression in each line.
+	 * 
+	 * @param pattern - the regular expression to find
+	 * @return
+	 */
+	public static FileSearcher forRegex(Pattern pattern) {
+		if (pattern == null) {
+			throw new IllegalArgumentException(
+					"The pattern can not be null");
+		}
+		return new FileSearcher(null, pattern);
+	}
+	
+	/**
+	 * Creates a searcher to find the regular expression in each line.
+	 * 
+	 * @param regex - the regular expression to find
+	 * @return
+	 */
+	public static FileSearcher forRegex(String regex) {
+		return forRegex(Pattern.compile(regex));
+	}
+	
+	/**
+	 * Sets the filter to select the files to search.
+	 * 
+	 * @param filter - the filter, or null to search all the files
+	 */
+	public void setFileFilter(FileFilter filter) {
+		this.mFilter = filter;
+	}
+	
+	/**
+	 * Sets the maximum number of the matches to report. The search
+	 * stops when the number is reached.
+	 * 
+	 * @param maxMatches
+	 */
+	public void setMaxMatches(long maxMatches) {
+		if (maxMatches <= 0) {
+			throw new IllegalArgumentException(
+					"The maxMatches should be a positive number");
+		}
+		this.mMaxMatches = maxMatches;
+	}
+	
+	/**
+	 * Sets the number of the threads to search.
+	 * 
+	 * @param parallelism
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism <= 0) {
+			throw new IllegalArgumentException(
+					"The parallelism should be a positive number");
+		}
+		this.mParallelism = parallelism;
+	}
+	
+	/**
+	 * Sets the size of the window mapped at a time. A larger file is
+	 * searched window by window.
+	 * 
+	 * @param windowSize
+	 */
+	public void setWindowSize(int windowSize) {
+		if (windowSize < 4) {
+			throw new IllegalArgumentException(
+					"The windowSize should be at least 4 bytes");
+		}
+		this.mWindowSize = windowSize;
+	}
+	
+	/**
+	 * Searches the file, or all the files in the directory tree. The
+	 * symbolic links to the directories are not followed.
+	 * 
+	 * @param root - the file or directory to search
+	 * @param listener - receives the matches and the errors
+	 * @return
+	 *    the number of the reported matches
+	 */
+	public long search(File root, SearchListener listener) {
+		final Run run = new Run(listener);
+		ForkJoinPool pool = new ForkJoinPool(mParallelism);
+		
+		try {
+			if (root.isDirectory()) {
+				pool.invoke(new DirectoryTask(root, run));
+			} else {
+				searchFile(root, run);
+			}
+		} finally {
+			pool.shutdown();
+		}
+		return run.mMatches.get();
+	}
+	
+	/**
+	 * Searches the files in parallel, e.g. the candidates found by an
+	 * index; the filter is applied to them too. The search stops for all
+	 * the files once the listener stops it.
+	 * 
+	 * @param files - the files to search
+	 * @param listener - receives the matches and the errors
+	 * @return
+	 *    the number of the reported matches
+	 */
+	public long search(List<File> files, SearchListener listener) {
+		final Run run = new Run(listener);
+		ForkJoinPool pool = new ForkJoinPool(mParallelism);
+		
+		try {
+			pool.invoke(new FilesTask(files, run));
+		} finally {
+			pool.shutdown();
+		}
+		return run.mMatches.get();
+	}
+	
+	//-------------------------------------------------------------
+	// Traversal
+	//-------------------------------------------------------------
+	
+	/** The state of one search. */
+	private class Run {
+		final SearchListener mListener;
+		final AtomicLong mMatches = new AtomicLong();
+		volatile boolean mStopped;
+		
+		Run(SearchListener listener) {
+			this.mListener = listener;
+		}
+		
+		/**
+		 * Reports the match to the listener.
+		 * @return
+		 *    true to continue searching
+		 */
+		boolean report(SearchMatch match) {
+			synchronized (mListener) {
+				if (mStopped) {
+					return false;
+				}
+				long count = mMatches.incrementAndGet();
+				if (!mListener.onMatch(match) || count >= mMaxMatches) {
+					mStopped = true;
+				}
+				return !mStopped;
+			}
+		}
+		
+		void error(File file, IOException e) {
+			synchronized (mListener) {
+				mListener.onError(file, e);
+			}
+		}
+	}
+	
+	/** Searches the files of a directory, and forks the subdirectories. */
+	private class DirectoryTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		private final File mDirectory;
+		private final Run mRun;
+		
+		DirectoryTask(File directory, Run run) {
+			this.mDirectory = directory;
+			this.mRun = run;
+		}
+		
+		@Override
+		protected void compute() {
+			File [] children = mDirectory.listFiles();
+			if (children == null) {
+				mRun.error(mDirectory, new IOException(
+						"Failed to list the directory: " + mDirectory));
+				return;
+			}
+			
+			List<RecursiveAction> tasks = new ArrayList<RecursiveAction>();
+			for (final File child : children) {
+				if (mRun.mStopped) {
+					break;
+				}
+				if (child.isDirectory()) {
+					if (!Files.isSymbolicLink(child.toPath())) {
+						tasks.add(new DirectoryTask(child, mRun));
+					}
+				} else if (mFilter == null || mFilter.accept(child)) {
+					tasks.add(new RecursiveAction() {
+						private static final long serialVersionUID = 1L;
+						
+						@Override
+						protected void compute() {
+							searchFile(child, mRun);
+						}
+					});
+				}
+			}
+			invokeAll(tasks);
+		}
+	}
+	
+	/** Searches the listed files. */
+	private class FilesTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		private final List<File> mFiles;
+		private final Run mRun;
+		
+		FilesTask(List<File> files, Run run) {
+			this.mFiles = files;
+			this.mRun = run;
+		}
+		
+		@Override
+		protected void compute() {
+			List<RecursiveAction> tasks = new ArrayList<RecursiveAction>();
+			for (final File file : mFiles) {
+				if (mFilter == null || mFilter.accept(file)) {
+					tasks.add(new RecursiveAction() {
+						private static final long serialVersionUID = 1L;
+						
+						@Override
+						protected void compute() {
+							searchFile(file, mRun);
+						}
+					});
+				}
+			}
+			invokeAll(tasks);
+		}
+	}
+	
+	//-------------------------------------------------------------
+	// Matching
+	//-------------------------------------------------------------
+	
+	private void searchFile(File file, Run run) {
+		if (run.mStopped) {
+			return;
+		}
+		
+		try {
+			RandomAccessFile raf = new RandomAccessFile(file, "r");
+			try {
+				searchChannel(file, raf.getChannel(), run);
+			} finally {
+				raf.close();
+			}
+		} catch (IOException e) {
+			run.error(file, e);
+		}
+	}
+	
+	private void searchChannel(File file, FileChannel channel, Run run)
+			throws IOException {
+		long size = channel.size();
+		if (size == 0) {
+			return;
+		}
+		
+		// detects the charset by the header bytes
+		ByteBuffer head = ByteBuffer.allocate(4);
+		int headLength = channel.read(head, 0);
+		FileHeader header = FileHeader.getHeader(head.array(),
+				Math.max(headLength, 0));
+		FileScan scan = new FileScan(file, header.getCharset(), run);
+		
+		long position = header.getHeaderLength();
+		if (size - position <= Math.min(mWindowSize, MAX_READ_SIZE)) {
+			// a small file is read at once, without a mapping per file
+			ByteBuffer buffer = read(channel, position, 
+					(int) (size - position));
+			scan.searchWindow(buffer, position, buffer.limit());
+			return;
+		}
+		
+		while (position < size && !run.mStopped) {
+			int length = (int) Math.min(mWindowSize, size - position);
+			MappedByteBuffer window = channel.map(
+					FileChannel.MapMode.READ_ONLY, position, length);
+			try {
+				// ends the window at a line separator, unless it is the 
+				// last one; a line longer than the window is cut at the 
+				// window end, so a match across the cut is not found
+				int limit = length;
+				if (position + length < size) {
+					int cut = scan.lastLineEnd(window, length);
+					limit = cut > 0 ? cut : length - length % scan.mUnit;
+				}
+				
+				scan.searchWindow(window, position, limit);
+				position += limit;
+			} finally {
+				// the matches hold the decoded text, not the window
+				DirectBuffers.free(window);
+			}
+		}
+	}
+	
+	/**
+	 * Reads the bytes into the buffer of the current thread.
+	 * 
+	 * @return
+	 *    the buffer, whose limit is the number of the bytes read, which 
+	 *  is less than the length if the file was truncated
+	 */
+	private static ByteBuffer read(FileChannel channel, long position, 
+			int length) throws IOException {
+		ByteBuffer buffer = sReadBuffers.get();
+		if (buffer == null || buffer.capacity() < length) {
+			buffer = ByteBuffer.allocate(Math.max(length, 64 * 1024));
+			sReadBuffers.set(buffer);
+		}
+		buffer.clear();
+		buffer.limit(length);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				break;
+			}
+		}
+		buffer.flip();
+		return buffer;
+	}
+	
+	/** The state of searching one file. */
+	private class FileScan {
+		final File mFile;
+		final Charset mCharset;
+		final Run mRun;
+		
+		/** The line separator encoded with the charset */
+		final byte [] mNewline;
+		
+		/** The size of a code unit, i.e. 1, 2 or 4 bytes */
+		final int mUnit;
+		
+		/** The literal encoded with the charset */
+		final BoyerMooreHorspool mLiteral;
+		
+		/** The number of the current line */
+		long mLineNumber = 1;
+		
+		FileScan(File file, Charset charset, Run run) {
+			this.mFile = file;
+			this.mCharset = charset;
+			this.mRun = run;
+			this.mNewline = "\n".getBytes(charset);
+			this.mUnit = mNewline.length;
+			this.mLiteral = FileSearcher.this.mLiteral != null
+					? new BoyerMooreHorspool(
+							FileSearcher.this.mLiteral.getBytes(charset))
+					: null;
+		}
+		
+		boolean isNewline(ByteBuffer window, int index) {
+			for (int i = 0; i < mUnit; i++) {
+				if (window.get(index + i) != mNewline[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+		
+		/** Returns the index after the last line separator, or -1. */
+		int lastLineEnd(ByteBuffer window, int length) {
+			for (int i = length - length % mUnit - mUnit; i >= 0;
+					i -= mUnit) {
+				if (isNewline(window, i)) {
+					return i + mUnit;
+				}
+			}
+			return -1;
+		}
+		
+		/** Returns the index of the next line separator, or the limit. */
+		int nextLineEnd(ByteBuffer window, int from, int limit) {
+			for (int i = from; i + mUnit <= limit; i += mUnit) {
+				if (isNewline(window, i)) {
+					return i;
+				}
+			}
+			return limit;
+		}
+		
+		String decode(ByteBuffer window, int from, int to) {
+			return mCharset.decode(sliceOf(window, from, to)).toString();
+		}
+		
+		void searchWindow(ByteBuffer window, long base, int limit) {
+			if (mLiteral != null) {
+				searchLiteral(window, base, limit);
+			} else {
+				searchRegex(window, base, limit);
+			}
+		}
+		
+		void searchLiteral(ByteBuffer window, long base, int limit) {
+			int lineStart = 0;
+			int scanned = 0; // the lines before it are counted
+			int lineEnd = -1; // the line separator after the last match
+			int index = 0;
+			
+			while (!mRun.mStopped) {
+				int found = mLiteral.indexOf(window, index, limit);
+				if (found < 0) {
+					break;
+				}
+				if (found % mUnit != 0) {
+					index = found + 1; // not at a character boundary
+					continue;
+				}
+				
+				// counts the lines before the match, once
+				for (int i = scanned; i + mUnit <= found; i += mUnit) {
+					if (isNewline(window, i)) {
+						mLineNumber++;
+						lineStart = i + mUnit;
+					}
+				}
+				scanned = found;
+				
+				// shows the line from the match if the line is too long
+				int textStart = found - lineStart > MAX_LINE_BYTES
+						? found : lineStart;
+				if (lineEnd < found) {
+					lineEnd = nextLineEnd(window, found, limit);
+				}
+				int textEnd = Math.min(lineEnd, textStart + MAX_LINE_BYTES);
+				SearchMatch match = new SearchMatch(mFile, mLineNumber,
+						base + found, decode(window, textStart, textEnd));
+				if (!mRun.report(match)) {
+					return;
+				}
+				index = found + mLiteral.length();
+			}
+			
+			// counts the rest lines of the window
+			for (int i = scanned; i + mUnit <= limit; i += mUnit) {
+				if (isNewline(window, i)) {
+					mLineNumber++;
+				}
+			}
+		}
+		
+		void searchRegex(ByteBuffer window, long base, int limit) {
+			int lineStart = 0;
+			
+			while (lineStart < limit && !mRun.mStopped) {
+				int lineEnd = nextLineEnd(window, lineStart, limit);
+				CharBuffer line = mCharset.decode(sliceOf(
+						window, lineStart, lineEnd));
+				Matcher matcher = mPattern.matcher(line);
+				String text = null;
+				
+				// the bytes before the previous match, encoded once
+				int encodedChars = 0;
+				long encodedBytes = 0;
+				
+				while (matcher.find()) {
+					if (text == null) {
+						text = line.toString();
+					}
+					encodedBytes += text.substring(encodedChars,
+							matcher.start()).getBytes(mCharset).length;
+					encodedChars = matcher.start();
+					long offset = base + lineStart + encodedBytes;
+					String shown = text.length() > MAX_LINE_BYTES
+							? text.substring(0, MAX_LINE_BYTES) : text;
+					if (!mRun.report(new SearchMatch(
+							mFile, mLineNumber, offset, shown))) {
+						return;
+					}
+				}
+				
+				if (lineEnd < limit) {
+					mLineNumber++;
+				}
+				lineStart = lineEnd + mUnit;
+			}
+		}
+		
+		ByteBuffer sliceOf(ByteBuffer window, int from, int to) {
+			ByteBuffer slice = window.duplicate();
+			slice.limit(to);
+			slice.position(from);
+			return slice;
+		}
+	}
+}
@@ -0,0 +1,32 @@
+package idea.inspired.core.io.search;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Receives the results of {@link FileSearcher}. The methods are never 
+ * called concurrently, so the implementation does not need to be 
+ * thread-safe.
+ * 
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+public interface SearchListener {
+	
+	/**
+	 * Called when a match is found.
+	 * 
+	 * @param match
+	 * @return
+	 *    true to continue searching; false to stop the search
+	 */
+	boolean onMatch(SearchMatch match);
+	
+	/**
+	 * Called when a file or directory could not be searched.
+	 * 
+	 * @param file
+	 * @param e
+	 */
+	void onError(File file, IOException e);
+}
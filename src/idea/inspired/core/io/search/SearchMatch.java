@@ -0,0 +1,70 @@
+package idea.inspired.core.io.search;
+
+import java.io.File;
+
+/**
+ * A match found by {@link FileSearcher}.
+ * 
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+public class SearchMatch {
+	
+	/** The file where the match is found */
+	private final File mFile;
+	
+	/** The line number of the match, starting from 1 */
+	private final long mLineNumber;
+	
+	/** The byte offset of the match in the file */
+	private final long mOffset;
+	
+	/** The line which contains the match, without the line separator */
+	private final String mLine;
+	
+	SearchMatch(File file, long lineNumber, long offset, String line) {
+		this.mFile = file;
+		this.mLineNumber = lineNumber;
+		this.mOffset = offset;
+		this.mLine = line;
+	}
+	
+	/**
+	 * Returns the file where the match is found.
+	 * @return
+	 */
+	public File getFile() {
+		return this.mFile;
+	}
+	
+	/**
+	 * Returns the line number of the match, starting from 1.
+	 * @return
+	 */
+	public long getLineNumber() {
+		return this.mLineNumber;
+	}
+	
+	/**
+	 * Returns the byte offset of the match in the file, including the 
+	 * header bytes.
+	 * @return
+	 */
+	public long getOffset() {
+		return this.mOffset;
+	}
+	
+	/**
+	 * Returns the line which contains the match, without the line 
+	 * separator. A very long line is truncated.
+	 * @return
+	 */
+	public String getLine() {
+		return this.mLine;
+	}
+	
+	@Override
+	public String toString() {
+		return mFile + ":" + mLineNumber + ":" + mLine;
+	}
+}
@@ -0,0 +1,58 @@
+package idea.inspired.core.io.watch;
+
+import java.nio.file.Path;
+
+/**
+ * A change of a file or directory reported by {@link FileWatcher}.
+ * 
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+public class FileChange {
+	
+	/** The kinds of the changes */
+	public enum Kind {
+		CREATED, 
+		MODIFIED, 
+		DELETED
+	}
+	
+	private final Path mPath;
+	private final Kind mKind;
+	private final boolean mDirectory;
+	
+	FileChange(Path path, Kind kind, boolean directory) {
+		this.mPath = path;
+		this.mKind = kind;
+		this.mDirectory = directory;
+	}
+	
+	/**
+	 * Returns the changed file or directory.
+	 * @return
+	 */
+	public Path getPath() {
+		return this.mPath;
+	}
+	
+	/**
+	 * Returns the kind of the change.
+	 * @return
+	 */
+	public Kind getKind() {
+		return this.mKind;
+	}
+	
+	/**
+	 * Returns true if the path is (or was, if deleted) a directory.
+	 * @return
+	 */
+	public boolean isDirectory() {
+		return this.mDirectory;
+	}
+	
+	@Override
+	public String toString() {
+		return mKind + " " + mPath;
+	}
+}
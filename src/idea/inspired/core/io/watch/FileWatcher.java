@@ -0,0 +1,424 @@
+package idea.inspired.core.io.watch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <P>Watches the directory trees for the changes, on top of the
+ * {@link WatchService}. The trees are registered recursively, and the
+ * new directories are registered when they are created.</P>
+ * 
+ * <P>The events are not reported one by one. They are collected until
+ * there is no event for the debounce window (or the maximum delay is
+ * reached), and then each changed path is compared with the metadata
+ * recorded last time, so a burst of events on the same file becomes
+ * one {@link FileChange}, and a file created and deleted in the same
+ * window is not reported at all. If the events overflowed, the trees
+ * are rescanned and compared with the recorded metadata.</P>
+ * 
+ * <P>All the events are handled on a single dispatcher thread, which
+ * also calls the {@link WatchListener}.</P>
+ * 
+ * <PRE>
+ *    FileWatcher watcher = new FileWatcher(listener);
+ *    watcher.register(Paths.get("conf"));
+ *    watcher.start();
+ *    ...
+ *    watcher.close();
+ * </PRE>
+ * 
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+public class FileWatcher implements Closeable {
+	
+	/** The default debounce window in milliseconds */
+	public static final long DEFAULT_DEBOUNCE_MILLIS = 200;
+	
+	/** The default maximum delay of a batch in milliseconds */
+	public static final long DEFAULT_MAX_DELAY_MILLIS = 2000;
+	
+	/** The metadata recorded for a path */
+	private static class Metadata {
+		final long mSize;
+		final long mLastModified;
+		final boolean mDirectory;
+		
+		Metadata(BasicFileAttributes attributes) {
+			this.mSize = attributes.size();
+			this.mLastModified = attributes.lastModifiedTime().toMillis();
+			this.mDirectory = attributes.isDirectory();
+		}
+		
+		boolean isModified(Metadata other) {
+			return mSize != other.mSize || mLastModified != other.mLastModified;
+		}
+	}
+	
+	private final WatchService mService;
+	private final WatchListener mListener;
+	private final long mDebounceMillis;
+	private final long mMaxDelayMillis;
+	
+	/** The watched directory of each key */
+	private final Map<WatchKey, Path> mKeys = new HashMap<WatchKey, Path>();
+	
+	/** The registered roots */
+	private final List<Path> mRoots = new ArrayList<Path>();
+	
+	/** The metadata of all the paths of the trees */
+	private final TreeMap<Path, Metadata> mSnapshot =
+			new TreeMap<Path, Metadata>();
+	
+	/** The paths with the events in the current window */
+	private final Set<Path> mPending = new HashSet<Path>();
+	
+	/** Whether the events overflowed in the current window */
+	private boolean mOverflowed;
+	
+	private Thread mThread;
+	private volatile boolean mClosed;
+	
+	/**
+	 * Creates a watcher with the default debounce window.
+	 * 
+	 * @param listener - receives the batches of the changes
+	 * @throws IOException
+	 */
+	public FileWatcher(WatchListener listener) throws IOException {
+		this(listener, DEFAULT_DEBOUNCE_MILLIS, DEFAULT_MAX_DELAY_MILLIS);
+	}
+	
+	/**
+	 * Creates a watcher.
+	 * 
+	 * @param listener - receives the batches of the changes
+	 * @param debounceMillis - a batch is reported when there is no
+	 *    event for this period
+	 * @param maxDelayMillis - a batch is reported when its first event
+	 *    is older than this period, even if the events keep coming
+	 * @throws IOException
+	 */
+	public FileWatcher(WatchListener listener, long debounceMillis,
+			long maxDelayMillis) throws IOException {
+		if (listener == null) {
+			throw new IllegalArgumentException(
+					"The listener can not be null");
+		}
+		if (debounceMillis < 0 || maxDelayMillis < debounceMillis) {
+			throw new IllegalArgumentException(
+					"Invalid debounce window or maximum delay");
+		}
+		this.mService = FileSystems.getDefault().newWatchService();
+		this.mListener = listener;
+		this.mDebounceMillis = debounceMillis;
+		this.mMaxDelayMillis = maxDelayMillis;
+	}
+	
+	/**
+	 * Registers the directory tree. The symbolic links to the
+	 * directories are not followed.
+	 * 
+	 * @param root - the root of the tree
+	 * @throws IOException
+	 */
+	public synchronized void register(Path root) throws IOException {
+		if (!Files.isDirectory(root)) {
+			throw new IOException("Not a directory: " + root);
+		}
+		root = root.toAbsolutePath().normalize();
+		mRoots.add(root);
+		walk(root, mSnapshot);
+	}
+	
+	/**
+	 * Starts the dispatcher thread.
+	 */
+	public synchronized void start() {
+		if (mThread != null) {
+			throw new IllegalStateException("The watcher has been started");
+		}
+		mThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				dispatch();
+			}
+		}, "file-watcher");
+		mThread.setDaemon(true);
+		mThread.start();
+	}
+	
+	/**
+	 * Stops the dispatcher thread and releases the watch service. The
+	 * pending changes are not reported.
+	 */
+	@Override
+	public void close() throws IOException {
+		mClosed = true;
+		mService.close();
+		
+		Thread thread;
+		synchronized (this) {
+			thread = mThread;
+		}
+		if (thread != null && thread != Thread.currentThread()) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+	
+	//-------------------------------------------------------------
+	// Dispatcher
+	//-------------------------------------------------------------
+	
+	private void dispatch() {
+		long firstEvent = 0, lastEvent = 0;
+		
+		try {
+			while (!mClosed) {
+				boolean idle = mPending.isEmpty() && !mOverflowed;
+				long timeout = idle ? Long.MAX_VALUE : Math.max(0, Math.min(
+						lastEvent + mDebounceMillis,
+						firstEvent + mMaxDelayMillis) - now());
+				
+				WatchKey key = idle ? mService.take()
+						: mService.poll(timeout, TimeUnit.MILLISECONDS);
+				while (key != null) {
+					if (idle) {
+						firstEvent = now();
+						idle = false;
+					}
+					lastEvent = now();
+					handle(key);
+					key = mService.poll();
+				}
+				
+				long now = now();
+				if ((!mPending.isEmpty() || mOverflowed)
+						&& (now - lastEvent >= mDebounceMillis
+						|| now - firstEvent >= mMaxDelayMillis)) {
+					report(flush());
+				}
+			}
+		} catch (ClosedWatchServiceException e) {
+			// closed by close()
+		} catch (InterruptedException e) {
+			// stops the dispatcher
+		}
+	}
+	
+	private static long now() {
+		return System.nanoTime() / 1000000;
+	}
+	
+	private void handle(WatchKey key) {
+		Path directory;
+		synchronized (this) {
+			directory = mKeys.get(key);
+		}
+		
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+				mOverflowed = true;
+				continue;
+			}
+			if (directory == null) {
+				continue;
+			}
+			
+			Path path = directory.resolve((Path) event.context());
+			mPending.add(path);
+			
+			// registers the new directory and finds its children, which
+			// may be created before the registration
+			if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE
+					&& Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+				Map<Path, Metadata> found = new TreeMap<Path, Metadata>();
+				try {
+					synchronized (this) {
+						walk(path, found);
+					}
+				} catch (IOException e) {
+					mOverflowed = true; // rescans later
+				}
+				mPending.addAll(found.keySet());
+			}
+		}
+		
+		if (!key.reset()) {
+			synchronized (this) {
+				mKeys.remove(key);
+			}
+			if (directory != null) {
+				mPending.add(directory);
+			}
+		}
+	}
+	
+	/**
+	 * Compares the pending paths (or all the paths, if overflowed) with
+	 * the recorded metadata, and updates the metadata.
+	 */
+	private synchronized List<FileChange> flush() {
+		TreeMap<Path, FileChange> changes = new TreeMap<Path, FileChange>();
+		
+		if (mOverflowed) {
+			TreeMap<Path, Metadata> current = new TreeMap<Path, Metadata>();
+			for (Path root : mRoots) {
+				try {
+					walk(root, current);
+				} catch (IOException e) {
+					// the root is gone; all its paths are deleted
+				}
+			}
+			for (Entry<Path, Metadata> entry : mSnapshot.entrySet()) {
+				compare(entry.getKey(), entry.getValue(),
+						current.get(entry.getKey()), changes);
+			}
+			for (Entry<Path, Metadata> entry : current.entrySet()) {
+				if (!mSnapshot.containsKey(entry.getKey())) {
+					compare(entry.getKey(), null, entry.getValue(), changes);
+				}
+			}
+			mSnapshot.clear();
+			mSnapshot.putAll(current);
+		} else {
+			for (Path path : mPending) {
+				Metadata old = mSnapshot.get(path);
+				Metadata now = stat(path);
+				compare(path, old, now, changes);
+				
+				if (now != null) {
+					mSnapshot.put(path, now);
+				} else if (old != null) {
+					mSnapshot.remove(path);
+					if (old.mDirectory) {
+						removeDescendants(path, changes);
+					}
+				}
+			}
+		}
+		
+		mPending.clear();
+		mOverflowed = false;
+		return new ArrayList<FileChange>(changes.values());
+	}
+	
+	private static void compare(Path path, Metadata old, Metadata now,
+			Map<Path, FileChange> changes) {
+		if (old == null && now != null) {
+			changes.put(path, new FileChange(
+					path, FileChange.Kind.CREATED, now.mDirectory));
+		} else if (old != null && now == null) {
+			changes.put(path, new FileChange(
+					path, FileChange.Kind.DELETED, old.mDirectory));
+		} else if (old != null && !now.mDirectory && old.isModified(now)) {
+			changes.put(path, new FileChange(
+					path, FileChange.Kind.MODIFIED, false));
+		}
+	}
+	
+	/** Deletes the recorded children of the deleted directory. */
+	private void removeDescendants(Path directory,
+			Map<Path, FileChange> changes) {
+		Iterator<Entry<Path, Metadata>> itr =
+				mSnapshot.entrySet().iterator();
+		while (itr.hasNext()) {
+			Entry<Path, Metadata> entry = itr.next();
+			Path path = entry.getKey();
+			if (path.startsWith(directory) && !path.equals(directory)
+					&& stat(path) == null) {
+				changes.put(path, new FileChange(path,
+						FileChange.Kind.DELETED, entry.getValue().mDirectory));
+				itr.remove();
+			}
+		}
+	}
+	
+	private void report(List<FileChange> changes) {
+		if (changes.isEmpty()) {
+			return;
+		}
+		try {
+			mListener.onChanges(changes);
+		} catch (RuntimeException e) {
+			// keeps the dispatcher alive
+			e.printStackTrace();
+		}
+	}
+	
+	//-------------------------------------------------------------
+	// Helpers
+	//-------------------------------------------------------------
+	
+	private static Metadata stat(Path path) {
+		try {
+			return new Metadata(Files.readAttributes(path,
+					BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS));
+		} catch (IOException e) {
+			return null; // does not exist
+		}
+	}
+	
+	/**
+	 * Walks the tree, registers the directories, and records the
+	 * metadata of all the paths. Every directory is registered again,
+	 * since a path in {@link #mKeys} may belong to a deleted directory
+	 * whose key is not removed yet, e.g. by "rm -rf d &amp;&amp; mkdir d";
+	 * a directory which is watched already returns its own key.
+	 */
+	private void walk(Path root, final Map<Path, Metadata> metadata)
+			throws IOException {
+		Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult preVisitDirectory(Path directory,
+					BasicFileAttributes attributes) throws IOException {
+				WatchKey key = directory.register(mService,
+						StandardWatchEventKinds.ENTRY_CREATE,
+						StandardWatchEventKinds.ENTRY_DELETE,
+						StandardWatchEventKinds.ENTRY_MODIFY);
+				mKeys.put(key, directory);
+				metadata.put(directory, new Metadata(attributes));
+				return FileVisitResult.CONTINUE;
+			}
+			
+			@Override
+			public FileVisitResult visitFile(Path file,
+					BasicFileAttributes attributes) {
+				metadata.put(file, new Metadata(attributes));
+				return FileVisitResult.CONTINUE;
+			}
+			
+			@Override
+			public FileVisitResult visitFileFailed(Path file,
+					IOException e) {
+				return FileVisitResult.CONTINUE; // deleted meanwhile
+			}
+		});
+	}
+}
@@ -0,0 +1,21 @@
+package idea.inspired.core.io.watch;
+
+import java.util.List;
+
+/**
+ * Receives the batches of the changes from {@link FileWatcher}. The 
+ * methods are called on the dispatcher thread of the watcher, so they 
+ * should return quickly.
+ * 
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+public interface WatchListener {
+	
+	/**
+	 * Called with the coalesced changes of a debounce window.
+	 * 
+	 * @param changes - the non-empty changes, sorted by the path
+	 */
+	void onChanges(List<FileChange> changes);
+}
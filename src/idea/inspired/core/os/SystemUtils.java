@@ -76,7 +76,7 @@ public class SystemUtils {
 			}
 			sLineSeparator = value;
 		}
-		return sLineSeparator;
+		return value;
 	}
 	
 	/**
@@ -98,7 +98,16 @@ public class SystemUtils {
 			}
 			sWorkingDirectory = value;
 		}
-		return sWorkingDirectory;
+		return value;
+	}
+	
+	/**
+	 * Clears the cached values, so they are looked up again on the next 
+	 * use, e.g. after the system properties are changed.
+	 */
+	public static void clearCache() {
+		sLineSeparator = null;
+		sWorkingDirectory = null;
 	}
 	
 	/**
@@ -0,0 +1,660 @@
+package idea.inspired.core.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <P>A binary logging sink. Instead of formatting a message like
+ * {@link Log}, it writes a compact record of the timestamp, the level,
+ * the id of the tag, the id of the template and the raw arguments into
+ * a memory-mapped file. The messages are rendered offline by
+ * {@link BinaryLogDecoder}, which replaces each <CODE>{}</CODE> of the
+ * template by an argument.</P>
+ *
+ * <P>The tags and the templates are interned by {@link #tag(String)} and
+ * {@link #template(String)}. Their definitions are written into the log
+ * when they are first used, and again at the beginning of every file,
+ * so each file can be decoded alone.</P>
+ *
+ * <P>The files are named <CODE>&lt;name&gt;.&lt;sequence&gt;.blog</CODE>
+ * and rotated when full; only the newest ones are kept. Each file is
+ * allocated to its full size and truncated to its content when
+ * rotated or closed.</P>
+ *
+ * <P>A {@link Long}, {@link Integer}, {@link Short} or {@link Byte}
+ * argument is kept as a long, a {@link Double} or {@link Float} as a
+ * double, and a {@link Boolean}, a {@link String} or null as it is. The
+ * other objects are converted by {@link String#valueOf(Object)}. The
+ * strings longer than {@value #MAX_STRING_LENGTH} characters are
+ * truncated.</P>
+ *
+ * <P>The logging methods never throw; the records which cannot be
+ * written are counted by {@link #getDroppedCount()}.</P>
+ *
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ * @see {@link BinaryLogDecoder}
+ */
+public class BinaryLog implements Closeable {
+	
+	private static final String TAG = BinaryLog.class.getSimpleName();
+	
+	/** The extension of the log files */
+	public static final String EXTENSION = ".blog";
+	
+	/** The smallest size of a file */
+	public static final int MIN_FILE_SIZE = 64 * 1024;
+	
+	/** The longest string argument kept, in characters */
+	public static final int MAX_STRING_LENGTH = 4096;
+	
+	/** The most arguments kept by a record */
+	public static final int MAX_ARGUMENTS = 255;
+	
+	public static final byte LEVEL_VERBOSE = 'V';
+	public static final byte LEVEL_ERROR = 'E';
+	
+	static final int MAGIC = 0x424C4F47; // "BLOG"
+	static final int VERSION = 1;
+	static final int HEADER_LENGTH = 16;
+	
+	/** The types of the records */
+	static final byte RECORD_TAG = 1;
+	static final byte RECORD_TEMPLATE = 2;
+	static final byte RECORD_EVENT = 3;
+	
+	/** The types of the arguments */
+	static final byte ARG_NULL = 'N';
+	static final byte ARG_LONG = 'L';
+	static final byte ARG_DOUBLE = 'D';
+	static final byte ARG_TRUE = 'T';
+	static final byte ARG_FALSE = 'F';
+	static final byte ARG_STRING = 'S';
+	
+	/** The length field, type, level, timestamp, tag, template, count */
+	private static final int EVENT_OVERHEAD = 4 + 1 + 1 + 8 + 4 + 4 + 1;
+	
+	private final File mDirectory;
+	private final String mName;
+	private final int mFileSize;
+	private final int mMaxFiles;
+	
+	private final ConcurrentHashMap<String, Integer> mTags =
+			new ConcurrentHashMap<String, Integer>();
+	private final ConcurrentHashMap<String, Integer> mTemplates =
+			new ConcurrentHashMap<String, Integer>();
+	
+	/** The interned values in the order of their ids; guarded by this */
+	private final List<String> mTagList = new ArrayList<String>();
+	private final List<String> mTemplateList = new ArrayList<String>();
+	
+	/** The files kept, from the oldest; guarded by this */
+	private final ArrayDeque<File> mFiles = new ArrayDeque<File>();
+	private long mSequence;
+	
+	/** The current file and its mapping; guarded by this */
+	private RandomAccessFile mFile;
+	private MappedByteBuffer mBuffer;
+	
+	/** The position of the record being written, or -1; guarded by this */
+	private int mRecordStart = -1;
+	
+	private volatile long mDropped;
+	private boolean mClosed;
+	
+	/**
+	 * Opens a log, which continues the sequence of the files found in
+	 * the directory.
+	 *
+	 * @param directory - the directory of the files
+	 * @param name - the prefix of the file names
+	 * @param fileSize - the size of each file, in bytes
+	 * @param maxFiles - the number of the files kept
+	 * @throws IOException if the first file cannot be created
+	 */
+	public BinaryLog(File directory, String name, int fileSize,
+			int maxFiles) throws IOException {
+		if (fileSize < MIN_FILE_SIZE) {
+			throw new IllegalArgumentException(
+					"The fileSize should be at least " + MIN_FILE_SIZE);
+		}
+		if (maxFiles <= 0) {
+			throw new IllegalArgumentException(
+					"The maxFiles should be a positive number");
+		}
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Failed to create " + directory);
+		}
+		
+		this.mDirectory = directory;
+		this.mName = name;
+		this.mFileSize = fileSize;
+		this.mMaxFiles = maxFiles;
+		
+		for (File file : listFiles(directory, name)) {
+			mFiles.add(file);
+			mSequence = Math.max(mSequence, getSequence(file, name) + 1);
+		}
+		synchronized (this) {
+			openNext();
+		}
+	}
+	
+	/**
+	 * Lists the log files in the directory, from the oldest.
+	 *
+	 * @param directory
+	 * @param name - the prefix of the file names
+	 * @return
+	 */
+	public static List<File> listFiles(File directory, final String name) {
+		File [] files = directory.listFiles(new FileFilter() {
+			@Override
+			public boolean accept(File file) {
+				return getSequence(file, name) >= 0;
+			}
+		});
+		if (files == null) {
+			return new ArrayList<File>();
+		}
+		Arrays.sort(files, new Comparator<File>() {
+			@Override
+			public int compare(File a, File b) {
+				long x = getSequence(a, name);
+				long y = getSequence(b, name);
+				return x < y ? -1 : x > y ? 1 : 0;
+			}
+		});
+		return Arrays.asList(files);
+	}
+	
+	/**
+	 * Returns the sequence number of the log file, or -1 if it is not a
+	 * log file of the name.
+	 */
+	private static long getSequence(File file, String name) {
+		String fileName = file.getName();
+		if (!fileName.startsWith(name + ".")
+				|| !fileName.endsWith(EXTENSION)) {
+			return -1;
+		}
+		String sequence = fileName.substring(name.length() + 1,
+				fileName.length() - EXTENSION.length());
+		try {
+			return sequence.isEmpty() ? -1 : Long.parseLong(sequence);
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+	
+	/**
+	 * Interns the tag.
+	 *
+	 * @param tag
+	 * @return
+	 *    the id of the tag
+	 */
+	public int tag(String tag) {
+		Integer id = mTags.get(tag);
+		return id != null ? id : define(tag, mTags, mTagList, RECORD_TAG);
+	}
+	
+	/**
+	 * Interns the template, whose <CODE>{}</CODE> are replaced by the
+	 * arguments when decoded.
+	 *
+	 * @param template
+	 * @return
+	 *    the id of the template
+	 */
+	public int template(String template) {
+		Integer id = mTemplates.get(template);
+		return id != null ? id
+				: define(template, mTemplates, mTemplateList, RECORD_TEMPLATE);
+	}
+	
+	private synchronized int define(String value,
+			ConcurrentHashMap<String, Integer> map, List<String> list,
+			byte type) {
+		Integer id = map.get(value);
+		if (id == null) {
+			id = list.size();
+			
+			// a rotation writes the listed ones into the new file
+			if (!writeDefinition(type, id, value, true)) {
+				mDropped++;
+			}
+			list.add(value);
+			map.put(value, id);
+		}
+		return id;
+	}
+	
+	/**
+	 * Logs a verbose message.
+	 *
+	 * @param tag - the id of the tag
+	 * @param template - the id of the template
+	 * @param args - the arguments of the template
+	 */
+	public void v(int tag, int template, Object... args) {
+		write(LEVEL_VERBOSE, tag, template, args);
+	}
+	
+	/**
+	 * Logs a verbose message with a number, without boxing it.
+	 *
+	 * @param tag - the id of the tag
+	 * @param template - the id of the template
+	 * @param arg
+	 */
+	public void v(int tag, int template, long arg) {
+		write(LEVEL_VERBOSE, tag, template, arg);
+	}
+	
+	/**
+	 * Logs a verbose message, interning the tag and the template.
+	 *
+	 * @param tag
+	 * @param template
+	 * @param args - the arguments of the template
+	 */
+	public void v(String tag, String template, Object... args) {
+		write(LEVEL_VERBOSE, tag(tag), template(template), args);
+	}
+	
+	/**
+	 * Logs an error message.
+	 *
+	 * @param tag - the id of the tag
+	 * @param template - the id of the template
+	 * @param args - the arguments of the template
+	 */
+	public void e(int tag, int template, Object... args) {
+		write(LEVEL_ERROR, tag, template, args);
+	}
+	
+	/**
+	 * Logs an error message with a number, without boxing it.
+	 *
+	 * @param tag - the id of the tag
+	 * @param template - the id of the template
+	 * @param arg
+	 */
+	public void e(int tag, int template, long arg) {
+		write(LEVEL_ERROR, tag, template, arg);
+	}
+	
+	/**
+	 * Logs an error message, interning the tag and the template.
+	 *
+	 * @param tag
+	 * @param template
+	 * @param args - the arguments of the template
+	 */
+	public void e(String tag, String template, Object... args) {
+		write(LEVEL_ERROR, tag(tag), template(template), args);
+	}
+	
+	/**
+	 * Returns the number of the records dropped, because the log was
+	 * closed, a file could not be opened or written, the record was
+	 * larger than a file, or an argument could not be converted.
+	 * @return
+	 */
+	public long getDroppedCount() {
+		return mDropped;
+	}
+	
+	/**
+	 * Writes the records of the current file to the storage device.
+	 */
+	public synchronized void flush() {
+		if (mBuffer != null) {
+			force();
+		}
+	}
+	
+	/**
+	 * Closes the current file, and truncates it to its content. The
+	 * records logged afterward are dropped.
+	 */
+	@Override
+	public synchronized void close() {
+		if (!mClosed) {
+			mClosed = true;
+			closeCurrent();
+		}
+	}
+	
+	private synchronized void write(byte level, int tag, int template,
+			long arg) {
+		try {
+			if (!reserve(EVENT_OVERHEAD + 9)) {
+				return;
+			}
+			writeEventHeader(level, tag, template, 1);
+			mBuffer.put(ARG_LONG).putLong(arg);
+			endRecord();
+		} catch (RuntimeException e) {
+			abortRecord();
+		}
+	}
+	
+	private void write(byte level, int tag, int template, Object [] args) {
+		// converts the arguments once, out of the lock
+		int count = args == null ? 0 : Math.min(args.length, MAX_ARGUMENTS);
+		Object [] values = new Object [count];
+		try {
+			for (int i = 0; i < count; i++) {
+				values[i] = toValue(args[i]);
+			}
+		} catch (RuntimeException e) {
+			synchronized (this) {
+				mDropped++;
+			}
+			return;
+		}
+		writeValues(level, tag, template, values);
+	}
+	
+	private synchronized void writeValues(byte level, int tag, int template,
+			Object [] values) {
+		try {
+			long size = EVENT_OVERHEAD;
+			for (Object value : values) {
+				size += getMaxLength(value);
+			}
+			if (!reserve(size)) {
+				return;
+			}
+			
+			writeEventHeader(level, tag, template, values.length);
+			for (Object value : values) {
+				writeArgument(value);
+			}
+			endRecord();
+		} catch (RuntimeException e) {
+			abortRecord();
+		}
+	}
+	
+	/**
+	 * Makes sure the current file has the space of the record, rotating
+	 * it if necessary.
+	 *
+	 * @return
+	 *    false if the record is dropped
+	 */
+	private boolean reserve(long size) {
+		if (mBuffer == null) {
+			mDropped++;
+			return false;
+		}
+		if (mBuffer.remaining() >= size) {
+			return true;
+		}
+		// a record larger than an empty file never fits
+		if (size > mFileSize - HEADER_LENGTH
+				|| !rotate() || mBuffer.remaining() < size) {
+			mDropped++;
+			return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Writes the definition, rotating the file if it is full and
+	 * canRotate is true, i.e. not within a rotation.
+	 *
+	 * @return
+	 *    false if the definition is dropped
+	 */
+	private boolean writeDefinition(byte type, int id, String value,
+			boolean canRotate) {
+		long size = 4 + 1 + 4 + 4 + 3L * value.length();
+		if (mBuffer == null || size > mFileSize - HEADER_LENGTH) {
+			return false;
+		}
+		if (mBuffer.remaining() < size
+				&& (!canRotate || !rotate() || mBuffer.remaining() < size)) {
+			return false;
+		}
+		try {
+			beginRecord(type);
+			mBuffer.putInt(id);
+			writeString(value, Integer.MAX_VALUE);
+			endRecord();
+			return true;
+		} catch (RuntimeException e) {
+			discardRecord();
+			return false;
+		}
+	}
+	
+	private void writeEventHeader(byte level, int tag, int template,
+			int count) {
+		beginRecord(RECORD_EVENT);
+		mBuffer.put(level);
+		mBuffer.putLong(System.currentTimeMillis());
+		mBuffer.putInt(tag);
+		mBuffer.putInt(template);
+		mBuffer.put((byte) count);
+	}
+	
+	private void beginRecord(byte type) {
+		mRecordStart = mBuffer.position();
+		mBuffer.putInt(0); // the length, filled by endRecord
+		mBuffer.put(type);
+	}
+	
+	private void endRecord() {
+		mBuffer.putInt(mRecordStart,
+				mBuffer.position() - mRecordStart - 4);
+		mRecordStart = -1;
+	}
+	
+	/**
+	 * Discards the record being written, and counts it as dropped.
+	 */
+	private void abortRecord() {
+		mDropped++;
+		discardRecord();
+	}
+	
+	private void discardRecord() {
+		if (mBuffer != null && mRecordStart >= 0) {
+			mBuffer.position(mRecordStart);
+			mBuffer.putInt(mRecordStart, 0); // the end of the records
+		}
+		mRecordStart = -1;
+	}
+	
+	/**
+	 * Converts the argument into the kept type: null, a Boolean, a Long,
+	 * a Double or a String.
+	 */
+	private static Object toValue(Object arg) {
+		if (arg == null || arg instanceof Boolean || arg instanceof String) {
+			return arg;
+		} else if (arg instanceof Double || arg instanceof Float) {
+			return ((Number) arg).doubleValue();
+		} else if (arg instanceof Number && !isOtherNumber(arg)) {
+			return ((Number) arg).longValue();
+		}
+		return String.valueOf(arg);
+	}
+	
+	/**
+	 * Returns the most bytes of the value converted by
+	 * {@link #toValue(Object)}.
+	 */
+	private static long getMaxLength(Object value) {
+		if (value == null || value instanceof Boolean) {
+			return 1;
+		} else if (value instanceof Number) {
+			return 9;
+		}
+		return 1 + 4 + 3L * Math.min(((String) value).length(),
+				MAX_STRING_LENGTH);
+	}
+	
+	private static boolean isOtherNumber(Object arg) {
+		return !(arg instanceof Long || arg instanceof Integer
+				|| arg instanceof Short || arg instanceof Byte
+				|| arg instanceof Double || arg instanceof Float);
+	}
+	
+	/**
+	 * Writes the value converted by {@link #toValue(Object)}.
+	 */
+	private void writeArgument(Object value) {
+		if (value == null) {
+			mBuffer.put(ARG_NULL);
+		} else if (value instanceof Boolean) {
+			mBuffer.put((Boolean) value ? ARG_TRUE : ARG_FALSE);
+		} else if (value instanceof Double) {
+			mBuffer.put(ARG_DOUBLE).putDouble((Double) value);
+		} else if (value instanceof Long) {
+			mBuffer.put(ARG_LONG).putLong((Long) value);
+		} else {
+			mBuffer.put(ARG_STRING);
+			writeString((String) value, MAX_STRING_LENGTH);
+		}
+	}
+	
+	/**
+	 * Writes the length and the UTF-8 bytes of the string, without
+	 * allocating an encoder.
+	 */
+	private void writeString(String value, int maxLength) {
+		int lengthAt = mBuffer.position();
+		mBuffer.putInt(0);
+		int length = Math.min(value.length(), maxLength);
+		
+		for (int i = 0; i < length; i++) {
+			int c = value.charAt(i);
+			if (c < 0x80) {
+				mBuffer.put((byte) c);
+			} else if (c < 0x800) {
+				mBuffer.put((byte) (0xC0 | c >> 6));
+				mBuffer.put((byte) (0x80 | c & 0x3F));
+			} else if (Character.isHighSurrogate((char) c) && i + 1 < length
+					&& Character.isLowSurrogate(value.charAt(i + 1))) {
+				int codePoint = Character.toCodePoint((char) c,
+						value.charAt(++i));
+				mBuffer.put((byte) (0xF0 | codePoint >> 18));
+				mBuffer.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+				mBuffer.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+				mBuffer.put((byte) (0x80 | codePoint & 0x3F));
+			} else if (Character.isSurrogate((char) c)) {
+				mBuffer.put((byte) '?');
+			} else {
+				mBuffer.put((byte) (0xE0 | c >> 12));
+				mBuffer.put((byte) (0x80 | c >> 6 & 0x3F));
+				mBuffer.put((byte) (0x80 | c & 0x3F));
+			}
+		}
+		mBuffer.putInt(lengthAt, mBuffer.position() - lengthAt - 4);
+	}
+	
+	/**
+	 * Closes the current file, opens the next one and writes the
+	 * definitions into it.
+	 *
+	 * @return
+	 *    false if the next file cannot be opened
+	 */
+	private boolean rotate() {
+		if (mClosed) {
+			return false;
+		}
+		closeCurrent();
+		try {
+			openNext();
+		} catch (IOException e) {
+			Log.e(TAG, "Failed to rotate the log: " + e);
+			return false;
+		}
+		
+		// never rotates again; the ones which do not fit are lost
+		for (int i = 0; i < mTagList.size(); i++) {
+			writeDefinition(RECORD_TAG, i, mTagList.get(i), false);
+		}
+		for (int i = 0; i < mTemplateList.size(); i++) {
+			writeDefinition(RECORD_TEMPLATE, i, mTemplateList.get(i), false);
+		}
+		return true;
+	}
+	
+	private void openNext() throws IOException {
+		File file = new File(mDirectory,
+				mName + "." + mSequence++ + EXTENSION);
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			raf.setLength(mFileSize);
+			mBuffer = raf.getChannel().map(
+					FileChannel.MapMode.READ_WRITE, 0, mFileSize);
+		} catch (IOException e) {
+			raf.close();
+			throw e;
+		}
+		mFile = raf;
+		mBuffer.putInt(MAGIC);
+		mBuffer.putInt(VERSION);
+		mBuffer.putLong(System.currentTimeMillis());
+		
+		mFiles.add(file);
+		while (mFiles.size() > mMaxFiles) {
+			File oldest = mFiles.poll();
+			if (!oldest.delete() && oldest.exists()) {
+				Log.e(TAG, "Failed to delete " + oldest);
+			}
+		}
+	}
+	
+	private void closeCurrent() {
+		if (mBuffer == null) {
+			return;
+		}
+		mRecordStart = -1;
+		int length = mBuffer.position();
+		force();
+		DirectBuffers.free(mBuffer);
+		mBuffer = null;
+		try {
+			mFile.setLength(length);
+		} catch (IOException e) {
+			// the zeros after the records are ignored by the decoder
+		}
+		try {
+			mFile.close();
+		} catch (IOException e) {
+			Log.e(TAG, "Failed to close the log: " + e);
+		}
+		mFile = null;
+	}
+	
+	/**
+	 * Forces the current file to the storage device; the failure, e.g.
+	 * an UncheckedIOException, is logged but not thrown.
+	 */
+	private void force() {
+		try {
+			mBuffer.force();
+		} catch (RuntimeException e) {
+			Log.e(TAG, "Failed to force the log: " + e);
+		}
+	}
+}
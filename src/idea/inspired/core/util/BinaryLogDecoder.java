@@ -0,0 +1,222 @@
+package idea.inspired.core.util;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <P>Renders the files of {@link BinaryLog} as text. Each message is
+ * rendered like {@link Log#v(String, String)}, after the time and the
+ * level, e.g.</P>
+ *
+ * <PRE>
+ * 2026/10/19 12:34:56 V FileManager: Copied 4096 bytes to a.txt
+ * </PRE>
+ *
+ * <P>The <CODE>{}</CODE> of the template are replaced by the arguments
+ * in order, and the extra arguments are appended. A tag or a template
+ * whose definition is lost, e.g. with the deleted files, is rendered by
+ * its id.</P>
+ *
+ * <P>Usage:</P>
+ * <PRE>
+ * java idea.inspired.core.util.BinaryLogDecoder &lt;file&gt;...
+ * java idea.inspired.core.util.BinaryLogDecoder &lt;directory&gt; &lt;name&gt;
+ * </PRE>
+ *
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ * @see {@link BinaryLog}
+ */
+public class BinaryLogDecoder {
+	
+	private final SimpleDateFormat mDateFormat =
+			new SimpleDateFormat(Log.DATE_FORMAT);
+	
+	/** The definitions of the current file */
+	private final Map<Integer, String> mTags = new HashMap<Integer, String>();
+	private final Map<Integer, String> mTemplates =
+			new HashMap<Integer, String>();
+	
+	private final List<Object> mArgs = new ArrayList<Object>();
+	
+	/**
+	 * Decodes the files in order.
+	 *
+	 * @param files
+	 * @param out
+	 * @throws IOException if a file cannot be read, or it is not a log
+	 *    file
+	 */
+	public void decode(List<File> files, Appendable out) throws IOException {
+		for (File file : files) {
+			decode(file, out);
+		}
+	}
+	
+	/**
+	 * Decodes the file. A truncated record at the end, e.g. from a
+	 * crash, is ignored.
+	 *
+	 * @param file
+	 * @param out
+	 * @throws IOException if the file cannot be read, or it is not a log
+	 *    file
+	 */
+	public void decode(File file, Appendable out) throws IOException {
+		ByteBuffer buffer;
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+					channel.size());
+		} finally {
+			raf.close();
+		}
+		
+		try {
+			if (buffer.remaining() < BinaryLog.HEADER_LENGTH
+					|| buffer.getInt() != BinaryLog.MAGIC) {
+				throw new IOException("Not a binary log: " + file);
+			}
+			int version = buffer.getInt();
+			if (version != BinaryLog.VERSION) {
+				throw new IOException("Unsupported version " + version
+						+ ": " + file);
+			}
+			buffer.getLong(); // the creation time
+			
+			mTags.clear();
+			mTemplates.clear();
+			while (buffer.remaining() >= 4) {
+				int length = buffer.getInt();
+				if (length <= 0 || length > buffer.remaining()) {
+					break; // the end of the records
+				}
+				ByteBuffer record = buffer.slice();
+				record.limit(length);
+				buffer.position(buffer.position() + length);
+				decodeRecord(record, out);
+			}
+		} finally {
+			DirectBuffers.free(buffer);
+		}
+	}
+	
+	private void decodeRecord(ByteBuffer record, Appendable out)
+			throws IOException {
+		byte type = record.get();
+		switch (type) {
+		case BinaryLog.RECORD_TAG:
+			mTags.put(record.getInt(), readString(record));
+			break;
+		case BinaryLog.RECORD_TEMPLATE:
+			mTemplates.put(record.getInt(), readString(record));
+			break;
+		case BinaryLog.RECORD_EVENT:
+			char level = (char) record.get();
+			long time = record.getLong();
+			int tagId = record.getInt();
+			int templateId = record.getInt();
+			int count = record.get() & 0xFF;
+			
+			mArgs.clear();
+			for (int i = 0; i < count; i++) {
+				mArgs.add(readArgument(record));
+			}
+			
+			String tag = mTags.get(tagId);
+			String template = mTemplates.get(templateId);
+			render(out, time, level, tag != null ? tag : "#" + tagId,
+					template != null ? template : "#" + templateId + " {}");
+			break;
+		default:
+			// the record of a later version
+			break;
+		}
+	}
+	
+	private void render(Appendable out, long time, char level, String tag,
+			String template) throws IOException {
+		StringBuilder message = new StringBuilder();
+		int arg = 0;
+		int from = 0;
+		int at;
+		while ((at = template.indexOf("{}", from)) >= 0
+				&& arg < mArgs.size()) {
+			message.append(template, from, at).append(mArgs.get(arg++));
+			from = at + 2;
+		}
+		message.append(template, from, template.length());
+		while (arg < mArgs.size()) {
+			message.append(' ').append(mArgs.get(arg++));
+		}
+		
+		// presents in multi-line, like Log.v
+		String prefix = mDateFormat.format(new Date(time)) + " " + level
+				+ " " + tag + ": ";
+		for (String line : message.toString().split("\r\n|\r|\n")) {
+			out.append(prefix).append(line).append('\n');
+		}
+	}
+	
+	private static Object readArgument(ByteBuffer record) {
+		byte type = record.get();
+		switch (type) {
+		case BinaryLog.ARG_LONG:
+			return record.getLong();
+		case BinaryLog.ARG_DOUBLE:
+			return record.getDouble();
+		case BinaryLog.ARG_TRUE:
+			return Boolean.TRUE;
+		case BinaryLog.ARG_FALSE:
+			return Boolean.FALSE;
+		case BinaryLog.ARG_STRING:
+			return readString(record);
+		default:
+			return null;
+		}
+	}
+	
+	private static String readString(ByteBuffer record) {
+		byte [] bytes = new byte [record.getInt()];
+		record.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+	
+	public static void main(String[] args) throws IOException {
+		List<File> files;
+		if (args.length == 2 && new File(args[0]).isDirectory()) {
+			files = BinaryLog.listFiles(new File(args[0]), args[1]);
+		} else if (args.length > 0) {
+			files = new ArrayList<File>();
+			for (String arg : args) {
+				files.add(new File(arg));
+			}
+		} else {
+			System.err.println("Usage: BinaryLogDecoder <file>...");
+			System.err.println("       BinaryLogDecoder <directory> <name>");
+			System.exit(1);
+			return;
+		}
+		
+		Writer out = new BufferedWriter(new OutputStreamWriter(System.out));
+		try {
+			new BinaryLogDecoder().decode(files, out);
+		} finally {
+			out.flush();
+		}
+	}
+}
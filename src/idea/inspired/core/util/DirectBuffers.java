@@ -0,0 +1,56 @@
+package idea.inspired.core.util;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+/**
+ * The class is used to release the direct and mapped buffers without
+ * waiting for the GC.
+ *
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ * @see {@link ByteBuffer#allocateDirect(int)}
+ */
+public class DirectBuffers {
+	
+	/**
+	 * Frees a direct or mapped buffer: by Unsafe.invokeCleaner on Java 9
+	 * and later, or by the cleaner of the buffer on Java 8. If neither
+	 * is accessible, the buffer is left to the GC. The buffer should be
+	 * the one allocated or mapped, not a slice or a duplicate, and it
+	 * should never be accessed again.
+	 *
+	 * @param buffer
+	 */
+	public static void free(ByteBuffer buffer) {
+		if (buffer == null || !buffer.isDirect()) {
+			return;
+		}
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Method invokeCleaner;
+			try {
+				invokeCleaner = unsafeClass.getMethod(
+						"invokeCleaner", ByteBuffer.class);
+			} catch (NoSuchMethodException e) {
+				invokeCleaner = null;
+			}
+			
+			if (invokeCleaner != null) {
+				Field field = unsafeClass.getDeclaredField("theUnsafe");
+				field.setAccessible(true);
+				invokeCleaner.invoke(field.get(null), buffer);
+			} else {
+				Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+				cleanerMethod.setAccessible(true);
+				Object cleaner = cleanerMethod.invoke(buffer);
+				if (cleaner != null) {
+					cleaner.getClass().getMethod("clean").invoke(cleaner);
+				}
+			}
+		} catch (Exception e) {
+			// left to the GC
+		}
+	}
+}
@@ -34,10 +34,13 @@ public class Log {
 		StringBuilder builder = new StringBuilder();
 		
 		if (message != null) {
-			String [] lines = message.split("\r|\n");
+			String [] lines = message.split("\r\n|\r|\n");
 			
 			// presents in multi-line
 			for (int i = 0; i < lines.length; i++) {
+				if (i > 0) {
+					builder.append(System.lineSeparator());
+				}
 				builder.append(tag).append(": ").append(lines[i]);
 			}
 		}
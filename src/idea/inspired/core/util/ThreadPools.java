@@ -0,0 +1,123 @@
+package idea.inspired.core.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The class is used to create the thread pools shared by the IO 
+ * operations.
+ * 
+ * <P>On a JDK which provides virtual threads (Java 21 or later), 
+ * every task is executed on its own virtual thread, so blocking IO 
+ * does not pin a platform thread. On older JDKs, it falls back to a 
+ * fixed pool of daemon platform threads.</P>
+ * 
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ * @see {@link Executors}
+ */
+public class ThreadPools {
+	
+	private static final String TAG = ThreadPools.class.getSimpleName();
+	
+	/** 
+	 * The factory method of the virtual-thread executor, i.e. 
+	 * <CODE>Executors.newVirtualThreadPerTaskExecutor()</CODE>, or 
+	 * <CODE>null</CODE> if the JDK does not support it.
+	 */
+	private static final Method VIRTUAL_EXECUTOR_FACTORY 
+			= findVirtualExecutorFactory();
+	
+	private static Method findVirtualExecutorFactory() {
+		try {
+			return Executors.class.getMethod(
+					"newVirtualThreadPerTaskExecutor");
+		} catch (NoSuchMethodException e) {
+			return null; // before Java 21
+		} catch (SecurityException e) {
+			return null;
+		}
+	}
+	
+	/**
+	 * Returns true if the running JDK supports virtual threads.
+	 * @return
+	 */
+	public static boolean isVirtualThreadSupported() {
+		return VIRTUAL_EXECUTOR_FACTORY != null;
+	}
+	
+	/**
+	 * Creates an executor that runs each task on a virtual thread. If 
+	 * the virtual threads are not supported, it creates a fixed pool 
+	 * with the specified number of daemon platform threads instead.
+	 * 
+	 * @param name - the prefix of the thread names
+	 * @param fallbackThreads - the number of the platform threads if 
+	 *    the virtual threads are not supported
+	 * @return
+	 *    Returns the non-null executor. The caller should shut it down.
+	 */
+	public static ExecutorService newPerTaskExecutor(String name, 
+			int fallbackThreads) {
+		if (VIRTUAL_EXECUTOR_FACTORY != null) {
+			try {
+				return (ExecutorService) VIRTUAL_EXECUTOR_FACTORY.invoke(null);
+			} catch (Exception e) {
+				// should never happen, falls back to the platform threads
+				Log.e(TAG, "Failed to create virtual threads: " + e);
+			}
+		}
+		return newFixedDaemonPool(name, fallbackThreads);
+	}
+	
+	/**
+	 * Creates a fixed pool of daemon platform threads.
+	 * 
+	 * @param name - the prefix of the thread names
+	 * @param threads - the number of the threads
+	 * @return
+	 *    Returns the non-null executor. The caller should shut it down.
+	 */
+	public static ExecutorService newFixedDaemonPool(String name, 
+			int threads) {
+		if (threads <= 0) {
+			throw new IllegalArgumentException(
+					"The number of threads should be a positive number");
+		}
+		return Executors.newFixedThreadPool(threads, 
+				newDaemonThreadFactory(name));
+	}
+	
+	/**
+	 * Creates a thread factory which creates the daemon threads named 
+	 * "name-1", "name-2", etc.
+	 * 
+	 * @param name - the prefix of the thread names
+	 * @return
+	 */
+	public static ThreadFactory newDaemonThreadFactory(final String name) {
+		return new ThreadFactory() {
+			private final AtomicInteger mCount = new AtomicInteger();
+			
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, 
+						name + "-" + mCount.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+	}
+	
+	/**
+	 * Returns the number of the available processors, at least 1.
+	 * @return
+	 */
+	public static int getProcessorCount() {
+		return Math.max(1, Runtime.getRuntime().availableProcessors());
+	}
+}
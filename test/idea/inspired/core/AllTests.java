@@ -0,0 +1,36 @@
+package idea.inspired.core;
+
+import idea.inspired.core.io.ConcurrencyTest;
+import idea.inspired.core.io.FileHeaderTest;
+import idea.inspired.core.io.FileManagerTreeTest;
+import idea.inspired.core.io.ThroughputTest;
+import idea.inspired.core.os.SystemUtilsTest;
+import idea.inspired.core.util.LogTest;
+
+/**
+ * <P>Runs all the tests, and exits with 1 if any failed:</P>
+ *
+ * <PRE>
+ * javac -encoding UTF-8 -d out $(find src test -name "*.java")
+ * java -cp out idea.inspired.core.AllTests
+ * </PRE>
+ *
+ * <P>Each test class can also run alone by its own <CODE>main</CODE>
+ * method.</P>
+ *
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+public class AllTests {
+	
+	public static void main(String[] args) {
+		int failed = TestCase.run(
+				FileHeaderTest.class,
+				FileManagerTreeTest.class,
+				ConcurrencyTest.class,
+				ThroughputTest.class,
+				LogTest.class,
+				SystemUtilsTest.class);
+		System.exit(failed == 0 ? 0 : 1);
+	}
+}
@@ -0,0 +1,220 @@
+package idea.inspired.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * <P>The base of the tests, which run from a <CODE>main</CODE> method
+ * without a test framework. Each public method named
+ * <CODE>test*</CODE> runs on a new instance, in the order of the names,
+ * with its own temporary directory.</P>
+ *
+ * <P>The throughput floors are multiplied by the system property
+ * <CODE>test.floor.scale</CODE> (1 by default), e.g. 0.5 on a slow
+ * machine, or 0 to skip them.</P>
+ *
+ * <P>The trees of tiny files have {@link #TINY_FILE_COUNT} files, 2000
+ * by default so that the suite runs in seconds. Set the system property
+ * <CODE>test.tiny.files</CODE> for a stress run, e.g. to 1000000 for a
+ * tree of millions of files.</P>
+ *
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ * @see {@link AllTests}
+ */
+public abstract class TestCase {
+	
+	private static final double FLOOR_SCALE = Double.parseDouble(
+			System.getProperty("test.floor.scale", "1"));
+	
+	/** The number of the files in a tree of tiny files */
+	protected static final int TINY_FILE_COUNT = Integer.getInteger(
+			"test.tiny.files", 2000);
+	
+	/** The temporary directory of the current test */
+	protected File mTempDir;
+	
+	protected void setUp() throws Exception {
+	}
+	
+	protected void tearDown() throws Exception {
+	}
+	
+	/**
+	 * Runs the tests of the classes, and prints the results.
+	 *
+	 * @param classes
+	 * @return
+	 *    the number of the failed tests
+	 */
+	public static int run(Class<?>... classes) {
+		int passed = 0, failed = 0;
+		
+		for (Class<?> testClass : classes) {
+			Method [] methods = testClass.getMethods();
+			Arrays.sort(methods, new Comparator<Method>() {
+				@Override
+				public int compare(Method a, Method b) {
+					return a.getName().compareTo(b.getName());
+				}
+			});
+			
+			for (Method method : methods) {
+				if (!method.getName().startsWith("test")
+						|| method.getParameterTypes().length != 0
+						|| Modifier.isStatic(method.getModifiers())) {
+					continue;
+				}
+				String name = testClass.getSimpleName() + "." +
+						method.getName();
+				long start = System.nanoTime();
+				Throwable error = runTest(testClass, method);
+				long millis = (System.nanoTime() - start) / 1000000;
+				
+				if (error == null) {
+					passed++;
+					System.out.println("PASS " + name + " (" + millis +
+							" ms)");
+				} else {
+					failed++;
+					System.out.println("FAIL " + name + " (" + millis +
+							" ms): " + error);
+					error.printStackTrace(System.out);
+				}
+			}
+		}
+		System.out.println(passed + " passed, " + failed + " failed");
+		return failed;
+	}
+	
+	private static Throwable runTest(Class<?> testClass, Method method) {
+		TestCase test;
+		try {
+			test = (TestCase) testClass.getDeclaredConstructor()
+					.newInstance();
+		} catch (Exception e) {
+			return e;
+		}
+		
+		try {
+			test.mTempDir = Files.createTempDirectory(
+					testClass.getSimpleName()).toFile();
+			test.setUp();
+			try {
+				method.invoke(test);
+			} finally {
+				test.tearDown();
+			}
+			return null;
+		} catch (InvocationTargetException e) {
+			return e.getCause();
+		} catch (Throwable e) {
+			return e;
+		} finally {
+			if (test.mTempDir != null) {
+				deleteQuietly(test.mTempDir);
+			}
+		}
+	}
+	
+	/**
+	 * Runs the tests of the class, and exits with 1 if any failed.
+	 *
+	 * @param testClass
+	 */
+	protected static void runAndExit(Class<?> testClass) {
+		System.exit(run(testClass) == 0 ? 0 : 1);
+	}
+	
+	//-------------------------------------------------------------
+	// Assertions
+	//-------------------------------------------------------------
+	
+	public static void fail(String message) {
+		throw new AssertionError(message);
+	}
+	
+	public static void assertTrue(String message, boolean condition) {
+		if (!condition) {
+			fail(message);
+		}
+	}
+	
+	public static void assertEquals(String message, Object expected,
+			Object actual) {
+		if (expected == null ? actual != null : !expected.equals(actual)) {
+			fail(message + ": expected <" + shorten(expected) +
+					"> but was <" + shorten(actual) + ">");
+		}
+	}
+	
+	/**
+	 * Compares the characters, e.g. of a String and a CharSequence
+	 * which does not implement equals.
+	 */
+	public static void assertContentEquals(String message,
+			CharSequence expected, CharSequence actual) {
+		if (actual == null || !expected.toString().contentEquals(actual)) {
+			fail(message + ": expected <" + shorten(expected) +
+					"> but was <" + shorten(actual) + ">");
+		}
+	}
+	
+	/**
+	 * Fails if the rate is below the floor, scaled by
+	 * <CODE>test.floor.scale</CODE>.
+	 *
+	 * @param name - what is measured, e.g. "copy MB/s"
+	 * @param rate - the measured rate
+	 * @param floor - the lowest acceptable rate
+	 */
+	public static void assertFloor(String name, double rate, double floor) {
+		double scaled = floor * FLOOR_SCALE;
+		System.out.println(String.format("  %s: %.1f (floor %.1f)", name,
+				rate, scaled));
+		if (rate < scaled) {
+			fail(name + " regressed: " + String.format("%.1f", rate) +
+					" < " + String.format("%.1f", scaled));
+		}
+	}
+	
+	private static String shorten(Object value) {
+		String text = String.valueOf(value);
+		return text.length() > 80 ? text.substring(0, 80) + "..." : text;
+	}
+	
+	//-------------------------------------------------------------
+	// Helpers
+	//-------------------------------------------------------------
+	
+	/**
+	 * Returns the rate per second of the count done in the nanoseconds.
+	 */
+	public static double perSecond(double count, long nanos) {
+		return count * 1e9 / Math.max(nanos, 1);
+	}
+	
+	private static void deleteQuietly(File file) {
+		try {
+			if (Files.isDirectory(file.toPath(), LinkOption.NOFOLLOW_LINKS)) {
+				File [] children = file.listFiles();
+				if (children != null) {
+					for (File child : children) {
+						deleteQuietly(child);
+					}
+				}
+			}
+			file.setWritable(true);
+			Files.deleteIfExists(file.toPath());
+		} catch (IOException e) {
+			System.out.println("Failed to delete " + file + ": " + e);
+		}
+	}
+}
@@ -0,0 +1,198 @@
+package idea.inspired.core.io;
+
+import idea.inspired.core.TestCase;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reads, writes and copies the same files from many threads with the
+ * {@link PathLocks} installed: a reader or a copy never sees a torn
+ * write, i.e. the content is always one whole write.
+ *
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+public class ConcurrencyTest extends TestCase {
+	
+	private static final int WRITERS = 4;
+	private static final int READERS = 4;
+	private static final int WRITES = 50;
+	private static final int CONTENT_LENGTH = 256 * 1024;
+	
+	private ExecutorService mExecutor;
+	
+	@Override
+	protected void setUp() {
+		FileManager.setLocks(new PathLocks());
+		mExecutor = Executors.newFixedThreadPool(WRITERS + READERS);
+	}
+	
+	@Override
+	protected void tearDown() throws InterruptedException {
+		mExecutor.shutdownNow();
+		mExecutor.awaitTermination(10, TimeUnit.SECONDS);
+		FileManager.setLocks(null);
+	}
+	
+	public void testReadsNeverSeeTornWrites() throws Exception {
+		final File file = new File(mTempDir, "shared.txt");
+		assertTrue("write", FileManager.write(file, content('-')));
+		
+		final AtomicBoolean writing = new AtomicBoolean(true);
+		List<Future<Integer>> writers = startWriters(file, writing);
+		List<Future<Integer>> readers = new ArrayList<Future<Integer>>();
+		for (int r = 0; r < READERS; r++) {
+			readers.add(mExecutor.submit(new Callable<Integer>() {
+				@Override
+				public Integer call() {
+					int reads = 0;
+					while (writing.get()) {
+						assertUniform("read", FileManager.read(file));
+						reads++;
+					}
+					return reads;
+				}
+			}));
+		}
+		
+		awaitWriters(writers, writing);
+		int reads = 0;
+		for (Future<Integer> reader : readers) {
+			reads += reader.get();
+		}
+		assertTrue("no read ran", reads > 0);
+		assertUniform("final", FileManager.read(file));
+	}
+	
+	public void testCopiesNeverSeeTornWrites() throws Exception {
+		final File file = new File(mTempDir, "source.txt");
+		assertTrue("write", FileManager.write(file, content('-')));
+		
+		final AtomicBoolean writing = new AtomicBoolean(true);
+		List<Future<Integer>> writers = startWriters(file, writing);
+		List<Future<Integer>> copiers = new ArrayList<Future<Integer>>();
+		for (int c = 0; c < READERS; c++) {
+			final File dest = new File(mTempDir, "copy" + c + ".txt");
+			copiers.add(mExecutor.submit(new Callable<Integer>() {
+				@Override
+				public Integer call() {
+					int copies = 0;
+					while (writing.get()) {
+						assertTrue("copy", FileManager.copy(file, dest));
+						assertUniform("copy", FileManager.read(dest));
+						copies++;
+					}
+					return copies;
+				}
+			}));
+		}
+		
+		awaitWriters(writers, writing);
+		int copies = 0;
+		for (Future<Integer> copier : copiers) {
+			copies += copier.get();
+		}
+		assertTrue("no copy ran", copies > 0);
+	}
+	
+	/**
+	 * Copies many distinct files in parallel: every result belongs to
+	 * its pair, in the order of the pairs.
+	 */
+	public void testBulkCopyKeepsEveryPair() throws Exception {
+		Map<Path, Path> pairs = new LinkedHashMap<Path, Path>();
+		for (int i = 0; i < 500; i++) {
+			Path src = new File(mTempDir, "in/f" + i).toPath();
+			FileManager.write(src.toFile(), "content of " + i);
+			pairs.put(src, new File(mTempDir, "out/f" + i).toPath());
+		}
+		
+		List<BulkResult<Boolean>> results = FileManager.copyAll(pairs);
+		assertEquals("results", pairs.size(), results.size());
+		int i = 0;
+		for (Map.Entry<Path, Path> pair : pairs.entrySet()) {
+			BulkResult<Boolean> result = results.get(i);
+			assertEquals("path", pair.getKey(), result.getPath());
+			assertTrue("copy " + result, result.isSuccessful());
+			assertEquals("content of " + pair.getValue(), "content of " + i,
+					new String(Files.readAllBytes(pair.getValue()), "UTF-8"));
+			i++;
+		}
+	}
+	
+	//-------------------------------------------------------------
+	// Helpers
+	//-------------------------------------------------------------
+	
+	/**
+	 * Starts the writers, each writing its own letter over the whole
+	 * file.
+	 */
+	private List<Future<Integer>> startWriters(final File file,
+			final AtomicBoolean writing) {
+		List<Future<Integer>> writers = new ArrayList<Future<Integer>>();
+		for (int w = 0; w < WRITERS; w++) {
+			final String content = content((char) ('A' + w));
+			writers.add(mExecutor.submit(new Callable<Integer>() {
+				@Override
+				public Integer call() {
+					for (int i = 0; i < WRITES && writing.get(); i++) {
+						assertTrue("write", FileManager.write(file, content));
+					}
+					return WRITES;
+				}
+			}));
+		}
+		return writers;
+	}
+	
+	/**
+	 * Waits for the writers and stops the readers; the first failure of
+	 * a writer is rethrown.
+	 */
+	private static void awaitWriters(List<Future<Integer>> writers,
+			AtomicBoolean writing) throws Exception {
+		try {
+			for (Future<Integer> writer : writers) {
+				writer.get();
+			}
+		} finally {
+			writing.set(false);
+		}
+	}
+	
+	private static String content(char letter) {
+		char [] chars = new char [CONTENT_LENGTH];
+		Arrays.fill(chars, letter);
+		return new String(chars);
+	}
+	
+	private static void assertUniform(String name, CharSequence content) {
+		assertTrue(name + ": missing", content != null);
+		assertEquals(name + ": length", CONTENT_LENGTH, content.length());
+		char letter = content.charAt(0);
+		for (int i = 1; i < CONTENT_LENGTH; i++) {
+			if (content.charAt(i) != letter) {
+				fail(name + ": torn at " + i + ", '" + letter + "' then '" +
+						content.charAt(i) + "'");
+			}
+		}
+	}
+	
+	public static void main(String[] args) {
+		runAndExit(ConcurrencyTest.class);
+	}
+}
@@ -0,0 +1,123 @@
+package idea.inspired.core.io;
+
+import idea.inspired.core.TestCase;
+import idea.inspired.core.io.compress.CompressionCodec;
+import idea.inspired.core.io.compress.CompressionCodecs;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+
+/**
+ * Round-trips a text through every {@link FileHeader}: the header is
+ * detected, and the text is read back the same by each reader, plain
+ * and compressed.
+ *
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+public class FileHeaderTest extends TestCase {
+	
+	/** Latin-1, CJK, a surrogate pair and the line separators */
+	private static final String TEXT = "Hello, w\u00F6rld \u4E2D\u6587 " +
+			"\uD83D\uDE00\nsecond line\r\nthird\n";
+	
+	private static final Object [][] HEADERS = {
+		{FileHeader.UTF8, "UTF-8", new int [] {0xEF, 0xBB, 0xBF}},
+		{FileHeader.UTF16_BIG_ENDIAN, "UTF-16BE", new int [] {0xFE, 0xFF}},
+		{FileHeader.UTF16_LITTLE_ENDIAN, "UTF-16LE",
+				new int [] {0xFF, 0xFE}},
+		{FileHeader.UTF32_BIG_ENDIAN, "UTF-32BE",
+				new int [] {0x00, 0x00, 0xFE, 0xFF}},
+		{FileHeader.UTF32_LITTLE_ENDIAN, "UTF-32LE",
+				new int [] {0xFF, 0xFE, 0x00, 0x00}},
+	};
+	
+	public void testDetectsEveryHeader() throws IOException {
+		for (Object [] row : HEADERS) {
+			File file = writeWithHeader(row, null);
+			assertEquals("header of " + row[1], row[0],
+					FileHeader.getHeader(file));
+		}
+	}
+	
+	public void testReadRoundTrip() throws IOException {
+		for (Object [] row : HEADERS) {
+			File file = writeWithHeader(row, null);
+			assertContentEquals("read " + row[1], TEXT,
+					FileManager.read(file));
+			assertContentEquals("readParallel " + row[1], TEXT,
+					FileManager.readParallel(file, true));
+		}
+	}
+	
+	public void testOffHeapRoundTrip() throws IOException {
+		for (Object [] row : HEADERS) {
+			File file = writeWithHeader(row, null);
+			OffHeapText text = FileManager.readOffHeap(file);
+			try {
+				assertContentEquals("readOffHeap " + row[1], TEXT, text);
+				assertEquals("charAt " + row[1], TEXT.charAt(14),
+						text.charAt(14));
+				assertContentEquals("subSequence " + row[1],
+						TEXT.substring(9, 20), text.subSequence(9, 20));
+			} finally {
+				text.close();
+			}
+		}
+	}
+	
+	public void testCompressedRoundTrip() throws IOException {
+		CompressionCodec [] codecs = {
+			CompressionCodecs.GZIP, CompressionCodecs.DEFLATE
+		};
+		for (CompressionCodec codec : codecs) {
+			for (Object [] row : HEADERS) {
+				File file = writeWithHeader(row, codec);
+				String name = codec.getName() + " " + row[1];
+				assertEquals("codec of " + name, codec,
+						CompressionCodecs.detect(file));
+				assertContentEquals("read " + name, TEXT,
+						FileManager.read(file));
+				
+				OffHeapText text = FileManager.readOffHeap(file);
+				try {
+					assertContentEquals("readOffHeap " + name, TEXT, text);
+				} finally {
+					text.close();
+				}
+			}
+		}
+	}
+	
+	/**
+	 * A text which begins like a zlib header is read as it is.
+	 */
+	public void testTextLikeZlibHeader() throws IOException {
+		File file = new File(mTempDir, "formula.txt");
+		String formula = "x^2 + y^2 = r^2\n";
+		Files.write(file.toPath(), formula.getBytes("US-ASCII"));
+		assertContentEquals("read", formula, FileManager.read(file));
+	}
+	
+	private File writeWithHeader(Object [] row, CompressionCodec codec)
+			throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		for (int b : (int []) row[2]) {
+			bytes.write(b);
+		}
+		bytes.write(TEXT.getBytes(Charset.forName((String) row[1])));
+		
+		File file = new File(mTempDir, row[1] + (codec != null
+				? "." + codec.getName() : "") + ".txt");
+		assertTrue("write " + file, FileManager.write(file,
+				bytes.toByteArray(), codec));
+		return file;
+	}
+	
+	public static void main(String[] args) {
+		runAndExit(FileHeaderTest.class);
+	}
+}
@@ -0,0 +1,270 @@
+package idea.inspired.core.io;
+
+import idea.inspired.core.TestCase;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Copies, moves, reads and deletes a synthetic tree of many tiny files,
+ * a few large files and a sparse file, and compares every byte.
+ *
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+public class FileManagerTreeTest extends TestCase {
+	
+	private static final int DIRECTORY_COUNT = 40;
+	private static final int LARGE_FILE_COUNT = 3;
+	private static final int LARGE_FILE_SIZE = 16 << 20;
+	private static final long SPARSE_FILE_SIZE = 128L << 20;
+	private static final byte [] SPARSE_MARK = "sparse-end".getBytes();
+	
+	private File mSource;
+	private int mEntryCount;
+	
+	@Override
+	protected void setUp() throws IOException {
+		mSource = new File(mTempDir, "src");
+		mEntryCount = createTree(mSource, true);
+	}
+	
+	/**
+	 * Creates the tree, with the same contents for the same arguments.
+	 *
+	 * @return
+	 *    the number of the files and directories, including the root
+	 */
+	static int createTree(File root, boolean withLargeFiles)
+			throws IOException {
+		Random random = new Random(42);
+		int entries = 1;
+		for (int d = 0; d < DIRECTORY_COUNT; d++) {
+			File directory = new File(root, "d" + d + "/sub" + d % 4);
+			assertTrue("mkdirs " + directory, directory.mkdirs());
+			entries += 2;
+		}
+		
+		for (int i = 0; i < TINY_FILE_COUNT; i++) {
+			byte [] content = new byte [10 + random.nextInt(190)];
+			random.nextBytes(content);
+			Files.write(new File(root, "d" + i % DIRECTORY_COUNT + "/sub" +
+					i % DIRECTORY_COUNT % 4 + "/tiny" + i).toPath(), content);
+			entries++;
+		}
+		if (!withLargeFiles) {
+			return entries;
+		}
+		
+		byte [] large = new byte [LARGE_FILE_SIZE];
+		for (int i = 0; i < LARGE_FILE_COUNT; i++) {
+			random.nextBytes(large);
+			Files.write(new File(root, "large" + i + ".bin").toPath(),
+					large);
+			entries++;
+		}
+		
+		// only the ends are written
+		RandomAccessFile raf = new RandomAccessFile(
+				new File(root, "sparse.bin"), "rw");
+		try {
+			raf.write(SPARSE_MARK);
+			raf.seek(SPARSE_FILE_SIZE - SPARSE_MARK.length);
+			raf.write(SPARSE_MARK);
+		} finally {
+			raf.close();
+		}
+		return entries + 1;
+	}
+	
+	public void testCopyTree() throws IOException {
+		File dest = new File(mTempDir, "dest");
+		assertTrue("copy", FileManager.copy(mSource, dest));
+		assertSameTree(mSource, dest);
+	}
+	
+	public void testMoveTreeByRename() throws IOException {
+		File copy = new File(mTempDir, "copy");
+		assertTrue("copy", FileManager.copy(mSource, copy));
+		File dest = new File(mTempDir, "moved");
+		
+		TreeReport report = FileManager.move(copy, dest);
+		assertTrue("move: " + report.getErrors(), report.isSuccessful());
+		assertTrue("renamed", report.isRenamed());
+		assertTrue("source removed", !copy.exists());
+		assertSameTree(mSource, dest);
+	}
+	
+	/**
+	 * Moves a tree to another volume, i.e. /dev/shm if it is one, which
+	 * copies and deletes every entry.
+	 */
+	public void testMoveTreeAcrossVolumes() throws IOException {
+		File shm = new File("/dev/shm");
+		if (!shm.isDirectory() || !shm.canWrite() || sameStore(
+				shm.toPath(), mTempDir.toPath())) {
+			System.out.println("  skipped: no other volume");
+			return;
+		}
+		
+		File src = new File(mTempDir, "small");
+		int entries = createTree(src, false);
+		File expected = new File(mTempDir, "expected");
+		assertTrue("copy", FileManager.copy(src, expected));
+		File dest = new File(shm, "FileManagerTreeTest-" +
+				System.nanoTime());
+		try {
+			TreeReport report = FileManager.move(src, dest);
+			assertTrue("move: " + report.getErrors(),
+					report.isSuccessful());
+			assertTrue("not renamed", !report.isRenamed());
+			assertEquals("entries", (long) entries, report.getEntryCount());
+			assertTrue("source removed", !src.exists());
+			assertSameTree(expected, dest);
+		} finally {
+			FileManager.deleteTree(dest);
+		}
+	}
+	
+	/**
+	 * A file moved to an existing directory is moved into it.
+	 */
+	public void testMoveFileIntoDirectory() throws IOException {
+		File file = new File(mTempDir, "file.txt");
+		Files.write(file.toPath(), "content".getBytes());
+		File directory = new File(mTempDir, "into");
+		assertTrue("mkdir", directory.mkdir());
+		
+		TreeReport report = FileManager.move(file, directory);
+		assertTrue("move: " + report.getErrors(), report.isSuccessful());
+		assertTrue("source removed", !file.exists());
+		assertContentEquals("moved", "content", new String(
+				Files.readAllBytes(new File(directory, "file.txt").toPath())));
+		
+		// not onto a directory of the same name
+		Files.write(file.toPath(), "again".getBytes());
+		assertTrue("mkdir", new File(directory, "file.txt").delete()
+				&& new File(directory, "file.txt").mkdir());
+		report = FileManager.move(file, directory);
+		assertTrue("rejected", !report.isSuccessful());
+		assertTrue("source kept", file.isFile());
+	}
+	
+	public void testBulkWriteAndRead() throws IOException {
+		Map<Path, String> contents = new LinkedHashMap<Path, String>();
+		for (int i = 0; i < TINY_FILE_COUNT; i++) {
+			contents.put(new File(mTempDir, "bulk/b" + i % 16 + "/f" + i +
+					".txt").toPath(), "file " + i + "\n");
+		}
+		
+		for (BulkResult<Boolean> result : FileManager.writeAll(contents)) {
+			assertTrue("write " + result, result.isSuccessful());
+		}
+		List<BulkResult<StringBuilder>> results =
+				FileManager.readAll(contents.keySet());
+		int i = 0;
+		for (Map.Entry<Path, String> entry : contents.entrySet()) {
+			BulkResult<StringBuilder> result = results.get(i++);
+			assertEquals("path", entry.getKey(), result.getPath());
+			assertContentEquals("read " + entry.getKey(), entry.getValue(),
+					result.getValue());
+		}
+	}
+	
+	public void testDeleteTree() throws IOException {
+		TreeReport report = FileManager.deleteTree(mSource);
+		assertTrue("delete: " + report.getErrors(), report.isSuccessful());
+		assertEquals("entries", (long) mEntryCount, report.getEntryCount());
+		assertEquals("processed", (long) mEntryCount,
+				report.getProcessedCount());
+		assertTrue("root removed", !mSource.exists());
+	}
+	
+	//-------------------------------------------------------------
+	// Helpers
+	//-------------------------------------------------------------
+	
+	private static boolean sameStore(Path a, Path b) throws IOException {
+		FileStore store = Files.getFileStore(a);
+		return store.equals(Files.getFileStore(b));
+	}
+	
+	/**
+	 * Compares the names, the types and the contents of the trees.
+	 */
+	static void assertSameTree(File expected, File actual)
+			throws IOException {
+		assertTrue("exists " + actual, actual.exists());
+		if (expected.isDirectory()) {
+			assertTrue("directory " + actual, actual.isDirectory());
+			String [] names = expected.list();
+			String [] actualNames = actual.list();
+			Arrays.sort(names);
+			Arrays.sort(actualNames);
+			assertEquals("entries of " + actual, Arrays.asList(names),
+					Arrays.asList(actualNames));
+			for (String name : names) {
+				assertSameTree(new File(expected, name),
+						new File(actual, name));
+			}
+		} else {
+			assertEquals("length of " + actual, expected.length(),
+					actual.length());
+			assertSameContent(expected, actual);
+		}
+	}
+	
+	private static void assertSameContent(File expected, File actual)
+			throws IOException {
+		byte [] a = new byte [64 * 1024];
+		byte [] b = new byte [a.length];
+		InputStream isA = new FileInputStream(expected);
+		try {
+			InputStream isB = new FileInputStream(actual);
+			try {
+				long offset = 0;
+				int length;
+				while ((length = readFully(isA, a)) > 0) {
+					assertEquals("read " + actual + " at " + offset,
+							length, readFully(isB, b));
+					for (int i = 0; i < length; i++) {
+						if (a[i] != b[i]) {
+							fail("content of " + actual + " differs at " +
+									(offset + i));
+						}
+					}
+					offset += length;
+				}
+			} finally {
+				isB.close();
+			}
+		} finally {
+			isA.close();
+		}
+	}
+	
+	private static int readFully(InputStream is, byte [] buffer)
+			throws IOException {
+		int total = 0, length;
+		while (total < buffer.length && (length = is.read(buffer, total,
+				buffer.length - total)) != -1) {
+			total += length;
+		}
+		return total;
+	}
+	
+	public static void main(String[] args) {
+		runAndExit(FileManagerTreeTest.class);
+	}
+}
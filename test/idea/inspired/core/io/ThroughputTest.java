@@ -0,0 +1,184 @@
+package idea.inspired.core.io;
+
+import idea.inspired.core.TestCase;
+import idea.inspired.core.io.search.FileSearcher;
+import idea.inspired.core.io.search.SearchListener;
+import idea.inspired.core.io.search.SearchMatch;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * <P>Measures the main paths, and fails when one falls far below its
+ * floor. The floors are an order of magnitude below a laptop disk, so
+ * that they catch a path which regressed badly, e.g. to a quadratic
+ * loop or to an unbuffered stream, not the noise of a busy machine.</P>
+ *
+ * <P>Each rate is the best of a few runs. Set the system property
+ * <CODE>test.floor.scale</CODE> to lower or skip the floors.</P>
+ *
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+public class ThroughputTest extends TestCase {
+	
+	private static final int RUNS = 3;
+	private static final int LARGE_FILE_SIZE = 64 << 20;
+	private static final double MB = 1 << 20;
+	
+	public void testCopyLargeFile() throws IOException {
+		File src = createLargeFile("large.bin", true);
+		File dest = new File(mTempDir, "copy.bin");
+		long best = Long.MAX_VALUE;
+		for (int i = 0; i < RUNS; i++) {
+			long start = System.nanoTime();
+			assertTrue("copy", FileManager.copy(src, dest));
+			best = Math.min(best, System.nanoTime() - start);
+			assertEquals("length", src.length(), dest.length());
+		}
+		assertFloor("copy MB/s", perSecond(LARGE_FILE_SIZE / MB, best), 50);
+	}
+	
+	public void testReadLargeFile() throws IOException {
+		File file = createLargeFile("large.txt", false);
+		long best = Long.MAX_VALUE, bestParallel = Long.MAX_VALUE;
+		for (int i = 0; i < RUNS; i++) {
+			long start = System.nanoTime();
+			CharSequence content = FileManager.read(file);
+			best = Math.min(best, System.nanoTime() - start);
+			assertEquals("read length", LARGE_FILE_SIZE, content.length());
+			content = null;
+			
+			start = System.nanoTime();
+			content = FileManager.readParallel(file);
+			bestParallel = Math.min(bestParallel, System.nanoTime() - start);
+			assertEquals("readParallel length", LARGE_FILE_SIZE,
+					content.length());
+		}
+		assertFloor("read MB/s", perSecond(LARGE_FILE_SIZE / MB, best), 20);
+		assertFloor("readParallel MB/s", perSecond(LARGE_FILE_SIZE / MB,
+				bestParallel), 20);
+	}
+	
+	public void testWriteAndReadTinyFiles() throws IOException {
+		Map<Path, String> contents = new LinkedHashMap<Path, String>();
+		for (int i = 0; i < TINY_FILE_COUNT; i++) {
+			contents.put(new File(mTempDir, "tiny/d" + i % 20 + "/f" + i)
+					.toPath(), "tiny file " + i + "\n");
+		}
+		
+		long bestWrite = Long.MAX_VALUE, bestRead = Long.MAX_VALUE;
+		for (int i = 0; i < RUNS; i++) {
+			long start = System.nanoTime();
+			for (BulkResult<Boolean> result : FileManager.writeAll(contents)) {
+				assertTrue("write " + result, result.isSuccessful());
+			}
+			bestWrite = Math.min(bestWrite, System.nanoTime() - start);
+			
+			start = System.nanoTime();
+			for (BulkResult<StringBuilder> result :
+					FileManager.readAll(contents.keySet())) {
+				assertTrue("read " + result, result.isSuccessful());
+			}
+			bestRead = Math.min(bestRead, System.nanoTime() - start);
+		}
+		assertFloor("writeAll files/s", perSecond(TINY_FILE_COUNT,
+				bestWrite), 500);
+		assertFloor("readAll files/s", perSecond(TINY_FILE_COUNT,
+				bestRead), 500);
+	}
+	
+	/**
+	 * Searches a large file, and a long line with many matches, which
+	 * must not be rescanned for each match.
+	 */
+	public void testSearchLiteral() throws IOException {
+		File file = createLargeFile("large.txt", false);
+		File line = new File(mTempDir, "line.txt");
+		byte [] bytes = new byte [1 << 20];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = (byte) (i % 8 == 0 ? 'x' : '.');
+		}
+		Files.write(line.toPath(), bytes);
+		
+		long best = Long.MAX_VALUE, bestLine = Long.MAX_VALUE;
+		long matches = 0;
+		for (int i = 0; i < RUNS; i++) {
+			long start = System.nanoTime();
+			assertEquals("matches in " + file, 0L, FileSearcher
+					.forLiteral("needle").search(file, new Counter()));
+			best = Math.min(best, System.nanoTime() - start);
+			
+			start = System.nanoTime();
+			matches = FileSearcher.forLiteral("x").search(line,
+					new Counter());
+			bestLine = Math.min(bestLine, System.nanoTime() - start);
+			assertEquals("matches in " + line, (long) bytes.length / 8,
+					matches);
+		}
+		assertFloor("search MB/s", perSecond(LARGE_FILE_SIZE / MB, best),
+				50);
+		assertFloor("matches/s in a line", perSecond(matches, bestLine),
+				10000);
+	}
+	
+	//-------------------------------------------------------------
+	// Helpers
+	//-------------------------------------------------------------
+	
+	/**
+	 * Creates a file of random bytes, or of ASCII lines.
+	 */
+	private File createLargeFile(String name, boolean binary)
+			throws IOException {
+		Random random = new Random(7);
+		byte [] block = new byte [1 << 20];
+		if (binary) {
+			random.nextBytes(block);
+		} else {
+			for (int i = 0; i < block.length; i++) {
+				block[i] = (byte) (i % 80 == 79 ? '\n' :
+						'a' + random.nextInt(26));
+			}
+		}
+		
+		File file = new File(mTempDir, name);
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			for (int i = 0; i < LARGE_FILE_SIZE / block.length; i++) {
+				raf.write(block);
+				if (binary) {
+					// the blocks differ, e.g. for a deduplicating disk
+					Arrays.fill(block, 0, 8, (byte) i);
+				}
+			}
+		} finally {
+			raf.close();
+		}
+		return file;
+	}
+	
+	private static class Counter implements SearchListener {
+		
+		@Override
+		public boolean onMatch(SearchMatch match) {
+			return true;
+		}
+		
+		@Override
+		public void onError(File file, IOException e) {
+			fail("search " + file + ": " + e);
+		}
+	}
+	
+	public static void main(String[] args) {
+		runAndExit(ThroughputTest.class);
+	}
+}
@@ -0,0 +1,85 @@
+package idea.inspired.core.os;
+
+import idea.inspired.core.TestCase;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks the cached system properties of {@link SystemUtils}, also
+ * while the cache is cleared by another thread.
+ *
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+public class SystemUtilsTest extends TestCase {
+	
+	@Override
+	protected void tearDown() {
+		SystemUtils.clearCache();
+	}
+	
+	public void testProperties() {
+		assertEquals("line separator", System.getProperty("line.separator"),
+				SystemUtils.getLineSeparator());
+		assertEquals("working directory", System.getProperty("user.dir"),
+				SystemUtils.getWorkingDirectory());
+	}
+	
+	public void testClearCacheLooksUpAgain() {
+		String separator = System.getProperty("line.separator");
+		SystemUtils.getLineSeparator();
+		try {
+			System.setProperty("line.separator", "\r\n");
+			assertEquals("cached", separator, SystemUtils.getLineSeparator());
+			SystemUtils.clearCache();
+			assertEquals("looked up", "\r\n", SystemUtils.getLineSeparator());
+		} finally {
+			System.setProperty("line.separator", separator);
+		}
+	}
+	
+	public void testReadableLineSeparator() {
+		String separator = System.getProperty("line.separator");
+		String readable = separator.replace("\r", "\\r").replace("\n", "\\n");
+		assertEquals("readable", readable, SystemUtils.getSortedProperties()
+				.get("line.separator.readable"));
+	}
+	
+	/**
+	 * The getters never return null while the cache is cleared.
+	 */
+	public void testConcurrentClearCache() throws InterruptedException {
+		final AtomicBoolean running = new AtomicBoolean(true);
+		final AtomicInteger nulls = new AtomicInteger();
+		Thread [] readers = new Thread [4];
+		for (int t = 0; t < readers.length; t++) {
+			readers[t] = new Thread() {
+				@Override
+				public void run() {
+					while (running.get()) {
+						if (SystemUtils.getLineSeparator() == null
+								|| SystemUtils.getWorkingDirectory() == null) {
+							nulls.incrementAndGet();
+						}
+					}
+				}
+			};
+			readers[t].start();
+		}
+		
+		long end = System.nanoTime() + 300 * 1000000L;
+		while (System.nanoTime() < end) {
+			SystemUtils.clearCache();
+		}
+		running.set(false);
+		for (Thread reader : readers) {
+			reader.join();
+		}
+		assertEquals("null values", 0, nulls.get());
+	}
+	
+	public static void main(String[] args) {
+		runAndExit(SystemUtilsTest.class);
+	}
+}
@@ -0,0 +1,105 @@
+package idea.inspired.core.util;
+
+import idea.inspired.core.TestCase;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Checks the lines written by {@link Log} to the standard streams,
+ * which are captured during each test.
+ *
+ * @author tsungjung411@yahoo.com.tw
+ * @since 2026.10.19
+ */
+public class LogTest extends TestCase {
+	
+	private static final String SEPARATOR = System.lineSeparator();
+	
+	private PrintStream mOut;
+	private PrintStream mErr;
+	private ByteArrayOutputStream mCapturedOut;
+	private ByteArrayOutputStream mCapturedErr;
+	
+	@Override
+	protected void setUp() throws UnsupportedEncodingException {
+		mOut = System.out;
+		mErr = System.err;
+		mCapturedOut = new ByteArrayOutputStream();
+		mCapturedErr = new ByteArrayOutputStream();
+		System.setOut(new PrintStream(mCapturedOut, true, "UTF-8"));
+		System.setErr(new PrintStream(mCapturedErr, true, "UTF-8"));
+	}
+	
+	@Override
+	protected void tearDown() {
+		System.setOut(mOut);
+		System.setErr(mErr);
+	}
+	
+	public void testVerbose() throws UnsupportedEncodingException {
+		Log.v("message");
+		assertEquals("out", "message" + SEPARATOR, mCapturedOut.toString(
+				"UTF-8"));
+	}
+	
+	public void testVerboseTagsEveryLine()
+			throws UnsupportedEncodingException {
+		Log.v("T", "a\nb\r\nc\rd");
+		assertEquals("out", "T: a" + SEPARATOR + "T: b" + SEPARATOR +
+				"T: c" + SEPARATOR + "T: d" + SEPARATOR,
+				mCapturedOut.toString("UTF-8"));
+	}
+	
+	public void testVerboseDate() throws UnsupportedEncodingException {
+		Date date = new Date(1700000000000L);
+		Log.v("T", date);
+		assertEquals("out", "T: " + new SimpleDateFormat(Log.DATE_FORMAT)
+				.format(date) + SEPARATOR, mCapturedOut.toString("UTF-8"));
+	}
+	
+	public void testErrors() throws UnsupportedEncodingException {
+		Log.e("plain");
+		Log.e("T", "tagged");
+		assertEquals("err", "plain" + SEPARATOR + "T: tagged" + SEPARATOR,
+				mCapturedErr.toString("UTF-8"));
+		assertEquals("out", "", mCapturedOut.toString("UTF-8"));
+	}
+	
+	/**
+	 * The lines logged by many threads are never interleaved.
+	 */
+	public void testConcurrentLinesAreWhole() throws Exception {
+		final int THREADS = 8, LINES = 2000;
+		Thread [] threads = new Thread [THREADS];
+		for (int t = 0; t < THREADS; t++) {
+			final String tag = "thread" + t;
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					for (int i = 0; i < LINES; i++) {
+						Log.v(tag, "line " + i);
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		
+		String [] lines = mCapturedOut.toString("UTF-8").split(SEPARATOR);
+		assertEquals("lines", THREADS * LINES, lines.length);
+		for (String line : lines) {
+			assertTrue("torn line: " + line,
+					line.matches("thread\\d+: line \\d+"));
+		}
+	}
+	
+	public static void main(String[] args) {
+		runAndExit(LogTest.class);
+	}
+}